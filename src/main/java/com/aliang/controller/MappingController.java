@@ -1,12 +1,17 @@
 package com.aliang.controller;
 
 import com.aliang.model.*;
+import com.aliang.registry.engine.*;
 import com.aliang.service.*;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.data.mongodb.core.*;
 import org.springframework.data.mongodb.core.query.*;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.*;
+import java.io.*;
+import java.util.*;
+
 @RestController
 @RequestMapping("/mapping")
 public class MappingController {
@@ -26,6 +31,41 @@ public class MappingController {
         return vo;
     }
 
+    // 批量映射：同一产品编码的多条数据，单条失败不影响其他数据
+    @PostMapping("/process/batch")
+    public MappingBatchResultVO processBatch(@RequestParam String code,
+                                             @RequestBody MappingBatchProcessDTO body) {
+        List<Map<String, Object>> sources = body.getSources() != null ? body.getSources() : new ArrayList<>();
+        List<MappingBatchItemVO> items = new ArrayList<>(sources.size());
+        int successCount = 0;
+        for (MappingItemResult itemResult : productMappingService.processBatch(code, sources)) {
+            MappingBatchItemVO item = new MappingBatchItemVO();
+            item.setIndex(itemResult.getIndex());
+            item.setSuccess(itemResult.isSuccess());
+            item.setResult(itemResult.isSuccess() ? itemResult.getResult().getInnerMap() : null);
+            item.setError(itemResult.getError());
+            items.add(item);
+            if (itemResult.isSuccess()) {
+                successCount++;
+            }
+        }
+
+        MappingBatchResultVO vo = new MappingBatchResultVO();
+        vo.setSuccessCount(successCount);
+        vo.setFailureCount(items.size() - successCount);
+        vo.setResults(items);
+        return vo;
+    }
+
+    // 流式映射：请求体为NDJSON，逐行映射并逐行写出结果
+    @PostMapping(value = "/process/stream", produces = "application/x-ndjson")
+    public void processStream(@RequestParam String code,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        productMappingService.processStream(code, request.getInputStream(), response.getOutputStream());
+    }
+
     // 查询映射规则
     @GetMapping("/rule/{code}")
     public MappingRulePO getRule(@PathVariable String code) {
@@ -36,7 +76,10 @@ public class MappingController {
     // 新增映射规则
     @PostMapping("/rule")
     public String addRule(@RequestBody MappingRulePO rule) {
+        rule.setUpdatedAt(new Date());
+        rule.setVersion(1L);
         mongoTemplate.insert(rule, collectionName);
+        productMappingService.invalidateRules(rule.getCode());
         return "success";
     }
 
@@ -46,7 +89,10 @@ public class MappingController {
         Query query = new Query(Criteria.where("code").is(code));
         Update update = new Update();
         update.set("mappings", rule.getMappings());
+        update.set("updatedAt", new Date());
+        update.inc("version", 1);
         mongoTemplate.upsert(query, update, collectionName);
+        productMappingService.invalidateRules(code);
         return "success";
     }
 
@@ -55,6 +101,7 @@ public class MappingController {
     public String deleteRule(@PathVariable String code) {
         Query query = new Query(Criteria.where("code").is(code));
         mongoTemplate.remove(query, collectionName);
+        productMappingService.invalidateRules(code);
         return "success";
     }
 } 
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.aliang.logger;
+
+import com.aliang.utils.*;
+
+/**
+ * 错误日志限流器
+ * <p>
+ * 大量数据同时失败时（例如整批数据的某个字段格式错误），逐条输出错误日志会拖慢映射并淹没有效信息。
+ * 限流器按日志键（处理器名称、产品编码等）分别统计：
+ * 1. 采样：每 sampleRate 条只输出第1条，sampleRate 小于等于1时不采样
+ * 2. 限流：每个时间窗口（intervalMillis）最多输出 maxPerInterval 条，maxPerInterval 小于等于0时不限流
+ * 3. 被丢弃的条数会在该键下一条输出的日志中一并报告
+ * <p>
+ * 最多跟踪 1024 个日志键，超出时只淘汰最久未出现的键，持续出错的键的采样位置和丢弃条数不受影响。
+ * <p>
+ * 默认不采样也不限流，所有错误日志照常输出。
+ */
+public final class ErrorLogThrottle {
+    private static final ErrorLogThrottle SHARED = new ErrorLogThrottle();
+
+    private static final int MAX_KEYS = 1024;
+
+    private final BoundedCache<String, Window> windows = new BoundedCache<>(MAX_KEYS);
+
+    private volatile int sampleRate = 1;
+    private volatile int maxPerInterval;
+    private volatile long intervalMillis = 1000;
+
+    /**
+     * 获取全局共享的限流器
+     */
+    public static ErrorLogThrottle shared() {
+        return SHARED;
+    }
+
+    /**
+     * 设置采样与限流参数
+     *
+     * @param sampleRate     采样间隔，小于等于1时不采样
+     * @param maxPerInterval 每个时间窗口最多输出的条数，小于等于0时不限流
+     * @param intervalMillis 时间窗口（毫秒）
+     */
+    public void configure(int sampleRate, int maxPerInterval, long intervalMillis) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.maxPerInterval = maxPerInterval;
+        this.intervalMillis = Math.max(1, intervalMillis);
+        windows.clear();
+    }
+
+    /**
+     * 申请输出一条错误日志
+     *
+     * @param key 日志键
+     * @return 小于0表示本条应丢弃；否则为自上次输出以来被丢弃的条数
+     */
+    public long acquire(String key) {
+        int rate = sampleRate;
+        int limit = maxPerInterval;
+        if (rate <= 1 && limit <= 0) {
+            return 0;
+        }
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        synchronized (window) {
+            window.seen++;
+            if (rate > 1 && (window.seen - 1) % rate != 0) {
+                window.suppressed++;
+                return -1;
+            }
+            if (limit > 0) {
+                long now = System.currentTimeMillis();
+                if (now - window.start >= intervalMillis) {
+                    window.start = now;
+                    window.permits = 0;
+                }
+                if (window.permits >= limit) {
+                    window.suppressed++;
+                    return -1;
+                }
+                window.permits++;
+            }
+            long suppressed = window.suppressed;
+            window.suppressed = 0;
+            return suppressed;
+        }
+    }
+
+    private static final class Window {
+        private long seen;
+        private long start;
+        private int permits;
+        private long suppressed;
+    }
+}
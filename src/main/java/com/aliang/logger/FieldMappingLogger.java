@@ -5,6 +5,14 @@ package com.aliang.logger;
  * 专门用于记录字段映射过程中的问题
  */
 public interface FieldMappingLogger {
+    /**
+     * 是否输出调试日志
+     * 调用方在构建日志内容前应先判断，调试日志关闭时不做任何字符串拼接
+     *
+     * @return 调试日志开启时返回true
+     */
+    boolean isDebugEnabled();
+
     /**
      * 记录处理器执行失败的情况
      *
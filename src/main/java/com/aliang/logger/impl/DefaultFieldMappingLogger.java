@@ -9,6 +9,11 @@ import org.slf4j.*;
 public class DefaultFieldMappingLogger implements FieldMappingLogger {
     private static final Logger log = LoggerFactory.getLogger("FieldMapping");
 
+    @Override
+    public boolean isDebugEnabled() {
+        return log.isDebugEnabled();
+    }
+
     @Override
     public void logProcessorFailure(String sourcePath, String targetPath, String processorName, Object sourceValue, String error) {
         log.warn("字段处理失败 - 源字段: {}, 目标字段: {}, 处理器: {}, 源值: {}, 错误: {}",
@@ -29,6 +34,9 @@ public class DefaultFieldMappingLogger implements FieldMappingLogger {
 
     @Override
     public void logMappingSuccess(String sourcePath, String targetPath, Object value) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("字段映射成功 - 源字段: {}, 目标字段: {}, 映射值: {}",
                 sourcePath, targetPath, value);
     }
@@ -5,10 +5,17 @@ import org.slf4j.*;
 
 /**
  * 默认处理器日志实现
+ * <p>
+ * 调试日志关闭时不分配参数数组；处理失败日志经过 {@link ErrorLogThrottle} 采样与限流。
  */
 public class DefaultProcessorLogger implements ProcessorLogger {
     private static final Logger log = LoggerFactory.getLogger("Processor");
 
+    @Override
+    public boolean isDebugEnabled() {
+        return log.isDebugEnabled();
+    }
+
     @Override
     public void logProcessorInit(String processorName, String config) {
         log.debug("处理器初始化 - 处理器: {}, 配置: {}", processorName, config);
@@ -32,13 +39,26 @@ public class DefaultProcessorLogger implements ProcessorLogger {
 
     @Override
     public void logProcessSuccess(String processorName, Object input, Object output) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         log.debug("处理器处理成功 - 处理器: {}, 输入: {}, 输出: {}",
                 processorName, input, output);
     }
 
     @Override
     public void logProcessFailure(String processorName, Object input, String error) {
+        if (!log.isErrorEnabled()) {
+            return;
+        }
+        long suppressed = ErrorLogThrottle.shared().acquire(processorName);
+        if (suppressed < 0) {
+            return;
+        }
         log.error("处理器处理失败 - 处理器: {}, 输入: {}, 错误: {}",
                 processorName, input, error);
+        if (suppressed > 0) {
+            log.error("处理器处理失败日志已限流 - 处理器: {}, 丢弃条数: {}", processorName, suppressed);
+        }
     }
 } 
\ No newline at end of file
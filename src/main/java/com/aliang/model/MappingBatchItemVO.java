@@ -0,0 +1,13 @@
+package com.aliang.model;
+
+import lombok.*;
+
+import java.util.*;
+
+@Data
+public class MappingBatchItemVO {
+    private int index;
+    private boolean success;
+    private Map<String, Object> result;
+    private String error;
+}
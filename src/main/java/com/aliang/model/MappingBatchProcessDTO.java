@@ -0,0 +1,10 @@
+package com.aliang.model;
+
+import lombok.*;
+
+import java.util.*;
+
+@Data
+public class MappingBatchProcessDTO {
+    private List<Map<String, Object>> sources;
+}
@@ -0,0 +1,12 @@
+package com.aliang.model;
+
+import lombok.*;
+
+import java.util.*;
+
+@Data
+public class MappingBatchResultVO {
+    private int successCount;
+    private int failureCount;
+    private List<MappingBatchItemVO> results;
+}
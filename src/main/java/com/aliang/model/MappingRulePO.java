@@ -8,4 +8,12 @@ import java.util.*;
 public class MappingRulePO {
     private String code;
     private List<FieldMappingPO> mappings;
+    /**
+     * 最后修改时间，供规则变更轮询使用
+     */
+    private Date updatedAt;
+    /**
+     * 规则版本号，每次修改递增
+     */
+    private Long version;
 } 
\ No newline at end of file
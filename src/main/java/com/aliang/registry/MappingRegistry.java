@@ -5,39 +5,104 @@ import org.slf4j.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
 /**
  * 注册中心（MappingRegistry）
  * 存储并管理所有产品的映射规则
+ * <p>
+ * 每个产品编码对应一个不可变的 {@link MappingRuleSet}，规则变更时整体替换并分配新的版本号，
+ * 供引擎判断缓存的映射计划是否过期。
+ * <p>
+ * 注册中心同时作为规则缓存使用：
+ * 1. 最多保留 maxSize 个产品编码，超出时淘汰最久未访问的编码（LRU）
+ * 2. 规则加载超过 ttlMillis 后视为过期，由调用方重新加载
+ * 3. 规则被清理或淘汰时通知已注册的监听器
  */
 public class MappingRegistry {
     private static final Logger logger = LoggerFactory.getLogger(MappingRegistry.class);
 
-    private final Map<String, Map<String, JSONObject>> mappings = new ConcurrentHashMap<>();
+    private final Map<String, MappingRuleSet> ruleSets = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 最多缓存的产品编码数量
+     */
+    private volatile int maxSize;
+
+    /**
+     * 规则过期时间（毫秒），小于等于0表示永不过期
+     */
+    private volatile long ttlMillis;
+
+    public MappingRegistry() {
+        this(Integer.MAX_VALUE, 0L);
+    }
+
+    public MappingRegistry(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        evictIfNecessary();
+    }
+
+    public void setTtlMillis(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
 
     public void registerMapping(String code, String key, JSONObject mapping) {
         if (code == null || code.trim().isEmpty()) {
             logger.error("注册映射失败：code不能为空");
             return;
         }
-        if (key == null || key.trim().isEmpty()) {
-            logger.error("注册映射失败：key不能为空");
+        if (!isValidMapping(code, key, mapping)) {
             return;
         }
-        if (mapping == null) {
-            logger.error("注册映射失败：mapping不能为空");
-            return;
+
+        ruleSets.compute(code, (k, old) -> {
+            Map<String, JSONObject> merged = old != null ? new LinkedHashMap<>(old.getMappings()) : new LinkedHashMap<>();
+            merged.put(key, mapping);
+            return new MappingRuleSet(code, versionSequence.incrementAndGet(), merged, System.currentTimeMillis());
+        });
+        evictIfNecessary();
+        logger.debug("注册映射成功 - code: {}, key: {}", code, key);
+    }
+
+    /**
+     * 整体替换指定产品编码的映射规则
+     * <p>
+     * 新规则构建完成后一次性替换，并发读取方要么看到旧规则，要么看到新规则，不会看到空规则。
+     * 不合法的映射配置会被跳过。
+     *
+     * @param code     产品编码
+     * @param mappings 目标路径到映射配置的映射
+     * @return 替换后的规则集，code为空时返回null
+     */
+    public MappingRuleSet replaceMappings(String code, Map<String, JSONObject> mappings) {
+        if (code == null || code.trim().isEmpty()) {
+            logger.error("替换映射失败：code不能为空");
+            return null;
         }
 
-        // 验证映射配置
-        if (!mapping.containsKey("sourcePath") || !mapping.containsKey("targetPath")) {
-            logger.error("注册映射失败：映射配置必须包含sourcePath和targetPath - code: {}, key: {}", code, key);
-            return;
+        Map<String, JSONObject> accepted = new LinkedHashMap<>();
+        if (mappings != null) {
+            for (Map.Entry<String, JSONObject> entry : mappings.entrySet()) {
+                if (isValidMapping(code, entry.getKey(), entry.getValue())) {
+                    accepted.put(entry.getKey(), entry.getValue());
+                }
+            }
         }
 
-        mappings.computeIfAbsent(code, k -> new ConcurrentHashMap<>())
-                .put(key, mapping);
-        logger.debug("注册映射成功 - code: {}, key: {}", code, key);
+        MappingRuleSet ruleSet = new MappingRuleSet(code, versionSequence.incrementAndGet(), accepted, System.currentTimeMillis());
+        ruleSets.put(code, ruleSet);
+        evictIfNecessary();
+        logger.debug("替换映射规则成功 - code: {}, 映射数: {}", code, accepted.size());
+        return ruleSet;
     }
 
     public Map<String, JSONObject> getMappings(String code) {
@@ -45,7 +110,94 @@ public class MappingRegistry {
             logger.error("获取映射失败：code不能为空");
             return new HashMap<>();
         }
-        return mappings.getOrDefault(code, new HashMap<>());
+        MappingRuleSet ruleSet = getRuleSet(code);
+        return ruleSet != null ? ruleSet.getMappings() : new HashMap<>();
+    }
+
+    /**
+     * 获取指定产品编码当前的规则集快照
+     *
+     * @param code 产品编码
+     * @return 规则集，不存在时返回null
+     */
+    public MappingRuleSet getRuleSet(String code) {
+        if (code == null) {
+            return null;
+        }
+        MappingRuleSet ruleSet = ruleSets.get(code);
+        if (ruleSet != null) {
+            ruleSet.touch(System.currentTimeMillis());
+        }
+        return ruleSet;
+    }
+
+    /**
+     * 获取指定产品编码的规则版本号
+     * <p>
+     * 版本号全局单调递增，未注册的产品编码返回0。
+     *
+     * @param code 产品编码
+     * @return 规则版本号
+     */
+    public long getVersion(String code) {
+        MappingRuleSet ruleSet = code != null ? ruleSets.get(code) : null;
+        return ruleSet != null ? ruleSet.getVersion() : 0L;
+    }
+
+    /**
+     * 判断指定产品编码的规则是否已缓存且未过期
+     *
+     * @param code 产品编码
+     * @return 规则可直接使用时返回true
+     */
+    public boolean isFresh(String code) {
+        MappingRuleSet ruleSet = code != null ? ruleSets.get(code) : null;
+        return ruleSet != null && isFresh(ruleSet);
+    }
+
+    /**
+     * 获取指定产品编码已缓存且未过期的规则集快照
+     * <p>
+     * 与先调用 {@link #isFresh(String)} 再调用 {@link #getRuleSet(String)} 不同，
+     * 返回的快照不会因两次调用之间的淘汰或失效而丢失。
+     *
+     * @param code 产品编码
+     * @return 规则集，未缓存或已过期时返回null
+     */
+    public MappingRuleSet getFreshRuleSet(String code) {
+        MappingRuleSet ruleSet = getRuleSet(code);
+        return ruleSet != null && isFresh(ruleSet) ? ruleSet : null;
+    }
+
+    private boolean isFresh(MappingRuleSet ruleSet) {
+        long ttl = ttlMillis;
+        return ttl <= 0 || System.currentTimeMillis() - ruleSet.getLoadedAt() < ttl;
+    }
+
+    /**
+     * 是否缓存了指定产品编码的规则（不考虑是否过期）
+     *
+     * @param code 产品编码
+     * @return 已缓存返回true
+     */
+    public boolean contains(String code) {
+        return code != null && ruleSets.containsKey(code);
+    }
+
+    /**
+     * 获取当前缓存的所有产品编码
+     */
+    public Set<String> getCodes() {
+        return Collections.unmodifiableSet(new HashSet<>(ruleSets.keySet()));
+    }
+
+    /**
+     * 注册规则移除监听器，规则被清理或淘汰时以产品编码回调
+     *
+     * @param listener 监听器
+     */
+    public void addRemovalListener(Consumer<String> listener) {
+        removalListeners.add(listener);
     }
 
     /**
@@ -55,8 +207,56 @@ public class MappingRegistry {
      */
     public void clearMappings(String code) {
         if (code != null && !code.trim().isEmpty()) {
-            mappings.remove(code);
+            if (ruleSets.remove(code) != null) {
+                notifyRemoval(code);
+            }
             logger.debug("清理映射规则成功 - code: {}", code);
         }
     }
+
+    private boolean isValidMapping(String code, String key, JSONObject mapping) {
+        if (key == null || key.trim().isEmpty()) {
+            logger.error("注册映射失败：key不能为空");
+            return false;
+        }
+        if (mapping == null) {
+            logger.error("注册映射失败：mapping不能为空");
+            return false;
+        }
+
+        // 验证映射配置
+        if (!mapping.containsKey("sourcePath") || !mapping.containsKey("targetPath")) {
+            logger.error("注册映射失败：映射配置必须包含sourcePath和targetPath - code: {}, key: {}", code, key);
+            return false;
+        }
+        return true;
+    }
+
+    private void evictIfNecessary() {
+        while (ruleSets.size() > maxSize) {
+            MappingRuleSet eldest = null;
+            for (MappingRuleSet ruleSet : ruleSets.values()) {
+                if (eldest == null || ruleSet.getLastAccessAt() < eldest.getLastAccessAt()) {
+                    eldest = ruleSet;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (ruleSets.remove(eldest.getCode(), eldest)) {
+                logger.debug("淘汰映射规则 - code: {}", eldest.getCode());
+                notifyRemoval(eldest.getCode());
+            }
+        }
+    }
+
+    private void notifyRemoval(String code) {
+        for (Consumer<String> listener : removalListeners) {
+            try {
+                listener.accept(code);
+            } catch (Exception e) {
+                logger.error("规则移除回调失败 - code: {}, 错误: {}", code, e.getMessage());
+            }
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.aliang.registry;
+
+import com.alibaba.fastjson.*;
+
+import java.util.*;
+
+/**
+ * 产品映射规则集
+ * <p>
+ * 某个产品编码在某一版本下的全部映射配置快照，由 {@link MappingRegistry} 整体替换，
+ * 读取方拿到的规则与版本号始终一致，不会看到注册到一半的规则。
+ */
+public final class MappingRuleSet {
+    private final String code;
+    private final long version;
+    private final Map<String, JSONObject> mappings;
+    private final long loadedAt;
+    private volatile long lastAccessAt;
+
+    MappingRuleSet(String code, long version, Map<String, JSONObject> mappings, long loadedAt) {
+        this.code = code;
+        this.version = version;
+        this.mappings = Collections.unmodifiableMap(mappings);
+        this.loadedAt = loadedAt;
+        this.lastAccessAt = loadedAt;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取映射配置，key 为目标路径
+     */
+    public Map<String, JSONObject> getMappings() {
+        return mappings;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    long getLastAccessAt() {
+        return lastAccessAt;
+    }
+
+    void touch(long now) {
+        lastAccessAt = now;
+    }
+}
@@ -0,0 +1,112 @@
+package com.aliang.registry.dictionary;
+
+import java.util.*;
+
+/**
+ * 码表字典（不可变）
+ * <p>
+ * 地区编码、商品类目等码表通常有数万到数十万条，且大量键对应相同的值。
+ * 字典使用开放寻址（线性探测）的键数组和值数组存储，不创建 HashMap.Entry 对象；
+ * 相同的值在构建时合并为同一个字符串实例。
+ * <p>
+ * 构建完成后不再修改，可被多个线程无锁并发查询。
+ */
+public final class CodeDictionary {
+    public static final CodeDictionary EMPTY = new Builder(0).build();
+
+    private final String[] keys;
+    private final String[] values;
+    private final int mask;
+    private final int size;
+
+    private CodeDictionary(String[] keys, String[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * 查询键对应的值
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    public String get(String key) {
+        int index = spread(key.hashCode()) & mask;
+        String candidate;
+        while ((candidate = keys[index]) != null) {
+            if (candidate.equals(key)) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public String getOrDefault(String key, String defaultValue) {
+        String value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 字典构建器，非线程安全；重复的键以最后一次写入为准
+     */
+    public static final class Builder {
+        private final List<String> keys;
+        private final List<String> values;
+        private final Map<String, String> distinctValues = new HashMap<>();
+
+        private Builder(int expectedSize) {
+            this.keys = new ArrayList<>(Math.max(expectedSize, 0));
+            this.values = new ArrayList<>(Math.max(expectedSize, 0));
+        }
+
+        public Builder put(String key, String value) {
+            if (key == null || value == null) {
+                throw new IllegalArgumentException("字典的键和值不能为空");
+            }
+            String shared = distinctValues.putIfAbsent(value, value);
+            keys.add(key);
+            values.add(shared != null ? shared : value);
+            return this;
+        }
+
+        public CodeDictionary build() {
+            /*  负载因子不超过0.5，保证探测链较短 */
+            int capacity = 2;
+            while (capacity < keys.size() * 2) {
+                capacity <<= 1;
+            }
+            String[] keyTable = new String[capacity];
+            String[] valueTable = new String[capacity];
+            int mask = capacity - 1;
+            int size = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                String key = keys.get(i);
+                int index = spread(key.hashCode()) & mask;
+                while (keyTable[index] != null && !keyTable[index].equals(key)) {
+                    index = (index + 1) & mask;
+                }
+                if (keyTable[index] == null) {
+                    keyTable[index] = key;
+                    size++;
+                }
+                valueTable[index] = values.get(i);
+            }
+            return new CodeDictionary(keyTable, valueTable, size);
+        }
+    }
+}
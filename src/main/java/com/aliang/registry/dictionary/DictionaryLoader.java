@@ -0,0 +1,22 @@
+package com.aliang.registry.dictionary;
+
+/**
+ * 字典加载器
+ */
+public interface DictionaryLoader {
+    /**
+     * 加载字典的全部数据
+     *
+     * @param name 字典名称
+     * @return 字典
+     */
+    CodeDictionary load(String name);
+
+    /**
+     * 读取字典的版本戳，版本戳变化时重新加载字典
+     *
+     * @param name 字典名称
+     * @return 版本戳
+     */
+    String stamp(String name);
+}
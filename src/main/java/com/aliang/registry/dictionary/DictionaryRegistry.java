@@ -0,0 +1,138 @@
+package com.aliang.registry.dictionary;
+
+import org.slf4j.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 字典注册表
+ * <p>
+ * 按名称管理全局共享的码表字典，引用同一字典的所有规则和处理器共用一份数据：
+ * 1. 字典在第一次查询时通过 {@link DictionaryLoader} 加载，之后不再重复加载
+ * 2. 刷新时在调用线程上构建新字典，完成后整体替换引用，查询始终读取一份完整的字典，不会被阻塞
+ * 3. 未设置加载器或加载失败时使用空字典，等待下一次刷新重试
+ */
+public final class DictionaryRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryRegistry.class);
+    private static final DictionaryRegistry SHARED = new DictionaryRegistry();
+
+    private final Map<String, Handle> handles = new ConcurrentHashMap<>();
+    private volatile DictionaryLoader loader;
+
+    /**
+     * 获取全局共享的字典注册表
+     */
+    public static DictionaryRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * 设置字典加载器，尚未成功加载的字典会在下一次查询时使用新的加载器重新加载
+     */
+    public void setLoader(DictionaryLoader loader) {
+        this.loader = loader;
+        for (Handle handle : handles.values()) {
+            handle.resetIfNotLoaded();
+        }
+    }
+
+    /**
+     * 获取字典引用，字典数据在第一次查询时加载
+     *
+     * @param name 字典名称
+     * @return 字典引用
+     */
+    public Handle get(String name) {
+        return handles.computeIfAbsent(name, Handle::new);
+    }
+
+    /**
+     * 已被引用的字典名称
+     */
+    public Set<String> getNames() {
+        return new HashSet<>(handles.keySet());
+    }
+
+    /**
+     * 版本戳变化时重新加载字典，加载期间查询继续使用旧字典
+     *
+     * @param name 字典名称
+     * @return 是否重新加载
+     */
+    public boolean refresh(String name) {
+        Handle handle = handles.get(name);
+        return handle != null && handle.reload(false);
+    }
+
+    /**
+     * 字典引用，处理器持有引用而不是字典本身，以便刷新后读取新数据
+     */
+    public final class Handle {
+        private final String name;
+        private volatile CodeDictionary dictionary;
+        private volatile String stamp;
+
+        private Handle(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 当前字典，尚未加载时同步加载一次
+         */
+        public CodeDictionary dictionary() {
+            CodeDictionary current = dictionary;
+            if (current == null) {
+                synchronized (this) {
+                    current = dictionary;
+                    if (current == null) {
+                        reload(true);
+                        current = dictionary;
+                    }
+                }
+            }
+            return current;
+        }
+
+        private synchronized void resetIfNotLoaded() {
+            if (stamp == null) {
+                dictionary = null;
+            }
+        }
+
+        private synchronized boolean reload(boolean force) {
+            DictionaryLoader current = loader;
+            if (current == null) {
+                if (dictionary == null) {
+                    logger.warn("未设置字典加载器，使用空字典 - 字典: {}", name);
+                    dictionary = CodeDictionary.EMPTY;
+                }
+                return false;
+            }
+            try {
+                /*  先读取版本戳再加载，加载期间发生的修改会在下一次刷新时重新加载 */
+                String newStamp = current.stamp(name);
+                if (!force && newStamp != null && newStamp.equals(stamp)) {
+                    return false;
+                }
+                long start = System.currentTimeMillis();
+                CodeDictionary loaded = current.load(name);
+                dictionary = loaded;
+                stamp = newStamp;
+                logger.info("字典已加载 - 字典: {}, 条数: {}, 耗时: {}ms", name, loaded.size(),
+                        System.currentTimeMillis() - start);
+                return true;
+            } catch (Exception e) {
+                logger.error("加载字典失败 - 字典: {}, 错误: {}", name, e.getMessage());
+                if (dictionary == null) {
+                    dictionary = CodeDictionary.EMPTY;
+                }
+                return false;
+            }
+        }
+    }
+}
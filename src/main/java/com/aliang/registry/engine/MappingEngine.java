@@ -1,14 +1,16 @@
 package com.aliang.registry.engine;
 
+import com.aliang.logger.*;
 import com.aliang.registry.*;
 import com.aliang.registry.factory.*;
-import com.aliang.rule.processor.*;
-import com.aliang.rule.strategy.*;
-import com.aliang.rule.strategy.impl.*;
+import com.aliang.registry.plan.*;
 import com.alibaba.fastjson.*;
+import com.alibaba.fastjson.serializer.*;
 import org.slf4j.*;
 
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * 映射引擎类
@@ -20,6 +22,11 @@ import java.util.*;
  * 1. 提供统一的数据映射入口
  * 2. 根据产品编码获取对应的映射规则
  * 3. 执行数据映射操作
+ * 4. 按产品编码和规则版本缓存编译后的映射计划，规则未变化时直接复用
+ * 5. 批量映射：同一产品编码的多条数据只解析一次规则，单条失败不影响其他数据
+ * 6. 流式映射：逐行读取 NDJSON 并逐行写出结果，内存占用与数据总量无关
+ * 7. 配置 {@link ParallelMappingExecutor} 后，批量与流式映射分块并行执行，结果顺序不变
+ * 8. 配置 {@link FieldParallelism} 后，超宽规则的单文档映射按字段分块并行执行
  * <p>
  * 使用示例：
  * <pre>
@@ -42,11 +49,30 @@ import java.util.*;
  */
 public class MappingEngine {
     private static final Logger logger = LoggerFactory.getLogger(MappingEngine.class);
+    /**
+     * 流式输出的序列化选项：与接口返回一致，保留null字段，不输出循环引用标记
+     */
+    private static final SerializerFeature[] STREAM_FEATURES = {
+            SerializerFeature.WriteMapNullValue,
+            SerializerFeature.DisableCircularReferenceDetect
+    };
     /**
      * 映射注册中心，用于存储和获取产品映射规则
      */
     private final MappingRegistry registry;
-    private final ProcessorFactory processorFactory;
+    private final MappingPlanCompiler planCompiler;
+    /**
+     * 编译后的映射计划缓存，key 为产品编码，版本号与规则集不一致或处理器注册表代数变化时重新编译
+     */
+    private final Map<String, CompiledMappingPlan> plans = new ConcurrentHashMap<>();
+    /**
+     * 批量与流式映射的并行执行器，为null时串行执行
+     */
+    private volatile ParallelMappingExecutor parallelExecutor;
+    /**
+     * 单文档字段级并行配置，为null时串行处理字段
+     */
+    private volatile FieldParallelism fieldParallelism;
 
     /**
      * 构造函数
@@ -55,13 +81,35 @@ public class MappingEngine {
      */
     public MappingEngine(MappingRegistry registry) {
         this.registry = registry;
-        this.processorFactory = new ProcessorFactory();
+        this.planCompiler = new MappingPlanCompiler(new ProcessorFactory());
+        /*  规则被清理或淘汰时同步丢弃对应的映射计划 */
+        registry.addRemovalListener(plans::remove);
+    }
+
+    /**
+     * 设置批量与流式映射的并行执行器
+     *
+     * @param parallelExecutor 并行执行器，为null时串行执行
+     */
+    public void setParallelExecutor(ParallelMappingExecutor parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+    }
+
+    /**
+     * 设置单文档映射的字段级并行配置
+     * <p>
+     * 只作用于 {@link #executeMapping}，批量与流式映射已按文档并行，不再拆分字段。
+     *
+     * @param fieldParallelism 字段级并行配置，为null时串行处理字段
+     */
+    public void setFieldParallelism(FieldParallelism fieldParallelism) {
+        this.fieldParallelism = fieldParallelism;
     }
 
     /**
      * 执行数据映射操作
      * <p>
-     * 该方法会根据产品编码获取对应的映射规则，并执行数据映射操作。
+     * 该方法会根据产品编码获取对应的映射计划，并执行数据映射操作。
      * 如果找不到对应的映射规则，会抛出异常。
      *
      * @param source 源数据
@@ -69,260 +117,243 @@ public class MappingEngine {
      * @throws IllegalArgumentException 如果找不到对应的产品编码映射规则
      */
     public JSONObject executeMapping(String code, JSONObject source, JSONObject targetTemplate) {
+        CompiledMappingPlan plan;
         try {
-            /*  获取映射规则 */
-            Map<String, JSONObject> mappings = registry.getMappings(code);
-            if (mappings == null || mappings.isEmpty()) {
-                throw new IllegalArgumentException("未找到映射规则: " + code);
-            }
-
-            /*  创建结果对象 */
-            JSONObject result = new JSONObject();
-
-            /*  执行每个字段的映射 */
-            for (Map.Entry<String, JSONObject> entry : mappings.entrySet()) {
-                String targetPath = entry.getKey();
-                JSONObject mapping = entry.getValue();
-
-                /*  获取源路径和值 */
-                String sourcePath = mapping.getString("sourcePath");
-                Object value = evaluateSourcePath(source, sourcePath);
-
-                JSONArray aggregations = mapping.getJSONArray("aggregationStrategies");
-                JSONArray processors = mapping.getJSONArray("processors");
-
-                boolean aggregateFirst = shouldAggregateFirst(aggregations);
-
-                /* 兼容：先转换再聚合的场景 */
-                if (aggregateFirst) {
-                    value = applyAggregationStrategies(value, aggregations);
-                }
-                if (processors != null) {
-                    value = applyProcessors(value, processors);
-                }
-                if (!aggregateFirst && aggregations != null) {
-                    value = applyAggregationStrategies(value, aggregations);
-                }
-
-                /*  设置结果 */
-                setTargetPathValue(result, targetPath, value);
-            }
-
-            return result;
+            plan = getPlan(code);
         } catch (Exception e) {
             logger.error("执行映射失败 - code: {}, 错误: {}", code, e.getMessage());
             throw new RuntimeException("执行映射失败", e);
         }
+        return executeMapping(plan, source, targetTemplate);
     }
 
-    private void setTargetPathValue(JSONObject result, String targetPath, Object value) {
+    /**
+     * 使用指定的映射计划执行数据映射操作
+     *
+     * @param plan   映射计划，见 {@link #getPlan(MappingRuleSet)}
+     * @param source 源数据
+     * @return 处理后的目标数据
+     */
+    public JSONObject executeMapping(CompiledMappingPlan plan, JSONObject source, JSONObject targetTemplate) {
         try {
-            // 递归支持多层[*]嵌套
-            if (targetPath.startsWith("$.")) {
-                targetPath = targetPath.substring(2);
-            }
-            String[] parts = targetPath.split("\\.");
-            setPathRecursive(result, parts, 0, value);
+            return plan.execute(source, fieldParallelism);
         } catch (Exception e) {
-            logger.error("设置目标路径失败 - path: {}, 错误: {}", targetPath, e.getMessage());
-            throw new RuntimeException("设置目标路径失败 ", e);
+            logger.error("执行映射失败 - code: {}, 错误: {}", plan.getCode(), e.getMessage());
+            throw new RuntimeException("执行映射失败", e);
         }
     }
 
-    // 递归辅助方法
-    @SuppressWarnings("unchecked")
-    private void setPathRecursive(Object current, String[] parts, int idx, Object value) {
-        if (idx >= parts.length) return;
-        String part = parts[idx];
-        boolean isArray = part.endsWith("[*]");
-        String key = isArray ? part.substring(0, part.length() - 3) : part;
-        if (idx == parts.length - 1) {
-            // 最后一层，赋值
-            if (isArray) {
-                JSONArray arr = new JSONArray();
-                arr.add(value);
-                if (current instanceof JSONObject) {
-                    ((JSONObject) current).put(key, arr);
-                }
-            } else {
-                if (current instanceof JSONObject) {
-                    ((JSONObject) current).put(key, value);
-                }
-            }
-            return;
+    /**
+     * 批量执行数据映射操作
+     * <p>
+     * 只获取一次映射计划，按输入顺序逐条映射。某条数据映射失败时记录错误信息并继续处理后续数据。
+     *
+     * @param code    产品编码
+     * @param sources 源数据列表
+     * @return 与输入顺序一致的映射结果
+     * @throws IllegalArgumentException 如果找不到对应的产品编码映射规则
+     */
+    public List<MappingItemResult> executeBatch(String code, List<JSONObject> sources) {
+        return executeBatch(getPlan(code), sources);
+    }
+
+    /**
+     * 使用指定的映射计划批量执行数据映射操作
+     *
+     * @param plan    映射计划，见 {@link #getPlan(MappingRuleSet)}
+     * @param sources 源数据列表
+     * @return 与输入顺序一致的映射结果
+     */
+    public List<MappingItemResult> executeBatch(CompiledMappingPlan plan, List<JSONObject> sources) {
+        ParallelMappingExecutor executor = parallelExecutor;
+        if (executor != null && executor.shouldParallelize(sources.size())) {
+            return executor.executeBatch(plan, sources);
         }
-        // 不是最后一层
-        Object next;
-        if (current instanceof JSONObject) {
-            JSONObject obj = (JSONObject) current;
-            if (!obj.containsKey(key)) {
-                next = isArray ? new JSONArray() : new JSONObject();
-                obj.put(key, next);
-            } else {
-                next = obj.get(key);
-                // 类型兼容：如果是List但不是JSONArray，转为JSONArray
-                if (isArray && next instanceof List && !(next instanceof JSONArray)) {
-                    JSONArray arr = new JSONArray();
-                    arr.addAll((List<?>) next);
-                    obj.put(key, arr);
-                    next = arr;
-                }
-            }
-            if (isArray) {
-                JSONArray arr = null;
-                if (next instanceof JSONArray) {
-                    arr = (JSONArray) next;
-                }
-                JSONObject childObj = new JSONObject();
-                if (arr != null && arr.isEmpty()) {
-                    childObj = new JSONObject();
-                    arr.add(childObj);
+        List<MappingItemResult> results = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            results.add(executeItem(plan, i, sources.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * 流式执行数据映射操作
+     * <p>
+     * 从输入中逐行读取 NDJSON（每行一个 JSON 对象，空行忽略），映射后按输入顺序写出一行结果：
+     * 成功为 {@code {"index":0,"success":true,"result":{...}}}，
+     * 失败为 {@code {"index":1,"success":false,"error":"..."}}。
+     * 串行执行时只持有当前一行数据；并行执行时最多持有有限个分块，内存占用均与输入总量无关。
+     * 整个流使用开始时的映射计划。
+     *
+     * @param code 产品编码
+     * @param in   NDJSON 输入
+     * @param out  NDJSON 输出，处理结束时刷新但不关闭
+     * @return 处理统计
+     * @throws IllegalArgumentException 如果找不到对应的产品编码映射规则
+     * @throws IOException              读写失败
+     */
+    public MappingStreamResult executeStream(String code, Reader in, Writer out) throws IOException {
+        return executeStream(getPlan(code), in, out);
+    }
+
+    /**
+     * 使用指定的映射计划流式执行数据映射操作，输入输出格式见 {@link #executeStream(String, Reader, Writer)}
+     *
+     * @param plan 映射计划，见 {@link #getPlan(MappingRuleSet)}
+     * @param in   NDJSON 输入
+     * @param out  NDJSON 输出，处理结束时刷新但不关闭
+     * @return 处理统计
+     * @throws IOException 读写失败
+     */
+    public MappingStreamResult executeStream(CompiledMappingPlan plan, Reader in, Writer out) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        BufferedWriter writer = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+
+        MappingStreamResult result;
+        ParallelMappingExecutor executor = parallelExecutor;
+        if (executor != null) {
+            result = executor.executeStream(plan, reader, writer);
+        } else {
+            long total = 0;
+            long failed = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
                 }
-                setPathRecursive(childObj, parts, idx + 1, value);
-            } else {
-                setPathRecursive(next, parts, idx + 1, value);
-            }
-        } else if (current instanceof JSONArray) {
-            JSONArray arr = (JSONArray) current;
-            JSONObject childObj;
-            if (arr.isEmpty()) {
-                childObj = new JSONObject();
-                arr.add(childObj);
-            } else {
-                Object first = arr.get(0);
-                if (first instanceof JSONObject) {
-                    childObj = (JSONObject) first;
-                } else {
-                    childObj = new JSONObject();
-                    arr.set(0, childObj);
+                MappingItemResult item = executeLine(plan, (int) total++, line);
+                if (!item.isSuccess()) {
+                    failed++;
                 }
+                writeItem(writer, item);
             }
-            setPathRecursive(childObj, parts, idx + 1, value);
+            result = new MappingStreamResult(total, failed);
         }
+        writer.flush();
+        logger.info("流式映射完成 - code: {}, 总数: {}, 失败: {}", plan.getCode(), result.getTotal(), result.getFailed());
+        return result;
     }
 
-    private Object evaluateSourcePath(JSONObject source, String sourcePath) {
+    /**
+     * 映射单条数据，失败时返回错误结果而不抛出异常
+     */
+    static MappingItemResult executeItem(CompiledMappingPlan plan, int index, JSONObject source) {
+        if (source == null) {
+            return MappingItemResult.failure(index, "源数据不能为空");
+        }
         try {
-            return JSONPath.eval(source, sourcePath);
+            return MappingItemResult.success(index, plan.execute(source));
         } catch (Exception e) {
-            logger.error("解析源路径失败 - path: {}, 错误: {}", sourcePath, e.getMessage());
-            throw new RuntimeException("解析源路径失败", e);
+            String error = e.getCause() != null ? e.getMessage() + ": " + e.getCause().getMessage() : e.getMessage();
+            logItemFailure("批量映射单条数据失败 - code: {}, index: {}, 错误: {}", plan.getCode(), index, error);
+            return MappingItemResult.failure(index, error);
         }
     }
 
-    private Object applyProcessors(Object value, JSONArray processors) {
-        if (processors == null || processors.isEmpty()) {
-            return value;
+    /**
+     * 解析并映射一行 NDJSON 数据
+     */
+    static MappingItemResult executeLine(CompiledMappingPlan plan, int index, String line) {
+        JSONObject source;
+        try {
+            source = JSON.parseObject(line);
+        } catch (Exception e) {
+            logItemFailure("流式映射解析数据失败 - code: {}, index: {}, 错误: {}", plan.getCode(), index, e.getMessage());
+            return MappingItemResult.failure(index, "解析源数据失败: " + e.getMessage());
         }
+        return executeItem(plan, index, source);
+    }
 
-        Object result = value;
-        for (int i = 0; i < processors.size(); i++) {
-            String processorSpec = processors.getString(i);
-            String[] parts = processorSpec.split(":", 2);
-            String processorName = parts[0].toLowerCase();
-            String params = parts.length > 1 ? parts[1] : null;
-
-            ValueProcessor processor = processorFactory.createProcessor(processorName, params);
-            if (processor != null) {
-                try {
-                    result = processor.doProcess(result);
-                } catch (Exception e) {
-                    logger.error("处理器执行失败 - processor: {}, value: {}, 错误: {}", processorName, value, e.getMessage());
-                    throw new RuntimeException("处理器执行失败", e);
-                }
-            } else {
-                logger.error("创建处理器失败 - processor: {}, params: {}", processorName, params);
-                throw new IllegalArgumentException("创建处理器失败: " + processorName);
-            }
+    /**
+     * 记录单条数据的失败，同一产品编码的失败日志经过采样与限流
+     */
+    private static void logItemFailure(String format, String code, int index, String error) {
+        if (!logger.isErrorEnabled()) {
+            return;
+        }
+        long suppressed = ErrorLogThrottle.shared().acquire(code);
+        if (suppressed < 0) {
+            return;
+        }
+        logger.error(format, code, index, error);
+        if (suppressed > 0) {
+            logger.error("单条数据失败日志已限流 - code: {}, 丢弃条数: {}", code, suppressed);
         }
-        return result;
     }
 
-    private Object applyAggregationStrategies(Object value, JSONArray strategies) {
-        if (value == null || strategies == null || strategies.isEmpty()) {
-            return value;
+    /**
+     * 写出一行 NDJSON 结果
+     */
+    static void writeItem(Writer writer, MappingItemResult item) throws IOException {
+        writer.write("{\"index\":");
+        writer.write(Integer.toString(item.getIndex()));
+        if (item.isSuccess()) {
+            writer.write(",\"success\":true,\"result\":");
+            JSON.writeJSONString(writer, item.getResult(), STREAM_FEATURES);
+        } else {
+            writer.write(",\"success\":false,\"error\":");
+            JSON.writeJSONString(writer, item.getError(), STREAM_FEATURES);
         }
+        writer.write("}\n");
+    }
 
-        Object result = value;
-        for (int i = 0; i < strategies.size(); i++) {
-            String strategySpec = strategies.getString(i);
-            String[] parts = strategySpec.split(":", 2);
-            String strategyName = parts[0];
-            String params = parts.length > 1 ? parts[1] : null;
-
-            AggregationStrategy strategy = createAggregationStrategy(strategyName, params);
-            if (strategy != null && result instanceof List) {
-                try {
-                    result = strategy.apply((List<?>) result);
-                    logger.debug("聚合策略执行成功 - strategy: {}, input: {}, output: {}", strategyName, value, result);
-                } catch (Exception e) {
-                    logger.error("聚合策略执行失败 - strategy: {}, input: {}, error: {}", strategyName, value, e.getMessage());
-                }
-            }
+    /**
+     * 获取产品编码当前规则版本对应的映射计划
+     * <p>
+     * 缓存中的计划版本与注册中心一致、且编译后未注册新的处理器或聚合策略定义时直接返回，否则重新编译并替换缓存。
+     *
+     * @param code 产品编码
+     * @return 编译后的映射计划
+     * @throws IllegalArgumentException 如果找不到对应的产品编码映射规则
+     */
+    public CompiledMappingPlan getPlan(String code) {
+        MappingRuleSet ruleSet = registry.getRuleSet(code);
+        if (ruleSet == null || ruleSet.getMappings().isEmpty()) {
+            plans.remove(code);
+            throw new IllegalArgumentException("未找到映射规则: " + code);
         }
-        return result;
+        return getPlan(ruleSet);
     }
 
-    private AggregationStrategy createAggregationStrategy(String strategyName, String params) {
-        switch (strategyName.toLowerCase()) {
-            case "sum":
-                return new SumAggregationStrategy();
-            case "avg":
-            case "average":
-                return new AverageAggregationStrategy();
-            case "min":
-                return new MinAggregationStrategy();
-            case "max":
-                return new MaxAggregationStrategy();
-            case "first":
-                return new FirstAggregationStrategy();
-            case "last":
-                return new LastAggregationStrategy();
-            case "count":
-                return new CountAggregationStrategy();
-            case "join":
-                Map<String, String> joinParams = parseStrategyParams(params);
-                String delimiter = joinParams.getOrDefault("delimiter", ",");
-                boolean keepArrayFormat = Boolean.parseBoolean(joinParams.getOrDefault("keepArrayFormat", "false"));
-                return new JoinAggregationStrategy(delimiter, keepArrayFormat);
-            case "subtract":
-                return new SubtractAggregationStrategy();
-            case "concat":
-                return new ConcatAggregationStrategy();
-            default:
-                logger.error("未知的聚合策略类型: " + strategyName);
-                return null;
+    /**
+     * 获取规则集快照对应的映射计划
+     * <p>
+     * 调用方已持有规则集时使用，不再按产品编码查找注册中心，
+     * 获取快照之后该编码被淘汰或失效也能得到计划。只有快照仍是注册中心的当前规则时才缓存编译结果。
+     *
+     * @param ruleSet 规则集快照
+     * @return 编译后的映射计划
+     * @throws IllegalArgumentException 如果规则集为空
+     */
+    public CompiledMappingPlan getPlan(MappingRuleSet ruleSet) {
+        if (ruleSet == null || ruleSet.getMappings().isEmpty()) {
+            throw new IllegalArgumentException("未找到映射规则: " + (ruleSet != null ? ruleSet.getCode() : null));
+        }
+        String code = ruleSet.getCode();
+        CompiledMappingPlan plan = plans.get(code);
+        if (plan != null && plan.getVersion() == ruleSet.getVersion()
+                && plan.getRegistryGeneration() == planCompiler.getRegistryGeneration()) {
+            return plan;
         }
-    }
 
-    private Map<String, String> parseStrategyParams(String params) {
-        Map<String, String> result = new HashMap<>();
-        if (params != null && !params.isEmpty()) {
-            String[] pairs = params.split(";");
-            for (String pair : pairs) {
-                String[] keyValue = pair.split("=");
-                if (keyValue.length == 2) {
-                    result.put(keyValue[0].trim(), keyValue[1].trim());
-                }
+        CompiledMappingPlan compiled = planCompiler.compile(code, ruleSet.getVersion(), ruleSet.getMappings());
+        if (registry.getVersion(code) == compiled.getVersion()) {
+            plans.merge(code, compiled, MappingEngine::newerPlan);
+            /*  合并期间规则被移除时，移除监听器可能已先执行 */
+            if (!registry.contains(code)) {
+                plans.remove(code, compiled);
             }
         }
-        return result;
+        return compiled;
     }
 
-    private boolean shouldAggregateFirst(JSONArray aggregations) {
-        if (aggregations == null || aggregations.isEmpty()) {
-            return false;
-        }
-        for (int i = 0; i < aggregations.size(); i++) {
-            String spec = aggregations.getString(i);
-            if (spec == null || spec.isEmpty()) {
-                continue;
-            }
-            String strategyName = spec.split(":", 2)[0].trim().toLowerCase();
-            if ("join".equals(strategyName) || "concat".equals(strategyName)) {
-                return false;
-            }
+    /**
+     * 并发编译同一产品编码时保留规则版本较新的计划，版本相同时保留注册表代数较新的计划
+     */
+    private static CompiledMappingPlan newerPlan(CompiledMappingPlan old, CompiledMappingPlan now) {
+        if (old.getVersion() != now.getVersion()) {
+            return old.getVersion() > now.getVersion() ? old : now;
         }
-        return true;
+        return old.getRegistryGeneration() > now.getRegistryGeneration() ? old : now;
     }
-}
\ No newline at end of file
+}
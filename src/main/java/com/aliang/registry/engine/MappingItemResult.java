@@ -0,0 +1,53 @@
+package com.aliang.registry.engine;
+
+import com.alibaba.fastjson.*;
+
+/**
+ * 批量映射中单条数据的映射结果
+ * <p>
+ * 映射成功时持有结果对象，失败时持有错误信息，单条失败不影响批次中的其他数据。
+ */
+public final class MappingItemResult {
+    private final int index;
+    private final JSONObject result;
+    private final String error;
+
+    private MappingItemResult(int index, JSONObject result, String error) {
+        this.index = index;
+        this.result = result;
+        this.error = error;
+    }
+
+    static MappingItemResult success(int index, JSONObject result) {
+        return new MappingItemResult(index, result, null);
+    }
+
+    static MappingItemResult failure(int index, String error) {
+        return new MappingItemResult(index, null, error);
+    }
+
+    /**
+     * 数据在批次中的位置（从0开始）
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * 映射结果，失败时为null
+     */
+    public JSONObject getResult() {
+        return result;
+    }
+
+    /**
+     * 错误信息，成功时为null
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,28 @@
+package com.aliang.registry.engine;
+
+/**
+ * 流式映射的处理统计
+ */
+public final class MappingStreamResult {
+    private final long total;
+    private final long failed;
+
+    MappingStreamResult(long total, long failed) {
+        this.total = total;
+        this.failed = failed;
+    }
+
+    /**
+     * 处理的数据条数（不含空行）
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * 映射失败的数据条数
+     */
+    public long getFailed() {
+        return failed;
+    }
+}
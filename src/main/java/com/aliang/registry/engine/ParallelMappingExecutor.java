@@ -0,0 +1,193 @@
+package com.aliang.registry.engine;
+
+import com.aliang.registry.plan.*;
+import com.alibaba.fastjson.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 并行映射执行器
+ * <p>
+ * 将批量或流式数据切分为分块，在指定的线程池（如 {@link ForkJoinPool}）上并行映射：
+ * 1. 分块大小按数据量估算：每块约 chunkChars 个字符的 JSON，同时保证分块数足以占满全部线程
+ * 2. 同时执行的分块不超过 maxInFlight 个，超出时等待最早的分块完成，流式映射的内存占用因此有上限
+ * 3. 按分块提交顺序收集结果，输出顺序与输入一致
+ * <p>
+ * 映射计划不可变，处理器不持有可变的共享状态，多个分块可以安全地共享同一个计划。
+ */
+public class ParallelMappingExecutor {
+    /**
+     * 估算文档大小时最多抽样的文档数
+     */
+    private static final int SIZE_SAMPLES = 8;
+
+    /**
+     * 每个线程至少分到的分块数，用于负载均衡
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Executor executor;
+    private final int parallelism;
+    private final int chunkChars;
+    private final int maxInFlight;
+    private final int minBatchSize;
+
+    /**
+     * 构造函数
+     *
+     * @param executor     执行映射的线程池
+     * @param parallelism  线程池的并行度
+     * @param chunkChars   每个分块的目标大小（JSON 字符数）
+     * @param maxInFlight  同时执行的最大分块数，小于等于0时取并行度的两倍
+     * @param minBatchSize 批量映射启用并行的最小数据条数
+     */
+    public ParallelMappingExecutor(Executor executor, int parallelism, int chunkChars, int maxInFlight, int minBatchSize) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkChars = Math.max(1, chunkChars);
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : this.parallelism * 2;
+        this.minBatchSize = minBatchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 判断批量数据是否值得并行执行
+     */
+    public boolean shouldParallelize(int size) {
+        return parallelism > 1 && size >= Math.max(2, minBatchSize);
+    }
+
+    /**
+     * 并行执行批量映射
+     *
+     * @param plan    映射计划
+     * @param sources 源数据列表
+     * @return 与输入顺序一致的映射结果
+     */
+    public List<MappingItemResult> executeBatch(CompiledMappingPlan plan, List<JSONObject> sources) {
+        int size = sources.size();
+        int chunkSize = chunkSize(sources);
+        List<MappingItemResult> results = new ArrayList<>(size);
+        Deque<CompletableFuture<List<MappingItemResult>>> inFlight = new ArrayDeque<>();
+        for (int start = 0; start < size; start += chunkSize) {
+            if (inFlight.size() >= maxInFlight) {
+                results.addAll(await(inFlight.poll()));
+            }
+            int from = start;
+            int to = Math.min(size, start + chunkSize);
+            inFlight.add(CompletableFuture.supplyAsync(() -> {
+                List<MappingItemResult> chunk = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    chunk.add(MappingEngine.executeItem(plan, i, sources.get(i)));
+                }
+                return chunk;
+            }, executor));
+        }
+        while (!inFlight.isEmpty()) {
+            results.addAll(await(inFlight.poll()));
+        }
+        return results;
+    }
+
+    /**
+     * 并行执行流式映射
+     * <p>
+     * 读取线程按字符数切分分块，解析与映射在线程池中完成，写出由调用线程按顺序进行。
+     *
+     * @param plan   映射计划
+     * @param reader NDJSON 输入
+     * @param writer NDJSON 输出
+     * @return 处理统计
+     * @throws IOException 读写失败
+     */
+    public MappingStreamResult executeStream(CompiledMappingPlan plan, BufferedReader reader, Writer writer) throws IOException {
+        Deque<CompletableFuture<List<MappingItemResult>>> inFlight = new ArrayDeque<>();
+        long total = 0;
+        long failed = 0;
+        List<String> lines = new ArrayList<>();
+        int chars = 0;
+        int firstIndex = 0;
+        String line;
+        while (true) {
+            line = reader.readLine();
+            if (line != null && !line.trim().isEmpty()) {
+                lines.add(line);
+                chars += line.length();
+                total++;
+            }
+            boolean flush = line == null ? !lines.isEmpty() : chars >= chunkChars;
+            if (flush) {
+                if (inFlight.size() >= maxInFlight) {
+                    failed += write(writer, await(inFlight.poll()));
+                }
+                List<String> chunk = lines;
+                int offset = firstIndex;
+                inFlight.add(CompletableFuture.supplyAsync(() -> {
+                    List<MappingItemResult> results = new ArrayList<>(chunk.size());
+                    for (int i = 0; i < chunk.size(); i++) {
+                        results.add(MappingEngine.executeLine(plan, offset + i, chunk.get(i)));
+                    }
+                    return results;
+                }, executor));
+                firstIndex += chunk.size();
+                lines = new ArrayList<>();
+                chars = 0;
+            }
+            if (line == null) {
+                break;
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            failed += write(writer, await(inFlight.poll()));
+        }
+        return new MappingStreamResult(total, failed);
+    }
+
+    private int write(Writer writer, List<MappingItemResult> items) throws IOException {
+        int failed = 0;
+        for (MappingItemResult item : items) {
+            if (!item.isSuccess()) {
+                failed++;
+            }
+            MappingEngine.writeItem(writer, item);
+        }
+        return failed;
+    }
+
+    /**
+     * 根据抽样文档的大小计算分块条数
+     */
+    private int chunkSize(List<JSONObject> sources) {
+        int size = sources.size();
+        int samples = Math.min(SIZE_SAMPLES, size);
+        long sampledChars = 0;
+        for (int i = 0; i < samples; i++) {
+            JSONObject sample = sources.get((int) ((long) i * size / samples));
+            sampledChars += sample != null ? JSON.toJSONString(sample).length() : 2;
+        }
+        long averageChars = Math.max(1, sampledChars / Math.max(1, samples));
+        int bySize = (int) Math.max(1, chunkChars / averageChars);
+        int byParallelism = Math.max(1, (size + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD));
+        return Math.min(bySize, byParallelism);
+    }
+
+    private static List<MappingItemResult> await(CompletableFuture<List<MappingItemResult>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("并行映射失败", cause);
+        }
+    }
+}
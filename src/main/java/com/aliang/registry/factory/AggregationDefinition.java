@@ -0,0 +1,105 @@
+package com.aliang.registry.factory;
+
+import com.aliang.rule.strategy.*;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * 聚合策略定义
+ * <p>
+ * 描述一种聚合策略的名称、别名、创建方式以及元数据：
+ * 1. processorsFirst：字段先执行处理器再聚合（例如 join、concat 需要处理后的元素）；否则先聚合再处理
+ * 2. inputKind：期望的元素类型
+ * 3. cost：相对执行成本
+ */
+public final class AggregationDefinition {
+    private final String name;
+    private final List<String> aliases;
+    private final Function<Map<String, String>, AggregationStrategy> factory;
+    private final boolean processorsFirst;
+    private final ValueKind inputKind;
+    private final int cost;
+
+    private AggregationDefinition(Builder builder) {
+        this.name = builder.name.toLowerCase();
+        this.aliases = Collections.unmodifiableList(new ArrayList<>(builder.aliases));
+        this.factory = builder.factory;
+        this.processorsFirst = builder.processorsFirst;
+        this.inputKind = builder.inputKind;
+        this.cost = builder.cost;
+    }
+
+    /**
+     * @param name    配置中使用的策略名称（大小写不敏感）
+     * @param factory 根据解析后的参数（key=value;...）创建策略
+     */
+    public static Builder builder(String name, Function<Map<String, String>, AggregationStrategy> factory) {
+        return new Builder(name, factory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    public boolean isProcessorsFirst() {
+        return processorsFirst;
+    }
+
+    public ValueKind getInputKind() {
+        return inputKind;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public AggregationStrategy create(Map<String, String> params) {
+        return factory.apply(params);
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final Function<Map<String, String>, AggregationStrategy> factory;
+        private final List<String> aliases = new ArrayList<>();
+        private boolean processorsFirst;
+        private ValueKind inputKind = ValueKind.ANY;
+        private int cost = 2;
+
+        private Builder(String name, Function<Map<String, String>, AggregationStrategy> factory) {
+            if (name == null || name.isEmpty() || factory == null) {
+                throw new IllegalArgumentException("聚合策略名称和创建方法不能为空");
+            }
+            this.name = name;
+            this.factory = factory;
+        }
+
+        public Builder alias(String alias) {
+            this.aliases.add(alias.toLowerCase());
+            return this;
+        }
+
+        public Builder processorsFirst() {
+            this.processorsFirst = true;
+            return this;
+        }
+
+        public Builder input(ValueKind inputKind) {
+            this.inputKind = inputKind;
+            return this;
+        }
+
+        public Builder cost(int cost) {
+            this.cost = Math.max(1, cost);
+            return this;
+        }
+
+        public AggregationDefinition build() {
+            return new AggregationDefinition(this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.aliang.registry.factory;
+
+import com.aliang.rule.processor.impl.*;
+import com.aliang.rule.strategy.impl.*;
+
+import java.util.*;
+
+/**
+ * 内置处理器与聚合策略
+ */
+public class BuiltinProcessorProvider implements ProcessorProvider {
+
+    @Override
+    public Collection<ProcessorDefinition> processors() {
+        return Arrays.asList(
+                ProcessorDefinition.builder("uppercase", "UppercaseProcessor", p -> new UppercaseProcessor())
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("lowercase", "LowercaseProcessor", p -> new LowercaseProcessor())
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("prefix", "PrefixProcessor", PrefixProcessor::new)
+                        .requiresParams("前缀处理器需要前缀参数").input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("suffix", "SuffixProcessor", SuffixProcessor::new)
+                        .requiresParams("后缀处理器需要后缀参数").input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("trim", "TrimProcessor", p -> new TrimProcessor())
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("capitalize", "CapitalizeProcessor", p -> new CapitalizeProcessor())
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("reverse", "ReverseProcessor", ReverseProcessor::new)
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("substring", "SubstringProcessor", SubstringProcessor::new)
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("replace", "ReplaceProcessor", ReplaceProcessor::new)
+                        .requiresParams("替换处理器需要目标字符串和替换字符串参数").input(ValueKind.STRING).cost(2).build(),
+                ProcessorDefinition.builder("format", "FormatProcessor", FormatProcessor::new)
+                        .cost(2).build(),
+                ProcessorDefinition.builder("phone", "PhoneNumberProcessor", PhoneNumberProcessor::new)
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("idcard", "IdCardProcessor", IdCardProcessor::new)
+                        .input(ValueKind.STRING).cost(2).build(),
+                /*  mapvalue:@名称 读取可刷新的共享字典 */
+                ProcessorDefinition.builder("mapvalue", "MapValueProcessor", MapValueProcessor::new)
+                        .impure().input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("statustochinese", "StatusToChineseProcessor", StatusToChineseProcessor::new)
+                        .input(ValueKind.STRING).build(),
+                ProcessorDefinition.builder("booleantoyesno", "BooleanToYesNoProcessor", BooleanToYesNoProcessor::new)
+                        .build(),
+                ProcessorDefinition.builder("multiplybyten", "MultiplyByTenProcessor", MultiplyByTenProcessor::new)
+                        .input(ValueKind.NUMERIC).build(),
+                ProcessorDefinition.builder("roundtwodecimal", "RoundTwoDecimalProcessor", RoundTwoDecimalProcessor::new)
+                        .input(ValueKind.NUMERIC).build(),
+                ProcessorDefinition.builder("discount", "DiscountProcessor", DiscountProcessor::new)
+                        .input(ValueKind.NUMERIC).build(),
+                ProcessorDefinition.builder("money", "MoneyProcessor", MoneyProcessor::new)
+                        .input(ValueKind.NUMERIC).cost(2).build(),
+                ProcessorDefinition.builder("range", "RangeProcessor", RangeProcessor::new)
+                        .input(ValueKind.NUMERIC).build(),
+                ProcessorDefinition.builder("tointeger", "ToIntegerProcessor", ToIntegerProcessor::new)
+                        .input(ValueKind.NUMERIC).build(),
+                ProcessorDefinition.builder("dateformat", "DateFormatProcessor", DateFormatProcessor::new)
+                        .cost(2).build(),
+                ProcessorDefinition.builder("json", "JsonProcessor", p -> new JsonProcessor())
+                        .cost(3).build(),
+                ProcessorDefinition.builder("listjoin", "ListJoinProcessor", ListJoinProcessor::new)
+                        .collectionWise().build()
+        );
+    }
+
+    @Override
+    public Collection<AggregationDefinition> aggregations() {
+        return Arrays.asList(
+                AggregationDefinition.builder("sum", p -> new SumAggregationStrategy())
+                        .input(ValueKind.NUMERIC).build(),
+                AggregationDefinition.builder("average", p -> new AverageAggregationStrategy())
+                        .alias("avg").input(ValueKind.NUMERIC).build(),
+                AggregationDefinition.builder("min", p -> new MinAggregationStrategy())
+                        .input(ValueKind.NUMERIC).build(),
+                AggregationDefinition.builder("max", p -> new MaxAggregationStrategy())
+                        .input(ValueKind.NUMERIC).build(),
+                AggregationDefinition.builder("subtract", p -> new SubtractAggregationStrategy())
+                        .input(ValueKind.NUMERIC).build(),
+                AggregationDefinition.builder("first", p -> new FirstAggregationStrategy())
+                        .cost(1).build(),
+                AggregationDefinition.builder("last", p -> new LastAggregationStrategy())
+                        .cost(1).build(),
+                AggregationDefinition.builder("count", p -> new CountAggregationStrategy())
+                        .cost(1).build(),
+                AggregationDefinition.builder("distinctCount", DistinctCountAggregationStrategy::of)
+                        .cost(3).build(),
+                AggregationDefinition.builder("percentile", p -> PercentileAggregationStrategy.of(null, p))
+                        .input(ValueKind.NUMERIC).cost(3).build(),
+                AggregationDefinition.builder("p50", p -> PercentileAggregationStrategy.of(50.0, p))
+                        .alias("median").input(ValueKind.NUMERIC).cost(3).build(),
+                AggregationDefinition.builder("p95", p -> PercentileAggregationStrategy.of(95.0, p))
+                        .input(ValueKind.NUMERIC).cost(3).build(),
+                AggregationDefinition.builder("p99", p -> PercentileAggregationStrategy.of(99.0, p))
+                        .input(ValueKind.NUMERIC).cost(3).build(),
+                AggregationDefinition.builder("join", p -> new JoinAggregationStrategy(
+                                p.getOrDefault("delimiter", ","),
+                                Boolean.parseBoolean(p.getOrDefault("keepArrayFormat", "false"))))
+                        .processorsFirst().input(ValueKind.STRING).build(),
+                AggregationDefinition.builder("concat", p -> new ConcatAggregationStrategy())
+                        .processorsFirst().input(ValueKind.STRING).build()
+        );
+    }
+}
@@ -0,0 +1,134 @@
+package com.aliang.registry.factory;
+
+import com.aliang.rule.processor.*;
+
+import java.util.function.*;
+
+/**
+ * 处理器定义
+ * <p>
+ * 描述一种处理器的名称、创建方式以及供映射计划编译器使用的元数据：
+ * 1. pure：输出只取决于输入值和配置，不读取外部数据（字典、时钟等）
+ * 2. elementWise：对数组或对象逐个元素处理；为false时处理器接收整个集合（例如 listjoin）
+ * 3. inputKind：期望的输入类型
+ * 4. cost：相对执行成本，简单字符串处理计1
+ */
+public final class ProcessorDefinition {
+    private final String name;
+    private final String processorName;
+    private final Function<String, ValueProcessor> factory;
+    private final String missingParamsMessage;
+    private final boolean pure;
+    private final boolean elementWise;
+    private final ValueKind inputKind;
+    private final int cost;
+
+    private ProcessorDefinition(Builder builder) {
+        this.name = builder.name.toLowerCase();
+        this.processorName = builder.processorName;
+        this.factory = builder.factory;
+        this.missingParamsMessage = builder.missingParamsMessage;
+        this.pure = builder.pure;
+        this.elementWise = builder.elementWise;
+        this.inputKind = builder.inputKind;
+        this.cost = builder.cost;
+    }
+
+    /**
+     * @param name          配置中使用的处理器名称（大小写不敏感）
+     * @param processorName 日志中显示的处理器名称
+     * @param factory       根据参数创建处理器，参数可能为null
+     */
+    public static Builder builder(String name, String processorName, Function<String, ValueProcessor> factory) {
+        return new Builder(name, processorName, factory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getProcessorName() {
+        return processorName;
+    }
+
+    /**
+     * 缺少参数时的错误信息，为null表示参数可选
+     */
+    public String getMissingParamsMessage() {
+        return missingParamsMessage;
+    }
+
+    public boolean isPure() {
+        return pure;
+    }
+
+    public boolean isElementWise() {
+        return elementWise;
+    }
+
+    public ValueKind getInputKind() {
+        return inputKind;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    ValueProcessor create(String params) {
+        return factory.apply(params);
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final String processorName;
+        private final Function<String, ValueProcessor> factory;
+        private String missingParamsMessage;
+        private boolean pure = true;
+        private boolean elementWise = true;
+        private ValueKind inputKind = ValueKind.ANY;
+        private int cost = 1;
+
+        private Builder(String name, String processorName, Function<String, ValueProcessor> factory) {
+            if (name == null || name.isEmpty() || factory == null) {
+                throw new IllegalArgumentException("处理器名称和创建方法不能为空");
+            }
+            this.name = name;
+            this.processorName = processorName != null ? processorName : name;
+            this.factory = factory;
+        }
+
+        /**
+         * 声明参数必填
+         *
+         * @param message 缺少参数时的错误信息
+         */
+        public Builder requiresParams(String message) {
+            this.missingParamsMessage = message;
+            return this;
+        }
+
+        public Builder impure() {
+            this.pure = false;
+            return this;
+        }
+
+        public Builder collectionWise() {
+            this.elementWise = false;
+            return this;
+        }
+
+        public Builder input(ValueKind inputKind) {
+            this.inputKind = inputKind;
+            return this;
+        }
+
+        public Builder cost(int cost) {
+            this.cost = Math.max(1, cost);
+            return this;
+        }
+
+        public ProcessorDefinition build() {
+            return new ProcessorDefinition(this);
+        }
+    }
+}
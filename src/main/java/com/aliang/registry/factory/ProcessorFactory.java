@@ -3,15 +3,77 @@ package com.aliang.registry.factory;
 import com.aliang.logger.*;
 import com.aliang.logger.impl.*;
 import com.aliang.rule.processor.*;
-import com.aliang.rule.processor.impl.*;
+import com.aliang.utils.*;
 
 import java.util.*;
 
 /**
  * 字段处理器工厂
+ * <p>
+ * 内置处理器只持有构造时解析好的不可变配置，可以被多个线程、多个映射计划共享。
+ * {@link #getProcessor} 按处理器规格（名称+参数）驻留实例：同一规格只创建、解析一次，
+ * 例如包含上千个键值对的 mapvalue 映射表只在第一次出现时解析。
+ * <p>
+ * 处理器名称通过 {@link ProcessorRegistry} 查找定义后创建，扩展处理器见 {@link ProcessorProvider}。
  */
 public class ProcessorFactory {
+    /**
+     * 处理器规格 -> 共享的处理器实例（全局共享，处理器只依赖规格本身）
+     * 最多驻留4096个规格，避免规则频繁变更导致无限增长
+     */
+    private static final BoundedCache<String, ValueProcessor> INTERNED = new BoundedCache<>(4096);
+
     private final ProcessorLogger logger = new DefaultProcessorLogger();
+    private final ProcessorRegistry registry;
+
+    public ProcessorFactory() {
+        this(ProcessorRegistry.shared());
+    }
+
+    public ProcessorFactory(ProcessorRegistry registry) {
+        this.registry = registry;
+    }
+
+    public ProcessorRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 获取指定规格的共享处理器实例
+     * <p>
+     * 同一规格只创建一次（仅限共享注册表）；创建失败（未知名称、缺少参数等）时返回null且不缓存。
+     *
+     * @param name   处理器名称（大小写不敏感）
+     * @param params 处理器参数，可为null
+     * @return 处理器实例，无法创建时返回null
+     */
+    public ValueProcessor getProcessor(String name, String params) {
+        if (name == null || name.isEmpty() || registry != ProcessorRegistry.shared()) {
+            return createProcessor(name, params);
+        }
+        String spec = specOf(name.toLowerCase(), params);
+        ValueProcessor processor = INTERNED.get(spec);
+        if (processor != null) {
+            return processor;
+        }
+        processor = createProcessor(name, params);
+        if (processor == null) {
+            return null;
+        }
+        ValueProcessor existing = INTERNED.putIfAbsent(spec, processor);
+        return existing != null ? existing : processor;
+    }
+
+    private static String specOf(String name, String params) {
+        return params == null ? name : name + ':' + params;
+    }
+
+    /**
+     * 清空驻留的处理器实例，处理器定义被覆盖时调用
+     */
+    static void clearInterned() {
+        INTERNED.clear();
+    }
 
     public ValueProcessor createProcessor(String name, String params) {
         if (name == null || name.isEmpty()) {
@@ -20,87 +82,18 @@ public class ProcessorFactory {
         }
 
         name = name.toLowerCase();
+        ProcessorDefinition definition = registry.getProcessor(name);
+        if (definition == null) {
+            logger.logProcessorParamError(name, "未知的处理器类型");
+            return null;
+        }
+        if (params == null && definition.getMissingParamsMessage() != null) {
+            logger.logProcessorParamError(definition.getProcessorName(), definition.getMissingParamsMessage());
+            return null;
+        }
         try {
-            switch (name) {
-                case "uppercase":
-                    logger.logProcessorInit("UppercaseProcessor", params);
-                    return new UppercaseProcessor();
-                case "lowercase":
-                    logger.logProcessorInit("LowercaseProcessor", params);
-                    return new LowercaseProcessor();
-                case "prefix":
-                    if (params == null) {
-                        logger.logProcessorParamError("PrefixProcessor", "前缀处理器需要前缀参数");
-                        return null;
-                    }
-                    logger.logProcessorInit("PrefixProcessor", params);
-                    return new PrefixProcessor(params);
-                case "suffix":
-                    if (params == null) {
-                        logger.logProcessorParamError("SuffixProcessor", "后缀处理器需要后缀参数");
-                        return null;
-                    }
-                    logger.logProcessorInit("SuffixProcessor", params);
-                    return new SuffixProcessor(params);
-                case "multiplybyten":
-                    logger.logProcessorInit("MultiplyByTenProcessor", params);
-                    return new MultiplyByTenProcessor(params);
-                case "roundtwodecimal":
-                    logger.logProcessorInit("RoundTwoDecimalProcessor", params);
-                    return new RoundTwoDecimalProcessor(params);
-                case "dateformat":
-                    logger.logProcessorInit("DateFormatProcessor", params);
-                    return new DateFormatProcessor(params);
-                case "discount":
-                    logger.logProcessorInit("DiscountProcessor", params);
-                    return new DiscountProcessor(params);
-                case "mapvalue":
-                    logger.logProcessorInit("MapValueProcessor", params);
-                    return new MapValueProcessor(params);
-                case "booleantoyesno":
-                    logger.logProcessorInit("BooleanToYesNoProcessor", params);
-                    return new BooleanToYesNoProcessor(params);
-                case "capitalize":
-                    logger.logProcessorInit("CapitalizeProcessor", params);
-                    return new CapitalizeProcessor();
-                case "range":
-                    logger.logProcessorInit("RangeProcessor", params);
-                    return new RangeProcessor(params);
-                case "substring":
-                    logger.logProcessorInit("SubstringProcessor", params);
-                    return new SubstringProcessor(params);
-                case "replace":
-                    if (params == null) {
-                        logger.logProcessorParamError("ReplaceProcessor", "替换处理器需要目标字符串和替换字符串参数");
-                        return null;
-                    }
-                    logger.logProcessorInit("ReplaceProcessor", params);
-                    return new ReplaceProcessor(params);
-                case "format":
-                    logger.logProcessorInit("FormatProcessor", params);
-                    return new FormatProcessor(params);
-                case "tointeger":
-                    logger.logProcessorInit("ToIntegerProcessor", params);
-                    return new ToIntegerProcessor(params);
-                case "money":
-                    logger.logProcessorInit("MoneyProcessor", params);
-                    return new MoneyProcessor(params);
-                case "phone":
-                    logger.logProcessorInit("PhoneNumberProcessor", params);
-                    return new PhoneNumberProcessor(params);
-                case "json":
-                    logger.logProcessorInit("JsonProcessor", params);
-                    return new JsonProcessor();
-                case "reverse":
-                    logger.logProcessorInit("ReverseProcessor", params);
-                    return new ReverseProcessor(params);
-                case "trim":
-                    logger.logProcessorInit("TrimProcessor", params);
-                    return new TrimProcessor();
-                default:
-                    logger.logProcessorParamError(name, "未知的处理器类型");
-                    return null;
-            }
+            logger.logProcessorInit(definition.getProcessorName(), params);
+            return definition.create(params);
         } catch (Exception e) {
             logger.logProcessorCreationFailure(name, e.getMessage());
             return null;
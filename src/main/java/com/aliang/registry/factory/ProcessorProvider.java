@@ -0,0 +1,26 @@
+package com.aliang.registry.factory;
+
+import java.util.*;
+
+/**
+ * 处理器与聚合策略提供者
+ * <p>
+ * 扩展处理器无需修改本项目，实现此接口后通过以下任一方式注册：
+ * 1. 在 META-INF/services/com.aliang.registry.factory.ProcessorProvider 中声明实现类（ServiceLoader）
+ * 2. 声明为 Spring Bean，应用启动时由 {@link com.aliang.service.ProcessorProviderRegistrar} 注册
+ * <p>
+ * 与内置处理器同名时覆盖内置处理器。
+ */
+public interface ProcessorProvider {
+    /**
+     * 提供的处理器定义
+     */
+    Collection<ProcessorDefinition> processors();
+
+    /**
+     * 提供的聚合策略定义
+     */
+    default Collection<AggregationDefinition> aggregations() {
+        return Collections.emptyList();
+    }
+}
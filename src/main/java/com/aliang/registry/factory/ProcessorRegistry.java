@@ -0,0 +1,127 @@
+package com.aliang.registry.factory;
+
+import org.slf4j.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * 处理器与聚合策略注册表
+ * <p>
+ * 按名称（小写）直接查找定义，替代原来的 switch 分支。共享注册表先注册 {@link BuiltinProcessorProvider}，
+ * 再注册通过 {@link ServiceLoader} 发现的 {@link ProcessorProvider}；Spring Bean 形式的提供者在应用启动时追加注册。
+ * 同名定义以后注册的为准。
+ * <p>
+ * 每次新增或覆盖定义都会递增注册代数（{@link #getGeneration()}），映射计划记录编译时的代数，
+ * 代数变化后的计划在下次获取时按当前定义重新编译，处理器与聚合策略的注册行为一致。
+ */
+public final class ProcessorRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessorRegistry.class);
+    private static final ProcessorRegistry SHARED = createShared();
+
+    private final Map<String, ProcessorDefinition> processors = new ConcurrentHashMap<>();
+    private final Map<String, AggregationDefinition> aggregations = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 获取全局共享的注册表
+     */
+    public static ProcessorRegistry shared() {
+        return SHARED;
+    }
+
+    private static ProcessorRegistry createShared() {
+        ProcessorRegistry registry = new ProcessorRegistry();
+        registry.register(new BuiltinProcessorProvider());
+        try {
+            for (ProcessorProvider provider : ServiceLoader.load(ProcessorProvider.class)) {
+                registry.register(provider);
+                logger.info("已注册处理器扩展 - provider: {}", provider.getClass().getName());
+            }
+        } catch (ServiceConfigurationError e) {
+            logger.error("加载处理器扩展失败 - 错误: {}", e.getMessage());
+        }
+        return registry;
+    }
+
+    /**
+     * 注册提供者的全部处理器与聚合策略
+     */
+    public void register(ProcessorProvider provider) {
+        for (ProcessorDefinition definition : provider.processors()) {
+            register(definition);
+        }
+        for (AggregationDefinition definition : provider.aggregations()) {
+            register(definition);
+        }
+    }
+
+    public void register(ProcessorDefinition definition) {
+        ProcessorDefinition previous = processors.put(definition.getName(), definition);
+        if (previous == definition) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (previous != null) {
+            logger.info("处理器定义已覆盖 - name: {}", definition.getName());
+            /*  已驻留的实例由旧定义创建 */
+            ProcessorFactory.clearInterned();
+        }
+    }
+
+    public void register(AggregationDefinition definition) {
+        boolean changed = false;
+        boolean overridden = false;
+        List<String> names = new ArrayList<>(definition.getAliases().size() + 1);
+        names.add(definition.getName());
+        names.addAll(definition.getAliases());
+        for (String name : names) {
+            AggregationDefinition previous = aggregations.put(name, definition);
+            if (previous != definition) {
+                changed = true;
+                overridden |= previous != null;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (overridden) {
+            logger.info("聚合策略定义已覆盖 - name: {}", definition.getName());
+        }
+    }
+
+    /**
+     * 注册代数，每次新增或覆盖定义后递增
+     * <p>
+     * 映射计划按编译时的代数缓存，代数变化后需要重新编译才能使用新的定义。
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param name 处理器名称（大小写不敏感）
+     * @return 处理器定义，未注册时返回null
+     */
+    public ProcessorDefinition getProcessor(String name) {
+        return name != null ? processors.get(name.toLowerCase()) : null;
+    }
+
+    /**
+     * @param name 聚合策略名称或别名（大小写不敏感）
+     * @return 聚合策略定义，未注册时返回null
+     */
+    public AggregationDefinition getAggregation(String name) {
+        return name != null ? aggregations.get(name.toLowerCase()) : null;
+    }
+
+    public Set<String> getProcessorNames() {
+        return new TreeSet<>(processors.keySet());
+    }
+
+    public Set<String> getAggregationNames() {
+        return new TreeSet<>(aggregations.keySet());
+    }
+}
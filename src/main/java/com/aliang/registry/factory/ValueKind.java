@@ -0,0 +1,19 @@
+package com.aliang.registry.factory;
+
+/**
+ * 处理器与聚合策略期望的输入类型
+ */
+public enum ValueKind {
+    /**
+     * 任意类型
+     */
+    ANY,
+    /**
+     * 字符串（其他类型先转为字符串）
+     */
+    STRING,
+    /**
+     * 数值或可解析为数值的字符串
+     */
+    NUMERIC
+}
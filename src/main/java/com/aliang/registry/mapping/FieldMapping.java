@@ -2,6 +2,7 @@ package com.aliang.registry.mapping;
 
 import com.aliang.logger.*;
 import com.aliang.logger.impl.*;
+import com.aliang.registry.path.*;
 import com.aliang.rule.processor.*;
 import com.aliang.rule.strategy.*;
 import com.alibaba.fastjson.*;
@@ -80,6 +81,15 @@ public class FieldMapping {
      */
     private final FieldMappingLogger logger = new DefaultFieldMappingLogger();
 
+    /**
+     * 预编译的源路径，首次使用时创建
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile SourcePath compiledSourcePath;
+
 
     /**
      * 从源数据中获取字段值
@@ -90,7 +100,7 @@ public class FieldMapping {
      */
     private Object evaluateSourcePath(JSONObject source, String sourcePath) {
         try {
-            Object value = JSONPath.eval(source, sourcePath);
+            Object value = compileSourcePath(sourcePath).eval(source);
             if (value == null) {
                 logger.logInvalidValue(sourcePath, targetPath, null, "源字段不存在");
                 invalidFields.add(sourcePath);
@@ -104,6 +114,15 @@ public class FieldMapping {
         }
     }
 
+    private SourcePath compileSourcePath(String sourcePath) {
+        SourcePath compiled = compiledSourcePath;
+        if (compiled == null || !compiled.getPath().equals(sourcePath)) {
+            compiled = SourcePath.compile(sourcePath);
+            compiledSourcePath = compiled;
+        }
+        return compiled;
+    }
+
     /**
      * 执行字段映射操作
      * <p>
@@ -121,7 +140,9 @@ public class FieldMapping {
     public void apply(JSONObject source, JSONObject target) {
         /*  获取源值 */
         Object value = evaluateSourcePath(source, sourcePath);
-        logger.logMappingSuccess(sourcePath, targetPath, "Initial value: " + value);
+        if (logger.isDebugEnabled()) {
+            logger.logMappingSuccess(sourcePath, targetPath, "Initial value: " + value);
+        }
         if (value == null) {
             return;
         }
@@ -132,7 +153,9 @@ public class FieldMapping {
                 try {
                     Object oldValue = value;
                     value = strategy.apply((List<?>) value);
-                    logger.logMappingSuccess(sourcePath, targetPath, "After aggregation: " + value);
+                    if (logger.isDebugEnabled()) {
+                        logger.logMappingSuccess(sourcePath, targetPath, "After aggregation: " + value);
+                    }
                     if (value == null) {
                         logger.logStrategyFailure(sourcePath, targetPath,
                                 strategy.getClass().getSimpleName(), oldValue, "聚合结果为null");
@@ -4,6 +4,8 @@ import com.aliang.registry.*;
 import com.alibaba.fastjson.*;
 import org.slf4j.*;
 
+import java.util.*;
+
 /**
  * 解析 JSON 配置，生成并注册产品映射规则
  */
@@ -11,19 +13,36 @@ public class MappingConfigParser {
     private static final Logger logger = LoggerFactory.getLogger(MappingConfigParser.class);
 
     public static void parseAndRegister(JSONObject config, MappingRegistry registry) {
+        String code = config != null ? config.getString("code") : null;
+        Map<String, JSONObject> mappings = parse(config);
+        for (Map.Entry<String, JSONObject> entry : mappings.entrySet()) {
+            registry.registerMapping(code, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 解析 JSON 配置为映射表，不写入注册中心
+     * <p>
+     * 返回结果可通过 {@link MappingRegistry#replaceMappings(String, Map)} 整体替换某个产品编码的规则。
+     *
+     * @param config 映射配置
+     * @return 目标路径（或配置中的 key）到映射配置的有序映射
+     */
+    public static Map<String, JSONObject> parse(JSONObject config) {
         /*  验证配置 */
         validateConfig(config);
 
-        /*  解析配置并注册到注册表 */
+        /*  解析配置 */
         String code = config.getString("code");
         Object mappingsRaw = config.get("mappings");
+        Map<String, JSONObject> result = new LinkedHashMap<>();
 
         if (mappingsRaw instanceof JSONObject) {
             JSONObject mappings = (JSONObject) mappingsRaw;
             for (String key : mappings.keySet()) {
                 JSONObject mapping = mappings.getJSONObject(key);
                 sanitizeProcessors(code, key, mapping);
-                registry.registerMapping(code, key, mapping);
+                result.put(key, mapping);
             }
         } else if (mappingsRaw instanceof JSONArray) {
             JSONArray array = (JSONArray) mappingsRaw;
@@ -31,11 +50,12 @@ public class MappingConfigParser {
                 JSONObject mapping = array.getJSONObject(i);
                 String targetPath = mapping.getString("targetPath");
                 sanitizeProcessors(code, targetPath, mapping);
-                registry.registerMapping(code, targetPath, mapping);
+                result.put(targetPath, mapping);
             }
         } else {
             throw new IllegalArgumentException("mappings 必须是对象或数组");
         }
+        return result;
     }
 
     private static void validateConfig(JSONObject config) {
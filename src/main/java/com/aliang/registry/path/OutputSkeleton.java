@@ -0,0 +1,139 @@
+package com.aliang.registry.path;
+
+import com.alibaba.fastjson.*;
+
+import java.util.*;
+
+/**
+ * 输出骨架
+ * <p>
+ * 在编译映射计划时根据全部目标路径构建输出对象的结构树：每个中间对象包含哪些属性、
+ * 哪些属性是单元素数组、每个叶子属性对应第几个字段的值。执行时按骨架一次性构建结果，
+ * 中间对象按最终属性数预先分配容量，字段值直接放入对应位置。
+ * <p>
+ * 属性的插入顺序与逐字段写入时一致。目标路径之间存在冲突（同一属性既是叶子又是中间对象，
+ * 或既是对象又是数组）时无法构建骨架，由调用方逐字段写入。
+ * <p>
+ * 实例不可变，可在多个线程间共享。
+ */
+public final class OutputSkeleton {
+    private static final int LEAF = 0;
+    private static final int OBJECT = 1;
+    private static final int ARRAY = 2;
+
+    private final Node root;
+
+    private OutputSkeleton(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 根据目标路径构建输出骨架
+     *
+     * @param paths 按字段顺序排列的目标路径
+     * @return 输出骨架，目标路径存在冲突时返回null
+     */
+    public static OutputSkeleton build(List<TargetPath> paths) {
+        Node root = new Node();
+        for (int i = 0; i < paths.size(); i++) {
+            if (!root.add(paths.get(i), 0, i)) {
+                return null;
+            }
+        }
+        root.freeze();
+        return new OutputSkeleton(root);
+    }
+
+    /**
+     * 按骨架构建结果对象
+     *
+     * @param values 按字段顺序排列的字段值
+     * @return 结果对象
+     */
+    public JSONObject create(Object[] values) {
+        return root.create(values);
+    }
+
+    private static final class Node {
+        private final Map<String, Entry> building = new LinkedHashMap<>();
+        private String[] keys;
+        private Entry[] entries;
+        private int capacity;
+
+        boolean add(TargetPath path, int depth, int valueIndex) {
+            String key = path.getKey(depth);
+            boolean isArray = path.isArray(depth);
+            Entry entry = building.get(key);
+
+            if (depth == path.depth() - 1) {
+                if (entry != null && entry.kind != LEAF) {
+                    return false;
+                }
+                /*  同一属性被多次写入时以最后一次为准，位置保持首次写入时的位置 */
+                building.put(key, new Entry(LEAF, isArray, valueIndex, null));
+                return true;
+            }
+
+            int kind = isArray ? ARRAY : OBJECT;
+            if (entry == null) {
+                entry = new Entry(kind, isArray, -1, new Node());
+                building.put(key, entry);
+            } else if (entry.kind != kind) {
+                return false;
+            }
+            return entry.child.add(path, depth + 1, valueIndex);
+        }
+
+        void freeze() {
+            keys = building.keySet().toArray(new String[0]);
+            entries = building.values().toArray(new Entry[0]);
+            capacity = initialCapacity(keys.length);
+            for (Entry entry : entries) {
+                if (entry.child != null) {
+                    entry.child.freeze();
+                }
+            }
+        }
+
+        JSONObject create(Object[] values) {
+            JSONObject obj = new JSONObject(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                Entry entry = entries[i];
+                switch (entry.kind) {
+                    case LEAF:
+                        Object value = values[entry.valueIndex];
+                        obj.put(keys[i], entry.wrapArray ? TargetPath.wrap(value) : value);
+                        break;
+                    case OBJECT:
+                        obj.put(keys[i], entry.child.create(values));
+                        break;
+                    default:
+                        obj.put(keys[i], TargetPath.wrap(entry.child.create(values)));
+                        break;
+                }
+            }
+            return obj;
+        }
+
+        /**
+         * 预分配容量：与默认容量逐个插入后扩容得到的表大小一致，保证属性遍历顺序不变
+         */
+        private static int initialCapacity(int size) {
+            return Math.max(16, (int) Math.ceil(size / 0.75));
+        }
+    }
+
+    private static final class Entry {
+        private final int kind;
+        private final boolean wrapArray;
+        private final int valueIndex;
+        private final Node child;
+
+        Entry(int kind, boolean wrapArray, int valueIndex, Node child) {
+            this.kind = kind;
+            this.wrapArray = wrapArray;
+            this.valueIndex = valueIndex;
+            this.child = child;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.aliang.registry.path;
+
+import java.util.*;
+
+/**
+ * 源路径片段
+ * <p>
+ * 简单路径（如 {@code $.order.items[0].name}）被拆分为一组片段，
+ * 每个片段要么是对象属性名，要么是非负数组下标。
+ */
+public final class PathSegment {
+    private final String key;
+    private final int index;
+
+    private PathSegment(String key, int index) {
+        this.key = key;
+        this.index = index;
+    }
+
+    static PathSegment key(String key) {
+        return new PathSegment(key, -1);
+    }
+
+    static PathSegment index(int index) {
+        return new PathSegment(null, index);
+    }
+
+    public boolean isIndex() {
+        return key == null;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * 对当前节点执行一次取值
+     *
+     * @param current 当前节点
+     * @return 取到的值；节点类型不匹配时返回 {@link SourcePath#UNRESOLVED}
+     */
+    Object step(Object current) {
+        if (key != null) {
+            if (current instanceof Map) {
+                return ((Map<?, ?>) current).get(key);
+            }
+        } else if (current instanceof List) {
+            List<?> list = (List<?>) current;
+            return index < list.size() ? list.get(index) : null;
+        }
+        return SourcePath.UNRESOLVED;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PathSegment)) {
+            return false;
+        }
+        PathSegment that = (PathSegment) o;
+        return index == that.index && Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key != null ? key.hashCode() : index;
+    }
+
+    @Override
+    public String toString() {
+        return key != null ? "." + key : "[" + index + "]";
+    }
+}
@@ -0,0 +1,336 @@
+package com.aliang.registry.path;
+
+import com.alibaba.fastjson.*;
+
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * 预编译的源路径
+ * <p>
+ * 在规则加载时对源路径分类：
+ * 1. 只包含属性名和非负下标的简单路径（如 {@code $.user.profile.name}、{@code $.items[0].price}）
+ * 编译为逐级 {@code Map.get}/{@code List.get} 的访问器，执行时不再解析字符串
+ * 2. 通配符、过滤、递归等其他路径拆分为简单前缀和剩余部分，剩余部分使用预编译的相对 {@link JSONPath}
+ * （如 {@code $.order.items[*].price} 拆分为前缀 {@code order.items} 和 {@code $[*].price}）
+ * <p>
+ * 前缀在遇到非 Map/List 节点（如 JavaBean）时退回完整 JSONPath 求值，保证结果与 JSONPath 一致。
+ * <p>
+ * 剩余部分为 {@code [*]} 加属性名（如 {@code $[*].product.pricing.quantity}）时，还可以通过
+ * {@link #visitRemainder} 按顺序逐个访问匹配到的值，不生成中间数组。
+ * 实例不可变，可在多个线程间共享。
+ */
+public final class SourcePath {
+    /**
+     * 简单访问器无法处理当前节点时的标记值
+     */
+    static final Object UNRESOLVED = new Object();
+
+    private static final Pattern KEY = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * JSONPath 对 size/length 属性有特殊处理，不走简单访问
+     */
+    private static final Set<String> RESERVED_KEYS = new HashSet<>(Arrays.asList("size", "length"));
+
+    /**
+     * 通配符加属性名的剩余部分，如 {@code [*].product.price}
+     */
+    private static final Pattern WILDCARD_KEYS = Pattern.compile("\\[\\*\\]((\\.[A-Za-z_][A-Za-z0-9_]*)*)");
+
+    private static final PathSegment[] NO_SEGMENTS = new PathSegment[0];
+
+    private static final int CONTINUE = 0;
+    private static final int STOP = 1;
+    private static final int UNSUPPORTED = 2;
+
+    private final String path;
+    private final JSONPath jsonPath;
+    private final PathSegment[] prefix;
+    private final JSONPath remainder;
+
+    /**
+     * 通配符之后的属性名，剩余部分不是通配符加属性名时为null
+     */
+    private final String[] wildcardKeys;
+
+    private SourcePath(String path, JSONPath jsonPath, PathSegment[] prefix, JSONPath remainder) {
+        this(path, jsonPath, prefix, remainder, null);
+    }
+
+    private SourcePath(String path, JSONPath jsonPath, PathSegment[] prefix, JSONPath remainder, String[] wildcardKeys) {
+        this.path = path;
+        this.jsonPath = jsonPath;
+        this.prefix = prefix;
+        this.remainder = remainder;
+        this.wildcardKeys = wildcardKeys;
+    }
+
+    /**
+     * 编译源路径
+     *
+     * @param path JSONPath 表达式
+     * @return 编译后的源路径
+     */
+    public static SourcePath compile(String path) {
+        JSONPath jsonPath = JSONPath.compile(path);
+        /*  JSONPath 在首次求值时才解析表达式且解析结果未安全发布，编译时先试算一次，
+            使计划在线程间共享时表达式已解析完成 */
+        boolean valid = prime(jsonPath);
+        if (path == null || !path.startsWith("$")) {
+            return new SourcePath(path, jsonPath, NO_SEGMENTS, jsonPath);
+        }
+
+        List<PathSegment> segments = new ArrayList<>();
+        int end = parsePrefix(path, segments);
+        if (end >= path.length() && !segments.isEmpty()) {
+            return new SourcePath(path, jsonPath, segments.toArray(NO_SEGMENTS), null);
+        }
+        /*  表达式有误时保持完整求值，以便照常报错 */
+        if (segments.isEmpty() || !valid) {
+            return new SourcePath(path, jsonPath, NO_SEGMENTS, jsonPath);
+        }
+        try {
+            String rest = path.substring(end);
+            JSONPath remainder = JSONPath.compile("$" + rest);
+            if (prime(remainder)) {
+                return new SourcePath(path, jsonPath, segments.toArray(NO_SEGMENTS), remainder, parseWildcardKeys(rest));
+            }
+        } catch (Exception ignored) {
+            // 剩余部分无法单独编译时使用完整路径
+        }
+        return new SourcePath(path, jsonPath, NO_SEGMENTS, jsonPath);
+    }
+
+    private static boolean prime(JSONPath jsonPath) {
+        try {
+            jsonPath.eval(new JSONObject());
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 解析路径开头的简单片段
+     *
+     * @return 简单前缀结束的位置
+     */
+    private static int parsePrefix(String path, List<PathSegment> segments) {
+        int length = path.length();
+        int pos = 1;
+        while (pos < length) {
+            char c = path.charAt(pos);
+            if (c == '.') {
+                int end = pos + 1;
+                while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                String key = path.substring(pos + 1, end);
+                if (!KEY.matcher(key).matches() || RESERVED_KEYS.contains(key)) {
+                    return pos;
+                }
+                segments.add(PathSegment.key(key));
+                pos = end;
+            } else if (c == '[') {
+                int end = path.indexOf(']', pos);
+                if (end < 0 || end == pos + 1 || end - pos > 10) {
+                    return pos;
+                }
+                for (int i = pos + 1; i < end; i++) {
+                    if (!Character.isDigit(path.charAt(i))) {
+                        return pos;
+                    }
+                }
+                segments.add(PathSegment.index(Integer.parseInt(path.substring(pos + 1, end))));
+                pos = end + 1;
+            } else {
+                return pos;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * 解析通配符之后的属性名
+     *
+     * @return 属性名，剩余部分不是通配符加属性名时返回null
+     */
+    private static String[] parseWildcardKeys(String rest) {
+        Matcher matcher = WILDCARD_KEYS.matcher(rest);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String tail = matcher.group(1);
+        String[] keys = tail.isEmpty() ? new String[0] : tail.substring(1).split("\\.");
+        for (String key : keys) {
+            if (RESERVED_KEYS.contains(key)) {
+                return null;
+            }
+        }
+        return keys;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 是否为简单路径（只包含属性名和非负下标）
+     */
+    public boolean isSimple() {
+        return remainder == null;
+    }
+
+    /**
+     * 获取简单路径的片段，非简单路径返回空列表
+     */
+    public List<PathSegment> getSegments() {
+        return isSimple() ? getPrefix() : Collections.emptyList();
+    }
+
+    /**
+     * 获取路径开头可直接访问的片段
+     */
+    public List<PathSegment> getPrefix() {
+        return Collections.unmodifiableList(Arrays.asList(prefix));
+    }
+
+    /**
+     * 对源数据求值
+     *
+     * @param root 源数据
+     * @return 路径对应的值，不存在时返回null
+     */
+    public Object eval(Object root) {
+        Object current = root;
+        for (PathSegment segment : prefix) {
+            if (current == null) {
+                return null;
+            }
+            current = segment.step(current);
+            if (current == UNRESOLVED) {
+                return jsonPath.eval(root);
+            }
+        }
+        return evalRemainder(current, root);
+    }
+
+    /**
+     * 在前缀的取值结果上计算剩余路径
+     *
+     * @param prefixValue 前缀对应的值
+     * @param root        源数据，剩余路径无法直接计算时用于完整求值
+     * @return 路径对应的值
+     */
+    Object evalRemainder(Object prefixValue, Object root) {
+        if (remainder == null) {
+            return prefixValue;
+        }
+        if (prefix.length == 0) {
+            return jsonPath.eval(root);
+        }
+        if (prefixValue == null) {
+            return null;
+        }
+        if (prefixValue instanceof Map || prefixValue instanceof List) {
+            return remainder.eval(prefixValue);
+        }
+        return jsonPath.eval(root);
+    }
+
+    /**
+     * 剩余部分是否为通配符加属性名，可以通过 {@link #visitRemainder} 逐个访问
+     */
+    public boolean isStreamable() {
+        return wildcardKeys != null;
+    }
+
+    /**
+     * 在前缀的取值结果上逐个访问剩余路径匹配到的值，不生成中间数组
+     * <p>
+     * 访问的值及其顺序与 {@link #evalRemainder} 返回的数组相同：属性值为集合时展开其元素，
+     * null 以及字符串、数值、布尔值上的属性被跳过。
+     *
+     * @param prefixValue 前缀对应的值
+     * @param visitor     值的访问器
+     * @return 前缀值不是数组或遇到其他类型的节点时返回false，此时访问器可能已收到部分值，
+     * 调用方应丢弃其状态并改用 {@link #evalRemainder}
+     */
+    boolean visitRemainder(Object prefixValue, ValueVisitor visitor) {
+        if (wildcardKeys == null || !(prefixValue instanceof List)) {
+            return false;
+        }
+        List<?> list = (List<?>) prefixValue;
+        if (wildcardKeys.length == 0) {
+            /*  [*] 直接得到数组本身，元素不展开，null 也保留 */
+            for (Object item : list) {
+                if (!visitor.visit(item)) {
+                    break;
+                }
+            }
+            return true;
+        }
+        return visit(list, 0, visitor) != UNSUPPORTED;
+    }
+
+    /**
+     * 与 JSONPath 对数组逐个取属性的语义相同：数组元素逐个取属性（嵌套数组递归展开），
+     * 属性值为集合时展开一层，null 跳过
+     */
+    private int visit(Object value, int depth, ValueVisitor visitor) {
+        if (depth == wildcardKeys.length) {
+            return visitor.visit(value) ? CONTINUE : STOP;
+        }
+        if (value instanceof Map) {
+            Object next = ((Map<?, ?>) value).get(wildcardKeys[depth]);
+            if (next instanceof Collection) {
+                for (Object item : (Collection<?>) next) {
+                    int state = visit(item, depth + 1, visitor);
+                    if (state != CONTINUE) {
+                        return state;
+                    }
+                }
+                return CONTINUE;
+            }
+            return next != null ? visit(next, depth + 1, visitor) : CONTINUE;
+        }
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                int state = visit(item, depth, visitor);
+                if (state != CONTINUE) {
+                    return state;
+                }
+            }
+            return CONTINUE;
+        }
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return CONTINUE;
+        }
+        /*  JavaBean 等节点的属性由 JSONPath 计算 */
+        return UNSUPPORTED;
+    }
+
+    /**
+     * 使用完整 JSONPath 求值
+     */
+    Object evalFully(Object root) {
+        return jsonPath.eval(root);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /**
+     * 逐个访问路径匹配到的值
+     */
+    @FunctionalInterface
+    public interface ValueVisitor {
+        /**
+         * @return 继续访问时返回true，返回false时提前结束
+         */
+        boolean visit(Object value);
+    }
+}
@@ -0,0 +1,186 @@
+package com.aliang.registry.path;
+
+import java.util.*;
+
+/**
+ * 源路径前缀树
+ * <p>
+ * 将一个规则集中的全部源路径按简单前缀合并为一棵树，每个源文档只遍历一次：
+ * 1. 共享的中间节点（如 {@code $.user.profile.contact.address}）只取值一次
+ * 2. 前缀不存在时，整个分支下的路径直接得到null，不再逐个求值
+ * 3. 通配符、过滤等路径在其简单前缀节点上计算剩余部分
+ * 4. 标记为延迟求值的通配符路径不在此计算剩余部分，而是返回 {@link Deferred}，
+ * 由调用方在逐个访问匹配值的同时完成聚合，不生成中间数组
+ * <p>
+ * 求值结果按构建时的路径顺序返回。某条路径求值抛出异常时，对应位置为 {@link Failure}，
+ * 由调用方在处理到该字段时再抛出，其他路径不受影响。
+ * 实例不可变，可在多个线程间共享。
+ */
+public final class SourcePathTrie {
+    private final Node root = new Node();
+    private final SourcePath[] paths;
+    private final boolean[] deferred;
+
+    public SourcePathTrie(List<SourcePath> paths) {
+        this(paths, null);
+    }
+
+    /**
+     * @param paths    源路径
+     * @param deferred 每条路径是否延迟求值，为null时全部立即求值；只对 {@link SourcePath#isStreamable()} 的路径生效
+     */
+    public SourcePathTrie(List<SourcePath> paths, boolean[] deferred) {
+        this.paths = paths.toArray(new SourcePath[0]);
+        this.deferred = new boolean[this.paths.length];
+        for (int i = 0; i < this.paths.length; i++) {
+            this.deferred[i] = deferred != null && deferred[i] && this.paths[i].isStreamable();
+        }
+        for (int i = 0; i < this.paths.length; i++) {
+            Node node = root;
+            for (PathSegment segment : this.paths[i].getPrefix()) {
+                node = node.children.computeIfAbsent(segment, k -> new Node());
+            }
+            node.pathIndexes.add(i);
+        }
+        root.freeze();
+    }
+
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * 一次遍历计算全部源路径
+     *
+     * @param source 源数据
+     * @return 与构建时路径顺序一致的取值结果
+     */
+    public Object[] resolve(Object source) {
+        Object[] values = new Object[paths.length];
+        resolve(root, source, source, values);
+        return values;
+    }
+
+    private void resolve(Node node, Object current, Object source, Object[] values) {
+        for (int index : node.indexes) {
+            if (deferred[index] && current instanceof List) {
+                values[index] = new Deferred(paths[index], current, source);
+                continue;
+            }
+            try {
+                values[index] = paths[index].evalRemainder(current, source);
+            } catch (Exception e) {
+                values[index] = new Failure(e);
+            }
+        }
+        if (current == null) {
+            return;
+        }
+        for (int i = 0; i < node.segments.length; i++) {
+            Object next = node.segments[i].step(current);
+            if (next == null) {
+                /*  前缀不存在，整个分支保持null */
+                continue;
+            }
+            if (next == SourcePath.UNRESOLVED) {
+                resolveFully(node.nodes[i], source, values);
+            } else {
+                resolve(node.nodes[i], next, source, values);
+            }
+        }
+    }
+
+    /**
+     * 简单前缀无法处理当前节点时，对分支下的全部路径使用完整 JSONPath 求值
+     */
+    private void resolveFully(Node node, Object source, Object[] values) {
+        for (int index : node.indexes) {
+            try {
+                values[index] = paths[index].evalFully(source);
+            } catch (Exception e) {
+                values[index] = new Failure(e);
+            }
+        }
+        for (Node child : node.nodes) {
+            resolveFully(child, source, values);
+        }
+    }
+
+    /**
+     * 路径求值失败的结果
+     */
+    public static final class Failure {
+        private final Exception cause;
+
+        Failure(Exception cause) {
+            this.cause = cause;
+        }
+
+        public Exception getCause() {
+            return cause;
+        }
+    }
+
+    /**
+     * 延迟求值的通配符路径：保存前缀对应的数组，由调用方逐个访问匹配值或再计算完整结果
+     */
+    public static final class Deferred {
+        private final SourcePath path;
+        private final Object prefixValue;
+        private final Object source;
+
+        Deferred(SourcePath path, Object prefixValue, Object source) {
+            this.path = path;
+            this.prefixValue = prefixValue;
+            this.source = source;
+        }
+
+        public SourcePath getPath() {
+            return path;
+        }
+
+        /**
+         * 按顺序逐个访问匹配到的值
+         *
+         * @return 无法逐个访问时返回false，此时访问器可能已收到部分值，调用方应丢弃其状态并改用 {@link #materialize()}
+         */
+        public boolean visit(SourcePath.ValueVisitor visitor) {
+            return path.visitRemainder(prefixValue, visitor);
+        }
+
+        /**
+         * 计算完整结果，与立即求值相同
+         */
+        public Object materialize() {
+            return path.evalRemainder(prefixValue, source);
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+    private static final class Node {
+        private final Map<PathSegment, Node> children = new LinkedHashMap<>();
+        private final List<Integer> pathIndexes = new ArrayList<>();
+        private PathSegment[] segments;
+        private Node[] nodes;
+        private int[] indexes;
+
+        /**
+         * 构建完成后转为数组，遍历时不再访问集合
+         */
+        void freeze() {
+            segments = children.keySet().toArray(new PathSegment[0]);
+            nodes = children.values().toArray(new Node[0]);
+            indexes = new int[pathIndexes.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = pathIndexes.get(i);
+            }
+            for (Node child : nodes) {
+                child.freeze();
+            }
+        }
+    }
+}
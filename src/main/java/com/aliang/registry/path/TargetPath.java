@@ -0,0 +1,140 @@
+package com.aliang.registry.path;
+
+import com.alibaba.fastjson.*;
+
+import java.util.*;
+
+/**
+ * 预编译的目标路径
+ * <p>
+ * 目标路径（如 {@code $.order.items[*].name}）在规则加载时拆分为片段，每个片段记录属性名以及是否为数组（{@code [*]}）。
+ * 写入时按片段逐层定位，不再做字符串处理：
+ * 1. 中间片段不存在时创建对象，{@code [*]} 片段创建只含一个对象元素的数组，同一数组下的多个字段写入同一元素
+ * 2. 最后一个片段为 {@code [*]} 时，将值包装为单元素数组
+ * <p>
+ * 实例不可变，可在多个线程间共享。
+ */
+public final class TargetPath {
+    private final String path;
+    private final String[] keys;
+    private final boolean[] arrays;
+
+    private TargetPath(String path, String[] keys, boolean[] arrays) {
+        this.path = path;
+        this.keys = keys;
+        this.arrays = arrays;
+    }
+
+    /**
+     * 编译目标路径
+     *
+     * @param path 目标路径，可带 {@code $.} 前缀
+     * @return 编译后的目标路径
+     */
+    public static TargetPath compile(String path) {
+        String stripped = path.startsWith("$.") ? path.substring(2) : path;
+        String[] parts = stripped.split("\\.");
+        String[] keys = new String[parts.length];
+        boolean[] arrays = new boolean[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            arrays[i] = parts[i].endsWith("[*]");
+            keys[i] = arrays[i] ? parts[i].substring(0, parts[i].length() - 3) : parts[i];
+        }
+        return new TargetPath(path, keys, arrays);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int depth() {
+        return keys.length;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public boolean isArray(int index) {
+        return arrays[index];
+    }
+
+    /**
+     * 将值写入结果对象
+     * <p>
+     * 路径上已有的值不是对象或数组时，本次写入被忽略。
+     *
+     * @param result 结果对象
+     * @param value  要写入的值
+     */
+    public void write(JSONObject result, Object value) {
+        Object current = result;
+        int last = keys.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (current instanceof JSONObject) {
+                current = child((JSONObject) current, keys[i], arrays[i]);
+            } else if (current instanceof JSONArray) {
+                current = firstObject((JSONArray) current);
+            } else {
+                return;
+            }
+        }
+        if (current instanceof JSONObject) {
+            ((JSONObject) current).put(keys[last], arrays[last] ? wrap(value) : value);
+        }
+    }
+
+    private static Object child(JSONObject obj, String key, boolean isArray) {
+        if (!obj.containsKey(key)) {
+            if (!isArray) {
+                JSONObject next = new JSONObject();
+                obj.put(key, next);
+                return next;
+            }
+            JSONArray arr = new JSONArray(1);
+            obj.put(key, arr);
+            return firstObject(arr);
+        }
+
+        Object next = obj.get(key);
+        if (!isArray) {
+            return next;
+        }
+        // 类型兼容：如果是List但不是JSONArray，转为JSONArray
+        if (next instanceof List && !(next instanceof JSONArray)) {
+            JSONArray arr = new JSONArray((List<Object>) new ArrayList<Object>((List<?>) next));
+            obj.put(key, arr);
+            next = arr;
+        }
+        return next instanceof JSONArray ? firstObject((JSONArray) next) : null;
+    }
+
+    /**
+     * 获取数组的第一个对象元素，数组为空时追加一个，第一个元素不是对象时替换为对象
+     */
+    private static JSONObject firstObject(JSONArray arr) {
+        if (arr.isEmpty()) {
+            JSONObject child = new JSONObject();
+            arr.add(child);
+            return child;
+        }
+        Object first = arr.get(0);
+        if (first instanceof JSONObject) {
+            return (JSONObject) first;
+        }
+        JSONObject child = new JSONObject();
+        arr.set(0, child);
+        return child;
+    }
+
+    static JSONArray wrap(Object value) {
+        JSONArray arr = new JSONArray(1);
+        arr.add(value);
+        return arr;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,244 @@
+package com.aliang.registry.plan;
+
+import com.aliang.logger.*;
+import com.aliang.registry.path.*;
+import com.aliang.rule.processor.*;
+import com.aliang.rule.strategy.*;
+import com.alibaba.fastjson.*;
+import org.slf4j.*;
+
+import java.util.*;
+
+/**
+ * 编译后的字段映射
+ * <p>
+ * 由 {@link MappingPlanCompiler} 根据单条映射配置生成，持有预编译的源路径（简单路径直接按层取值）、预编译的目标路径、
+ * 已创建的处理器与聚合策略实例，以及预先确定的阶段顺序（先聚合还是先处理）。
+ * 处理器按 {@link ProcessorChain} 融合执行，数组字段只遍历一次。
+ * <p>
+ * 源路径为通配符数组、且先聚合的第一个策略是 {@link ReducibleAggregationStrategy} 时，字段可延迟求值：
+ * 遍历数组的同时累加，不生成中间集合，取第一个值时找到即停止。
+ * <p>
+ * 实例创建后不再修改，可被多个请求并发执行。
+ */
+public final class CompiledFieldMapping {
+    private static final Logger logger = LoggerFactory.getLogger(CompiledFieldMapping.class);
+
+    private final String sourcePath;
+    private final String targetPath;
+    private final SourcePath compiledSourcePath;
+    private final TargetPath compiledTargetPath;
+    private final String[] processorNames;
+    private final ValueProcessor[] processors;
+    private final ProcessorChain processorChain;
+    private final String[] strategyNames;
+    private final AggregationStrategy[] strategies;
+    private final boolean aggregateFirst;
+    private final ReducibleAggregationStrategy reducible;
+    private final int cost;
+
+    CompiledFieldMapping(String sourcePath, String targetPath, SourcePath compiledSourcePath, TargetPath compiledTargetPath,
+                         String[] processorNames, ValueProcessor[] processors, boolean[] elementWise,
+                         String[] strategyNames, AggregationStrategy[] strategies, boolean aggregateFirst, int cost) {
+        this.sourcePath = sourcePath;
+        this.targetPath = targetPath;
+        this.compiledSourcePath = compiledSourcePath;
+        this.compiledTargetPath = compiledTargetPath;
+        this.processorNames = processorNames;
+        this.processors = processors;
+        this.processorChain = new ProcessorChain(processors, elementWise);
+        this.strategyNames = strategyNames;
+        this.strategies = strategies;
+        this.aggregateFirst = aggregateFirst;
+        this.reducible = aggregateFirst && compiledSourcePath.isStreamable() && strategies.length > 0
+                && strategies[0] instanceof ReducibleAggregationStrategy ? (ReducibleAggregationStrategy) strategies[0] : null;
+        this.cost = estimateCost(cost);
+    }
+
+    /**
+     * 估算单个字段的执行成本：1 加上处理器与聚合策略声明的相对成本；
+     * 非简单源路径（通配符、过滤等）通常得到数组，成本乘以4
+     */
+    private int estimateCost(int declaredCost) {
+        int base = 1 + declaredCost;
+        return compiledSourcePath.isSimple() ? base : base * 4;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    public boolean isAggregateFirst() {
+        return aggregateFirst;
+    }
+
+    /**
+     * 源路径是否可以延迟求值，在遍历时直接完成第一个聚合策略
+     */
+    boolean isDeferrable() {
+        return reducible != null;
+    }
+
+    /**
+     * 创建第一个聚合策略的累加器，只对 {@link #isDeferrable()} 的字段有效
+     */
+    ReducibleAggregationStrategy.Accumulator newAccumulator() {
+        return reducible.newAccumulator();
+    }
+
+    int getCost() {
+        return cost;
+    }
+
+    SourcePath getCompiledSourcePath() {
+        return compiledSourcePath;
+    }
+
+    TargetPath getCompiledTargetPath() {
+        return compiledTargetPath;
+    }
+
+    /**
+     * 取出前缀树求得的字段值，求值失败时抛出异常
+     */
+    Object resolved(Object value) {
+        if (value instanceof SourcePathTrie.Failure) {
+            throw sourcePathFailed(((SourcePathTrie.Failure) value).getCause());
+        }
+        return value;
+    }
+
+    private RuntimeException sourcePathFailed(Exception e) {
+        logger.error("解析源路径失败 - path: {}, 错误: {}", sourcePath, e.getMessage());
+        return new RuntimeException("解析源路径失败", e);
+    }
+
+    /**
+     * 按预先确定的阶段顺序执行聚合策略与处理器链
+     */
+    Object transform(Object value) {
+        if (value instanceof SourcePathTrie.Deferred) {
+            return applyProcessors(reduce((SourcePathTrie.Deferred) value));
+        }
+        if (value instanceof Reduced) {
+            Reduced reduced = (Reduced) value;
+            return applyProcessors(afterReduce(reduced.deferred, reduced.result));
+        }
+        if (aggregateFirst) {
+            value = applyAggregationStrategies(value);
+        }
+        value = applyProcessors(value);
+        if (!aggregateFirst) {
+            value = applyAggregationStrategies(value);
+        }
+        return value;
+    }
+
+    private Object applyProcessors(Object value) {
+        if (processors.length == 0) {
+            return value;
+        }
+        try {
+            return processorChain.apply(value);
+        } catch (Exception e) {
+            logger.error("处理器执行失败 - processors: {}, value: {}, 错误: {}", Arrays.toString(processorNames), value, e.getMessage());
+            throw new RuntimeException("处理器执行失败", e);
+        }
+    }
+
+    /**
+     * 遍历延迟求值的数组时直接累加第一个聚合策略，再执行其余策略；
+     * 无法逐个访问或累加出错时，计算完整数组后按原有方式聚合
+     */
+    private Object reduce(SourcePathTrie.Deferred deferred) {
+        ReducibleAggregationStrategy.Accumulator accumulator = reducible.newAccumulator();
+        boolean visited;
+        try {
+            visited = deferred.visit(accumulator::accept);
+        } catch (Exception e) {
+            visited = false;
+        }
+        if (!visited) {
+            Object value;
+            try {
+                value = deferred.materialize();
+            } catch (Exception e) {
+                throw sourcePathFailed(e);
+            }
+            return applyAggregationStrategies(value, 0);
+        }
+
+        return afterReduce(deferred, accumulator.result());
+    }
+
+    /**
+     * 第一个聚合策略已累加完成，执行其余策略
+     */
+    private Object afterReduce(SourcePathTrie.Deferred deferred, Object result) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("聚合策略执行成功 - strategy: {}, input: {}, output: {}", strategyNames[0], deferred, result);
+        }
+        return applyAggregationStrategies(result, 1);
+    }
+
+    private Object applyAggregationStrategies(Object value) {
+        return applyAggregationStrategies(value, 0);
+    }
+
+    private Object applyAggregationStrategies(Object value, int from) {
+        if (value == null || strategies.length == 0) {
+            return value;
+        }
+
+        Object result = value;
+        for (int i = from; i < strategies.length; i++) {
+            if (!(result instanceof List)) {
+                continue;
+            }
+            try {
+                result = strategies[i].apply((List<?>) result);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("聚合策略执行成功 - strategy: {}, input: {}, output: {}", strategyNames[i], value, result);
+                }
+            } catch (Exception e) {
+                long suppressed = ErrorLogThrottle.shared().acquire(strategyNames[i]);
+                if (suppressed >= 0) {
+                    logger.error("聚合策略执行失败 - strategy: {}, input: {}, error: {}", strategyNames[i], value, e.getMessage());
+                }
+                if (suppressed > 0) {
+                    logger.error("聚合策略执行失败日志已限流 - strategy: {}, 丢弃条数: {}", strategyNames[i], suppressed);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 已在共享遍历中累加完成的第一个聚合策略结果
+     */
+    static final class Reduced {
+        private final SourcePathTrie.Deferred deferred;
+        private final Object result;
+
+        Reduced(SourcePathTrie.Deferred deferred, Object result) {
+            this.deferred = deferred;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 将值写入结果对象的目标路径
+     */
+    void write(JSONObject result, Object value) {
+        try {
+            compiledTargetPath.write(result, value);
+        } catch (Exception e) {
+            logger.error("设置目标路径失败 - path: {}, 错误: {}", targetPath, e.getMessage());
+            throw new RuntimeException("设置目标路径失败 ", e);
+        }
+    }
+}
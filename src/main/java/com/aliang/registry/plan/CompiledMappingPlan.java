@@ -0,0 +1,213 @@
+package com.aliang.registry.plan;
+
+import com.aliang.registry.path.*;
+import com.alibaba.fastjson.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 编译后的映射计划
+ * <p>
+ * 一个产品编码在某个规则版本下的全部字段映射，由 {@link MappingPlanCompiler} 一次性生成。
+ * 执行时直接使用计划中已解析好的路径、处理器和聚合策略，不再逐次解释原始 JSON 配置。
+ * <p>
+ * 所有字段的源路径合并为一棵 {@link SourcePathTrie}，每个源文档只遍历一次，
+ * 可归约聚合的通配符字段延迟到处理该字段时边遍历边聚合，多个字段共用同一数组时按 {@link SharedScan} 只遍历一次；
+ * 目标路径预先构建为 {@link OutputSkeleton}，处理完全部字段后一次性生成结果对象。
+ * 字段之间互不依赖，超宽规则可按 {@link FieldParallelism} 分块并行处理。
+ * <p>
+ * 计划本身不可变，可被缓存并在多个线程间共享。
+ */
+public final class CompiledMappingPlan {
+    private final String code;
+    private final long version;
+    private final long registryGeneration;
+    private final List<CompiledFieldMapping> fields;
+    private final SourcePathTrie sourcePaths;
+    private final SharedScan[] sharedScans;
+    private final OutputSkeleton skeleton;
+    private final long cost;
+
+    CompiledMappingPlan(String code, long version, long registryGeneration, List<CompiledFieldMapping> fields) {
+        this.code = code;
+        this.version = version;
+        this.registryGeneration = registryGeneration;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        List<SourcePath> sources = new ArrayList<>(fields.size());
+        List<TargetPath> targets = new ArrayList<>(fields.size());
+        boolean[] deferred = new boolean[this.fields.size()];
+        for (int i = 0; i < this.fields.size(); i++) {
+            CompiledFieldMapping field = this.fields.get(i);
+            sources.add(field.getCompiledSourcePath());
+            targets.add(field.getCompiledTargetPath());
+            deferred[i] = field.isDeferrable();
+        }
+        this.sourcePaths = new SourcePathTrie(sources, deferred);
+        this.sharedScans = SharedScan.group(this.fields);
+        this.skeleton = OutputSkeleton.build(targets);
+        long total = 0;
+        for (CompiledFieldMapping field : this.fields) {
+            total += field.getCost();
+        }
+        this.cost = total;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 编译时处理器注册表的代数，见 {@link com.aliang.registry.factory.ProcessorRegistry#getGeneration()}
+     */
+    public long getRegistryGeneration() {
+        return registryGeneration;
+    }
+
+    public List<CompiledFieldMapping> getFields() {
+        return fields;
+    }
+
+    /**
+     * 全部字段的估算执行成本
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    /**
+     * 对单个源文档执行映射
+     *
+     * @param source 源数据
+     * @return 映射结果
+     */
+    public JSONObject execute(JSONObject source) {
+        Object[] values = resolve(source);
+        for (int i = 0; i < values.length; i++) {
+            transform(i, values);
+        }
+        return write(values);
+    }
+
+    /**
+     * 对单个源文档执行映射，字段数或成本超过阈值时分块并行处理字段
+     * <p>
+     * 结果与串行执行一致；多个字段失败时抛出字段顺序最靠前的异常。
+     *
+     * @param source      源数据
+     * @param parallelism 字段级并行配置，为null时串行执行
+     * @return 映射结果
+     */
+    public JSONObject execute(JSONObject source, FieldParallelism parallelism) {
+        if (parallelism == null || !parallelism.accepts(fields.size(), cost)) {
+            return execute(source);
+        }
+
+        Object[] values = resolve(source);
+        int[] bounds = chunkBounds(parallelism.getParallelism() * 2);
+        int chunks = bounds.length - 1;
+        RuntimeException[] failures = new RuntimeException[chunks];
+        int[] failedFields = new int[chunks];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks - 1];
+        for (int c = 0; c < chunks - 1; c++) {
+            int chunk = c;
+            futures[c] = CompletableFuture.runAsync(
+                    () -> transformChunk(values, bounds[chunk], bounds[chunk + 1], chunk, failures, failedFields),
+                    parallelism.getExecutor());
+        }
+        /*  最后一个分块由调用线程执行 */
+        transformChunk(values, bounds[chunks - 1], bounds[chunks], chunks - 1, failures, failedFields);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("字段并行处理失败", cause);
+        }
+
+        RuntimeException first = null;
+        int firstField = Integer.MAX_VALUE;
+        for (int c = 0; c < chunks; c++) {
+            if (failures[c] != null && failedFields[c] < firstField) {
+                first = failures[c];
+                firstField = failedFields[c];
+            }
+        }
+        if (first != null) {
+            throw first;
+        }
+        return write(values);
+    }
+
+    /**
+     * 计算全部字段的源路径，共用同一数组的聚合字段在此一次遍历完成
+     */
+    private Object[] resolve(JSONObject source) {
+        Object[] values = sourcePaths.resolve(source);
+        for (SharedScan scan : sharedScans) {
+            scan.reduce(values, fields);
+        }
+        return values;
+    }
+
+    private void transform(int index, Object[] values) {
+        CompiledFieldMapping field = fields.get(index);
+        values[index] = field.transform(field.resolved(values[index]));
+    }
+
+    private void transformChunk(Object[] values, int from, int to, int chunk,
+                                RuntimeException[] failures, int[] failedFields) {
+        for (int i = from; i < to; i++) {
+            try {
+                transform(i, values);
+            } catch (RuntimeException e) {
+                failures[chunk] = e;
+                failedFields[chunk] = i;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按估算成本将字段切分为连续的分块
+     *
+     * @param maxChunks 最多分块数
+     * @return 分块边界，第 c 个分块为 [bounds[c], bounds[c + 1])
+     */
+    private int[] chunkBounds(int maxChunks) {
+        int chunks = Math.max(1, Math.min(maxChunks, fields.size()));
+        int[] bounds = new int[chunks + 1];
+        long target = (cost + chunks - 1) / chunks;
+        long accumulated = 0;
+        int chunk = 1;
+        for (int i = 0; i < fields.size() && chunk < chunks; i++) {
+            accumulated += fields.get(i).getCost();
+            if (accumulated >= target * chunk) {
+                bounds[chunk++] = i + 1;
+            }
+        }
+        while (chunk <= chunks) {
+            bounds[chunk++] = fields.size();
+        }
+        return bounds;
+    }
+
+    private JSONObject write(Object[] values) {
+        if (skeleton != null) {
+            return skeleton.create(values);
+        }
+
+        /*  目标路径存在冲突，按字段顺序逐个写入 */
+        JSONObject result = new JSONObject();
+        for (int i = 0; i < values.length; i++) {
+            fields.get(i).write(result, values[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package com.aliang.registry.plan;
+
+import java.util.concurrent.*;
+
+/**
+ * 字段级并行配置
+ * <p>
+ * 单个文档的字段数或估算成本超过阈值时，{@link CompiledMappingPlan} 将字段按成本切分为若干分块，
+ * 在线程池中并行执行处理器与聚合策略，再统一写入结果对象。用于超宽规则下单个大文档的延迟优化。
+ */
+public final class FieldParallelism {
+    private final Executor executor;
+    private final int parallelism;
+    private final int minFields;
+    private final int minCost;
+
+    /**
+     * 构造函数
+     *
+     * @param executor    执行字段分块的线程池
+     * @param parallelism 线程池的并行度
+     * @param minFields   启用并行的最小字段数
+     * @param minCost     启用并行的最小估算成本，字段数或成本任一达到阈值即并行
+     */
+    public FieldParallelism(Executor executor, int parallelism, int minFields, int minCost) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.minFields = minFields;
+        this.minCost = minCost;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    boolean accepts(int fieldCount, long cost) {
+        return parallelism > 1 && fieldCount > 1
+                && ((minFields > 0 && fieldCount >= minFields) || (minCost > 0 && cost >= minCost));
+    }
+}
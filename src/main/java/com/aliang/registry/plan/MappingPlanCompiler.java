@@ -0,0 +1,146 @@
+package com.aliang.registry.plan;
+
+import com.aliang.registry.factory.*;
+import com.aliang.registry.path.*;
+import com.aliang.rule.processor.*;
+import com.aliang.rule.strategy.*;
+import com.alibaba.fastjson.*;
+import org.slf4j.*;
+
+import java.util.*;
+
+/**
+ * 映射计划编译器
+ * <p>
+ * 将注册中心中某个产品编码的原始映射配置（{@code Map<targetPath, JSONObject>}）编译为
+ * 不可变的 {@link CompiledMappingPlan}：
+ * 1. 预编译源路径（简单路径编译为直接访问器，其余使用 JSONPath），预编译目标路径并构建输出骨架
+ * 2. 解析处理器与聚合策略配置，处理器按规格取共享实例，聚合策略创建新实例
+ * 3. 根据 {@link ProcessorRegistry} 中的元数据预先确定聚合与处理器的执行顺序、可按元素融合的处理器和字段成本
+ * <p>
+ * 编译结果不再引用原始 JSON 配置对象。
+ */
+public class MappingPlanCompiler {
+    private static final Logger logger = LoggerFactory.getLogger(MappingPlanCompiler.class);
+
+    private final ProcessorFactory processorFactory;
+
+    public MappingPlanCompiler(ProcessorFactory processorFactory) {
+        this.processorFactory = processorFactory;
+    }
+
+    /**
+     * 编译映射计划
+     *
+     * @param code     产品编码
+     * @param version  规则版本
+     * @param mappings 目标路径到映射配置的映射
+     * @return 编译后的映射计划
+     */
+    public CompiledMappingPlan compile(String code, long version, Map<String, JSONObject> mappings) {
+        /*  先读取代数：编译期间注册的定义会使该计划在下次获取时重新编译 */
+        long generation = getRegistryGeneration();
+        List<CompiledFieldMapping> fields = new ArrayList<>(mappings.size());
+        for (Map.Entry<String, JSONObject> entry : mappings.entrySet()) {
+            fields.add(compileField(entry.getKey(), entry.getValue()));
+        }
+        logger.debug("映射计划编译完成 - code: {}, version: {}, 字段数: {}", code, version, fields.size());
+        return new CompiledMappingPlan(code, version, generation, fields);
+    }
+
+    /**
+     * 当前处理器注册表的代数，与计划记录的代数不一致时计划已过期
+     */
+    public long getRegistryGeneration() {
+        return processorFactory.getRegistry().getGeneration();
+    }
+
+    private CompiledFieldMapping compileField(String targetPath, JSONObject mapping) {
+        String sourcePath = mapping.getString("sourcePath");
+        SourcePath compiledSourcePath;
+        try {
+            compiledSourcePath = SourcePath.compile(sourcePath);
+        } catch (Exception e) {
+            logger.error("解析源路径失败 - path: {}, 错误: {}", sourcePath, e.getMessage());
+            throw new RuntimeException("解析源路径失败", e);
+        }
+
+        TargetPath compiledTargetPath = TargetPath.compile(targetPath);
+
+        JSONArray processorSpecs = mapping.getJSONArray("processors");
+        int processorCount = processorSpecs != null ? processorSpecs.size() : 0;
+        String[] processorNames = new String[processorCount];
+        ValueProcessor[] processors = new ValueProcessor[processorCount];
+        boolean[] elementWise = new boolean[processorCount];
+        int cost = 0;
+        for (int i = 0; i < processorCount; i++) {
+            String[] parts = processorSpecs.getString(i).split(":", 2);
+            String processorName = parts[0].toLowerCase();
+            String params = parts.length > 1 ? parts[1] : null;
+
+            ValueProcessor processor = processorFactory.getProcessor(processorName, params);
+            if (processor == null) {
+                logger.error("创建处理器失败 - processor: {}, params: {}", processorName, params);
+                throw new IllegalArgumentException("创建处理器失败: " + processorName);
+            }
+            ProcessorDefinition definition = processorFactory.getRegistry().getProcessor(processorName);
+            processorNames[i] = processorName;
+            processors[i] = processor;
+            elementWise[i] = definition == null || definition.isElementWise();
+            cost += definition != null ? definition.getCost() : 1;
+        }
+
+        JSONArray strategySpecs = mapping.getJSONArray("aggregationStrategies");
+        List<String> strategyNames = new ArrayList<>();
+        List<AggregationStrategy> strategies = new ArrayList<>();
+        if (strategySpecs != null) {
+            for (int i = 0; i < strategySpecs.size(); i++) {
+                String[] parts = strategySpecs.getString(i).split(":", 2);
+                String strategyName = parts[0];
+                String params = parts.length > 1 ? parts[1] : null;
+
+                AggregationStrategy strategy = createAggregationStrategy(strategyName, params);
+                if (strategy != null) {
+                    strategyNames.add(strategyName);
+                    strategies.add(strategy);
+                    cost += processorFactory.getRegistry().getAggregation(strategyName).getCost();
+                }
+            }
+        }
+
+        return new CompiledFieldMapping(sourcePath, targetPath, compiledSourcePath, compiledTargetPath,
+                processorNames, processors, elementWise,
+                strategyNames.toArray(new String[0]), strategies.toArray(new AggregationStrategy[0]),
+                shouldAggregateFirst(strategySpecs), cost);
+    }
+
+    private AggregationStrategy createAggregationStrategy(String strategyName, String params) {
+        AggregationDefinition definition = processorFactory.getRegistry().getAggregation(strategyName);
+        if (definition == null) {
+            logger.error("未知的聚合策略类型: {}", strategyName);
+            return null;
+        }
+        return definition.create(StrategyParams.parse(params));
+    }
+
+    /**
+     * 任一聚合策略声明需要处理后的元素（join、concat）时先执行处理器，否则先聚合
+     */
+    private boolean shouldAggregateFirst(JSONArray aggregations) {
+        if (aggregations == null || aggregations.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < aggregations.size(); i++) {
+            String spec = aggregations.getString(i);
+            if (spec == null || spec.isEmpty()) {
+                continue;
+            }
+            String strategyName = spec.split(":", 2)[0].trim();
+            AggregationDefinition definition = processorFactory.getRegistry().getAggregation(strategyName);
+            if (definition != null && definition.isProcessorsFirst()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+package com.aliang.registry.plan;
+
+import com.aliang.registry.path.*;
+import com.aliang.rule.strategy.*;
+
+import java.util.*;
+
+/**
+ * 共享源路径的聚合遍历
+ * <p>
+ * 多个字段使用同一条通配符源路径、且都可以边遍历边聚合时（如对同一数组分别求和、计数、取第一个值、求平均），
+ * 编译计划时将这些字段分为一组，执行时数组只遍历一次，每个值依次交给各字段的累加器，
+ * 全部累加器的结果都已确定时提前结束遍历。各字段再在自己的结果上执行其余聚合策略和处理器。
+ * <p>
+ * 实例不可变，可在多个线程间共享。
+ */
+final class SharedScan {
+    private final int[] fieldIndexes;
+
+    private SharedScan(int[] fieldIndexes) {
+        this.fieldIndexes = fieldIndexes;
+    }
+
+    /**
+     * 按源路径对可延迟求值的字段分组，只保留包含两个及以上字段的分组
+     *
+     * @param fields 字段映射
+     * @return 共享遍历的分组
+     */
+    static SharedScan[] group(List<CompiledFieldMapping> fields) {
+        Map<String, List<Integer>> byPath = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            CompiledFieldMapping field = fields.get(i);
+            if (field.isDeferrable()) {
+                byPath.computeIfAbsent(field.getCompiledSourcePath().getPath(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<SharedScan> scans = new ArrayList<>();
+        for (List<Integer> indexes : byPath.values()) {
+            if (indexes.size() < 2) {
+                continue;
+            }
+            int[] fieldIndexes = new int[indexes.size()];
+            for (int i = 0; i < fieldIndexes.length; i++) {
+                fieldIndexes[i] = indexes.get(i);
+            }
+            scans.add(new SharedScan(fieldIndexes));
+        }
+        return scans.toArray(new SharedScan[0]);
+    }
+
+    /**
+     * 遍历一次数组，同时累加组内全部字段的第一个聚合策略，结果替换各字段的延迟值
+     * <p>
+     * 某个字段累加出错时该字段保持延迟值，由字段自行按原有方式聚合；数组无法逐个访问时全部字段保持不变。
+     *
+     * @param values 前缀树求得的字段值，按字段顺序排列
+     * @param fields 字段映射
+     */
+    void reduce(Object[] values, List<CompiledFieldMapping> fields) {
+        Object value = values[fieldIndexes[0]];
+        if (!(value instanceof SourcePathTrie.Deferred)) {
+            return;
+        }
+        SourcePathTrie.Deferred deferred = (SourcePathTrie.Deferred) value;
+        Combined combined = new Combined(fieldIndexes.length);
+        for (int k = 0; k < fieldIndexes.length; k++) {
+            combined.accumulators[k] = fields.get(fieldIndexes[k]).newAccumulator();
+        }
+        if (!deferred.visit(combined::accept)) {
+            return;
+        }
+        for (int k = 0; k < fieldIndexes.length; k++) {
+            int index = fieldIndexes[k];
+            if (!combined.failed[k] && values[index] instanceof SourcePathTrie.Deferred) {
+                values[index] = new CompiledFieldMapping.Reduced(deferred, combined.accumulators[k].result());
+            }
+        }
+    }
+
+    /**
+     * 组合累加器：每个值交给仍需要后续值的各个累加器
+     */
+    private static final class Combined {
+        private final ReducibleAggregationStrategy.Accumulator[] accumulators;
+        private final boolean[] finished;
+        private final boolean[] failed;
+        private int remaining;
+
+        Combined(int size) {
+            this.accumulators = new ReducibleAggregationStrategy.Accumulator[size];
+            this.finished = new boolean[size];
+            this.failed = new boolean[size];
+            this.remaining = size;
+        }
+
+        boolean accept(Object value) {
+            for (int k = 0; k < accumulators.length; k++) {
+                if (finished[k]) {
+                    continue;
+                }
+                try {
+                    if (accumulators[k].accept(value)) {
+                        continue;
+                    }
+                } catch (Exception e) {
+                    failed[k] = true;
+                }
+                finished[k] = true;
+                remaining--;
+            }
+            return remaining > 0;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.aliang.rule.processor;
 
 import com.aliang.utils.*;
 
+import java.util.*;
+
 /**
  * 处理器抽象基类
  * 提供通用的处理逻辑和日志记录功能
@@ -28,6 +30,22 @@ public abstract class AbstractProcessor implements ValueProcessor {
         }
     }
 
+    /**
+     * 批量处理数组元素：每个元素调用 {@link #processValue}，任一元素抛出异常时全部元素保持原值，
+     * 与 doProcess 处理列表的语义相同
+     */
+    @Override
+    public void processAll(Object[] in, Object[] out, int n) {
+        try {
+            for (int i = 0; i < n; i++) {
+                out[i] = processValue(in[i]);
+            }
+        } catch (Exception e) {
+            ProcessorUtils.logProcessResult(processorName, Arrays.asList(in).subList(0, n), null, e.getMessage());
+            System.arraycopy(in, 0, out, 0, n);
+        }
+    }
+
     /**
      * 处理单个值
      * 子类必须实现这个方法来提供具体的处理逻辑
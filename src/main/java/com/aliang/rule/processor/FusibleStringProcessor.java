@@ -0,0 +1,21 @@
+package com.aliang.rule.processor;
+
+/**
+ * 可融合的字符串处理器
+ * <p>
+ * 处理逻辑可以直接作用在 StringBuilder 上的字符串处理器（trim、大小写转换、前后缀等）。
+ * {@link ProcessorChain} 会把相邻的此类处理器合并为一次处理：输入值只转换一次字符串，
+ * 各处理器依次修改同一个 StringBuilder，最后只生成一个结果字符串。
+ * <p>
+ * 实现类必须保证：对任意非null输入，先写入 {@code value.toString()} 再调用 {@link #applyTo} 得到的结果，
+ * 与单独执行该处理器得到的结果完全一致。
+ */
+public interface FusibleStringProcessor {
+
+    /**
+     * 在字符串缓冲区上原地执行处理
+     *
+     * @param builder 当前值
+     */
+    void applyTo(StringBuilder builder);
+}
@@ -0,0 +1,273 @@
+package com.aliang.rule.processor;
+
+import com.aliang.utils.*;
+
+import java.util.*;
+
+/**
+ * 处理器链
+ * <p>
+ * 将字段上配置的多个处理器融合为一次执行，结果与依次调用每个处理器的 {@link ValueProcessor#doProcess} 完全一致：
+ * 1. 数组转换为对象数组后由每个处理器批量处理（{@link ValueProcessor#processAll}），不再为每个处理器重建一次集合；
+ *    对象只遍历一次，每个值直接执行整条处理器链
+ * 2. 相邻的 {@link FusibleStringProcessor} 共用一个 StringBuilder，中间不生成字符串
+ * 3. 某个处理器处理集合元素时抛出异常，按原有语义该处理器对整个集合不生效，此时退回逐个处理器执行
+ * <p>
+ * 不是 {@link AbstractProcessor} 子类、或声明为整体处理集合的处理器无法按元素拆分，作为分界点整体调用 doProcess。
+ * <p>
+ * 实例创建后不再修改，可被多个请求并发执行。
+ */
+public final class ProcessorChain {
+    /**
+     * 融合执行失败的标记，表示需要退回逐个处理器执行
+     */
+    private static final Object FALLBACK = new Object();
+
+    /**
+     * 依次执行的分段，元素为 {@link Group} 或无法融合的 {@link ValueProcessor}
+     */
+    private final Object[] segments;
+
+    public ProcessorChain(ValueProcessor[] processors) {
+        this(processors, null);
+    }
+
+    /**
+     * @param processors  处理器
+     * @param elementWise 每个处理器是否按元素处理集合，为null时所有 {@link AbstractProcessor} 都按元素处理
+     */
+    public ProcessorChain(ValueProcessor[] processors, boolean[] elementWise) {
+        List<Object> segments = new ArrayList<>();
+        List<AbstractProcessor> group = new ArrayList<>();
+        for (int i = 0; i < processors.length; i++) {
+            ValueProcessor processor = processors[i];
+            if (processor instanceof AbstractProcessor && (elementWise == null || elementWise[i])) {
+                group.add((AbstractProcessor) processor);
+                continue;
+            }
+            if (!group.isEmpty()) {
+                segments.add(new Group(group.toArray(new AbstractProcessor[0])));
+                group.clear();
+            }
+            segments.add(processor);
+        }
+        if (!group.isEmpty()) {
+            segments.add(new Group(group.toArray(new AbstractProcessor[0])));
+        }
+        this.segments = segments.toArray();
+    }
+
+    /**
+     * 执行处理器链
+     *
+     * @param value 输入值
+     * @return 处理后的值
+     */
+    public Object apply(Object value) {
+        Object result = value;
+        for (Object segment : segments) {
+            if (segment instanceof Group) {
+                result = ((Group) segment).apply(result);
+            } else {
+                result = ((ValueProcessor) segment).doProcess(result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 连续的 {@link AbstractProcessor}，可以按元素融合执行
+     */
+    private static final class Group {
+        private final AbstractProcessor[] processors;
+        private final Step[] steps;
+
+        Group(AbstractProcessor[] processors) {
+            this.processors = processors;
+            List<Step> steps = new ArrayList<>();
+            int start = 0;
+            while (start < processors.length) {
+                int end = start;
+                while (end < processors.length && processors[end] instanceof FusibleStringProcessor) {
+                    end++;
+                }
+                if (end - start >= 2) {
+                    FusibleStringProcessor[] fused = new FusibleStringProcessor[end - start];
+                    for (int i = start; i < end; i++) {
+                        fused[i - start] = (FusibleStringProcessor) processors[i];
+                    }
+                    steps.add(new Step(start, end, fused));
+                    start = end;
+                } else {
+                    steps.add(new Step(start, start + 1, null));
+                    start++;
+                }
+            }
+            this.steps = steps.toArray(new Step[0]);
+        }
+
+        Object apply(Object value) {
+            if (value == null) {
+                return null;
+            }
+            Object result;
+            if (value instanceof List<?>) {
+                result = applyToList((List<?>) value);
+            } else if (value instanceof Map<?, ?>) {
+                result = applyToMap((Map<?, ?>) value);
+            } else {
+                return applyToScalar(value);
+            }
+            return result != FALLBACK ? result : applyStepwise(value, 0);
+        }
+
+        /**
+         * 逐个处理器执行，语义与原有实现相同
+         */
+        private Object applyStepwise(Object value, int from) {
+            Object result = value;
+            for (int i = from; i < processors.length; i++) {
+                result = processors[i].doProcess(result);
+            }
+            return result;
+        }
+
+        /**
+         * 数组：每个步骤通过 {@link ValueProcessor#processAll} 批量处理全部元素，语义与逐个处理器执行相同；
+         * 可融合的步骤在元素都不为null时按元素一次完成
+         */
+        private Object applyToList(List<?> list) {
+            int n = list.size();
+            Object[] values = list.toArray();
+            Object[] buffer = new Object[n];
+            StringBuilder builder = null;
+            for (Step step : steps) {
+                if (step.fused != null && !containsNull(values, n)) {
+                    if (builder == null) {
+                        builder = new StringBuilder();
+                    }
+                    if (step.applyFusedAll(values, buffer, n, builder)) {
+                        Object[] swap = values;
+                        values = buffer;
+                        buffer = swap;
+                        continue;
+                    }
+                }
+                for (int i = step.start; i < step.end; i++) {
+                    processors[i].processAll(values, buffer, n);
+                    Object[] swap = values;
+                    values = buffer;
+                    buffer = swap;
+                }
+            }
+            return new ArrayList<>(Arrays.asList(values));
+        }
+
+        private static boolean containsNull(Object[] values, int n) {
+            for (int i = 0; i < n; i++) {
+                if (values[i] == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Object applyToMap(Map<?, ?> map) {
+            Map<Object, Object> result = new HashMap<>();
+            StringBuilder builder = new StringBuilder();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                try {
+                    result.put(entry.getKey(), applyToElement(entry.getValue(), builder));
+                } catch (Exception e) {
+                    return FALLBACK;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 集合元素：每个处理器直接处理元素（与 processCollection 相同，null元素也交给处理器）
+         */
+        private Object applyToElement(Object item, StringBuilder builder) {
+            Object result = item;
+            for (Step step : steps) {
+                if (step.fused != null && result != null) {
+                    result = step.applyFused(result, builder);
+                } else {
+                    for (int i = step.start; i < step.end; i++) {
+                        result = processors[i].processValue(result);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 单个值：每个处理器的异常只影响自身，null值和中途产生的集合按 doProcess 的语义处理
+         */
+        private Object applyToScalar(Object value) {
+            Object result = value;
+            StringBuilder builder = null;
+            for (Step step : steps) {
+                if (step.fused != null) {
+                    if (builder == null) {
+                        builder = new StringBuilder();
+                    }
+                    result = step.applyFused(result, builder);
+                    continue;
+                }
+                AbstractProcessor processor = processors[step.start];
+                try {
+                    result = processor.processValue(result);
+                } catch (Exception e) {
+                    ProcessorUtils.logProcessResult(processor.processorName, result, null, e.getMessage());
+                }
+                if (result == null) {
+                    return null;
+                }
+                if (result instanceof List<?> || result instanceof Map<?, ?>) {
+                    return applyStepwise(result, step.end);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 执行步骤：单个处理器，或相邻的可融合字符串处理器 [start, end)
+     */
+    private static final class Step {
+        private final int start;
+        private final int end;
+        private final FusibleStringProcessor[] fused;
+
+        Step(int start, int end, FusibleStringProcessor[] fused) {
+            this.start = start;
+            this.end = end;
+            this.fused = fused;
+        }
+
+        /**
+         * 按元素执行融合步骤，元素转换为字符串失败时返回false，由调用方逐个处理器执行
+         */
+        boolean applyFusedAll(Object[] in, Object[] out, int n, StringBuilder builder) {
+            try {
+                for (int i = 0; i < n; i++) {
+                    out[i] = applyFused(in[i], builder);
+                }
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        String applyFused(Object value, StringBuilder builder) {
+            builder.setLength(0);
+            builder.append(value.toString());
+            for (FusibleStringProcessor processor : fused) {
+                processor.applyTo(builder);
+            }
+            return builder.toString();
+        }
+    }
+}
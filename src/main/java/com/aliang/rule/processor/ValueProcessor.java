@@ -14,4 +14,18 @@ public interface ValueProcessor {
      * @return 处理后的值
      */
     Object doProcess(Object value);
+
+    /**
+     * 批量处理数组元素，避免逐个元素经接口分派并重建集合
+     * 默认逐个元素调用 {@link #doProcess}；{@link AbstractProcessor} 的实现与 doProcess 处理整个列表的语义相同
+     *
+     * @param in  输入元素，不能与 out 是同一个数组
+     * @param out 输出元素
+     * @param n   元素个数
+     */
+    default void processAll(Object[] in, Object[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            out[i] = doProcess(in[i]);
+        }
+    }
 }
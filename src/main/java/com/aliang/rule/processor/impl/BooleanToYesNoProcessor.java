@@ -64,8 +64,7 @@ public class BooleanToYesNoProcessor extends AbstractProcessor {
         String[] values = config != null ? config.split(",") : new String[0];
         this.trueValue = values.length > 0 ? values[0] : "是";
         this.falseValue = values.length > 1 ? values[1] : "否";
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("true=%s, false=%s", trueValue, falseValue), null);
+        ProcessorUtils.logProcessorConfig(processorName, "true=%s, false=%s", trueValue, falseValue);
     }
 
     @Override
@@ -3,26 +3,116 @@ package com.aliang.rule.processor.impl;
 import com.aliang.rule.processor.*;
 import com.aliang.utils.*;
 
+import java.math.*;
 import java.text.*;
+import java.time.*;
+import java.time.format.*;
+import java.time.temporal.*;
 import java.util.*;
 
 /**
  * 日期格式化处理器
  * 将日期字符串按照指定格式进行转换
+ * <p>
+ * 配置格式：输入格式->输出格式，例如 yyyy-MM-dd->yyyyMMdd；只写一个格式时输入输出相同，默认 yyyy-MM-dd。
+ * <p>
+ * 支持的输入：
+ * 1. 符合输入格式的字符串，与 SimpleDateFormat 一样宽松解析（越界的月、日会顺延，忽略末尾多余字符）
+ * 2. ISO-8601 日期时间字符串，例如 2024-03-05T13:04:05Z、2024-03-05T13:04:05+08:00
+ * 3. 毫秒时间戳（整数），数值本身符合输入格式时（例如 yyyyMMdd 格式的 20240305）仍按输入格式解析
+ * 4. Date 以及 java.time 日期时间对象
+ * <p>
+ * 与 SimpleDateFormat 一致：解析时跳过开头的空格和制表符；4位及以上的年份（yyyy）超过4位时原样输出，不带正负号。
+ * <p>
+ * 基于不可变的 DateTimeFormatter 实现，格式化器按模式全局缓存，处理器实例可被并发共享。
+ * yyyy-MM-dd、yyyyMMdd、yyyy-MM-dd HH:mm:ss 三种定长格式直接按字符位置解析和输出，不经过通用解析器。
  */
 public class DateFormatProcessor extends AbstractProcessor {
-    private final SimpleDateFormat inputFormat;
-    private final SimpleDateFormat outputFormat;
+    private static final String DEFAULT_PATTERN = "yyyy-MM-dd";
+
+    /**
+     * 日期模式 -> 格式化器（宽松解析，与 SimpleDateFormat 的默认行为一致），最多缓存1024个模式
+     */
+    private static final BoundedCache<String, DateTimeFormatter> FORMATTERS = new BoundedCache<>(1024);
+
+    private final DateTimeFormatter inputFormatter;
+    private final DateTimeFormatter smartInputFormatter;
+    private final DateTimeFormatter outputFormatter;
+    private final FixedWidthPattern fixedInput;
+    private final FixedWidthPattern fixedOutput;
+    private final boolean acceptsIso;
+    private final ZoneId zone;
 
     public DateFormatProcessor(String config) {
         super("DateFormatProcessor");
-        String[] formats = config != null ? config.split("->") : new String[]{"yyyy-MM-dd", "yyyy-MM-dd"};
-        this.inputFormat = new SimpleDateFormat(formats[0].trim());
-        this.outputFormat = new SimpleDateFormat(formats.length > 1 ? formats[1].trim() : formats[0].trim());
+        String[] formats = config != null ? config.split("->") : new String[]{DEFAULT_PATTERN, DEFAULT_PATTERN};
+        String inputPattern = formats[0].trim();
+        String outputPattern = formats.length > 1 ? formats[1].trim() : inputPattern;
+        this.inputFormatter = formatter(inputPattern);
+        this.smartInputFormatter = inputFormatter.withResolverStyle(ResolverStyle.SMART);
+        this.outputFormatter = formatter(outputPattern);
+        this.fixedInput = FixedWidthPattern.of(inputPattern);
+        this.fixedOutput = FixedWidthPattern.of(outputPattern);
+        this.acceptsIso = !inputPattern.contains("'T'");
+        this.zone = ZoneId.systemDefault();
+
+        ProcessorUtils.logProcessorConfig(processorName, "输入格式: '%s', 输出格式: '%s'",
+                inputPattern, outputPattern);
+    }
 
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("输入格式: '%s', 输出格式: '%s'",
-                        inputFormat.toPattern(), outputFormat.toPattern()), null);
+    /**
+     * 获取指定模式的格式化器，同一模式全局只构建一次
+     *
+     * @param pattern 日期模式
+     * @return 格式化器
+     * @throws IllegalArgumentException 模式不合法
+     */
+    private static DateTimeFormatter formatter(String pattern) {
+        DateTimeFormatter formatter = FORMATTERS.get(pattern);
+        if (formatter == null) {
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder()
+                    .parseCaseInsensitive()
+                    .parseLenient();
+            formatter = appendPattern(builder, pattern)
+                    .toFormatter()
+                    .withResolverStyle(ResolverStyle.LENIENT);
+            FORMATTERS.putIfAbsent(pattern, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * 追加日期模式；4个及以上的 y 按 SimpleDateFormat 的方式输出年份（超出位数时不加正负号），
+     * 其余部分（包括引号内的文本）交给 {@link DateTimeFormatterBuilder#appendPattern}
+     */
+    private static DateTimeFormatterBuilder appendPattern(DateTimeFormatterBuilder builder, String pattern) {
+        int start = 0;
+        boolean quoted = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                i++;
+                continue;
+            }
+            int end = i;
+            while (!quoted && end < pattern.length() && pattern.charAt(end) == 'y') {
+                end++;
+            }
+            if (end - i >= 4) {
+                if (start < i) {
+                    builder.appendPattern(pattern.substring(start, i));
+                }
+                builder.appendValue(ChronoField.YEAR_OF_ERA, end - i, 19, SignStyle.NORMAL);
+                start = end;
+            }
+            i = Math.max(end, i + 1);
+        }
+        if (start < pattern.length()) {
+            builder.appendPattern(pattern.substring(start));
+        }
+        return builder;
     }
 
     @Override
@@ -32,19 +122,261 @@ public class DateFormatProcessor extends AbstractProcessor {
         }
 
         try {
-            Date date;
-            if (value instanceof Date) {
-                date = (Date) value;
-            } else {
-                date = inputFormat.parse(value.toString());
-            }
-
-            String result = outputFormat.format(date);
+            String result = format(toDateTime(value));
             ProcessorUtils.logProcessResult(processorName, value, result, null);
             return result;
-        } catch (ParseException e) {
+        } catch (DateTimeException e) {
             ProcessorUtils.logProcessResult(processorName, value, value, e.getMessage());
             return value;
         }
     }
-}
\ No newline at end of file
+
+    private LocalDateTime toDateTime(Object value) {
+        if (value instanceof Date) {
+            return ofEpochMilli(((Date) value).getTime());
+        }
+        if (value instanceof TemporalAccessor) {
+            return resolve((TemporalAccessor) value);
+        }
+        if (value instanceof Number) {
+            String text = value.toString();
+            LocalDateTime dateTime = parseExact(text);
+            if (dateTime != null) {
+                return dateTime;
+            }
+            if (isIntegral((Number) value)) {
+                return ofEpochMilli(((Number) value).longValue());
+            }
+            return parse(text);
+        }
+        return parse(value.toString());
+    }
+
+    /**
+     * 按输入格式（必要时识别 ISO-8601）解析字符串
+     */
+    private LocalDateTime parse(String text) {
+        text = skipLeadingBlanks(text);
+        if (fixedInput != null) {
+            LocalDateTime dateTime = fixedInput.parse(text);
+            if (dateTime != null) {
+                return dateTime;
+            }
+        }
+        if (acceptsIso && looksLikeIso(text)) {
+            ParsePosition position = new ParsePosition(0);
+            if (DateTimeFormatter.ISO_DATE_TIME.parseUnresolved(text, position) != null
+                    && position.getIndex() == text.length()) {
+                return resolve(DateTimeFormatter.ISO_DATE_TIME.parse(text));
+            }
+        }
+        return resolve(inputFormatter.parse(text, new ParsePosition(0)));
+    }
+
+    /**
+     * 判断数值的字符串形式是否完整地符合输入格式，例如 yyyyMMdd 格式的 20240305
+     *
+     * @return 解析结果，不符合时返回null
+     */
+    private LocalDateTime parseExact(String text) {
+        if (fixedInput != null) {
+            return fixedInput.parse(text);
+        }
+        ParsePosition position = new ParsePosition(0);
+        if (inputFormatter.parseUnresolved(text, position) == null || position.getIndex() != text.length()) {
+            return null;
+        }
+        try {
+            LocalDateTime dateTime = resolve(smartInputFormatter.parse(text));
+            return dateTime.getYear() >= 1 && dateTime.getYear() <= 9999 ? dateTime : null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private String format(LocalDateTime dateTime) {
+        if (fixedOutput != null) {
+            String result = fixedOutput.format(dateTime);
+            if (result != null) {
+                return result;
+            }
+        }
+        return outputFormatter.format(dateTime.atZone(zone));
+    }
+
+    /**
+     * 将解析结果转换为本地日期时间，缺少的字段与 SimpleDateFormat 一样取 1970-01-01 00:00:00
+     */
+    private LocalDateTime resolve(TemporalAccessor temporal) {
+        if (temporal.isSupported(ChronoField.INSTANT_SECONDS)) {
+            return Instant.from(temporal).atZone(zone).toLocalDateTime();
+        }
+        LocalDate date = temporal.query(TemporalQueries.localDate());
+        if (date == null) {
+            date = LocalDate.of(1970, 1, 1)
+                    .plusYears(field(temporal, ChronoField.YEAR, 1970) - 1970)
+                    .plusMonths(field(temporal, ChronoField.MONTH_OF_YEAR, 1) - 1)
+                    .plusDays(field(temporal, ChronoField.DAY_OF_MONTH, 1) - 1);
+        }
+        LocalTime time = temporal.query(TemporalQueries.localTime());
+        return LocalDateTime.of(date, time != null ? time : LocalTime.MIDNIGHT);
+    }
+
+    private LocalDateTime ofEpochMilli(long epochMilli) {
+        return Instant.ofEpochMilli(epochMilli).atZone(zone).toLocalDateTime();
+    }
+
+    private static long field(TemporalAccessor temporal, ChronoField field, long defaultValue) {
+        return temporal.isSupported(field) ? temporal.getLong(field) : defaultValue;
+    }
+
+    /**
+     * 与 SimpleDateFormat 一样跳过开头的空格和制表符
+     */
+    private static String skipLeadingBlanks(String text) {
+        int start = 0;
+        while (start < text.length() && (text.charAt(start) == ' ' || text.charAt(start) == '\t')) {
+            start++;
+        }
+        return start == 0 ? text : text.substring(start);
+    }
+
+    private static boolean looksLikeIso(String text) {
+        return text.length() >= 16 && text.charAt(4) == '-'
+                && (text.charAt(10) == 'T' || text.charAt(10) == 't');
+    }
+
+    private static boolean isIntegral(Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte || number instanceof BigInteger) {
+            return true;
+        }
+        if (number instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) number;
+            return decimal.scale() <= 0 || decimal.stripTrailingZeros().scale() <= 0;
+        }
+        return false;
+    }
+
+    /**
+     * 常用定长格式，按字符位置直接解析和输出
+     */
+    private enum FixedWidthPattern {
+        DATE("yyyy-MM-dd"),
+        COMPACT_DATE("yyyyMMdd"),
+        DATE_TIME("yyyy-MM-dd HH:mm:ss");
+
+        private final String pattern;
+
+        FixedWidthPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        static FixedWidthPattern of(String pattern) {
+            for (FixedWidthPattern fixed : values()) {
+                if (fixed.pattern.equals(pattern)) {
+                    return fixed;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 解析长度、分隔符和取值范围都合法的字符串
+         *
+         * @return 解析结果，不满足时返回null，由通用解析器按宽松规则处理
+         */
+        LocalDateTime parse(String text) {
+            if (text.length() != pattern.length()) {
+                return null;
+            }
+            int year;
+            int month;
+            int day;
+            int hour = 0;
+            int minute = 0;
+            int second = 0;
+            if (this == COMPACT_DATE) {
+                year = digits(text, 0, 4);
+                month = digits(text, 4, 2);
+                day = digits(text, 6, 2);
+            } else {
+                if (text.charAt(4) != '-' || text.charAt(7) != '-') {
+                    return null;
+                }
+                year = digits(text, 0, 4);
+                month = digits(text, 5, 2);
+                day = digits(text, 8, 2);
+                if (this == DATE_TIME) {
+                    if (text.charAt(10) != ' ' || text.charAt(13) != ':' || text.charAt(16) != ':') {
+                        return null;
+                    }
+                    hour = digits(text, 11, 2);
+                    minute = digits(text, 14, 2);
+                    second = digits(text, 17, 2);
+                }
+            }
+            if (year < 1 || month < 1 || month > 12 || day < 1
+                    || day > Month.of(month).length(Year.isLeap(year))
+                    || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return null;
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        }
+
+        /**
+         * 输出日期时间
+         *
+         * @return 格式化结果，年份超出四位时返回null，由通用格式化器处理
+         */
+        String format(LocalDateTime dateTime) {
+            int year = dateTime.getYear();
+            if (year < 1 || year > 9999) {
+                return null;
+            }
+            char[] chars = new char[pattern.length()];
+            if (this == COMPACT_DATE) {
+                write(chars, 0, year, 4);
+                write(chars, 4, dateTime.getMonthValue(), 2);
+                write(chars, 6, dateTime.getDayOfMonth(), 2);
+            } else {
+                write(chars, 0, year, 4);
+                chars[4] = '-';
+                write(chars, 5, dateTime.getMonthValue(), 2);
+                chars[7] = '-';
+                write(chars, 8, dateTime.getDayOfMonth(), 2);
+                if (this == DATE_TIME) {
+                    chars[10] = ' ';
+                    write(chars, 11, dateTime.getHour(), 2);
+                    chars[13] = ':';
+                    write(chars, 14, dateTime.getMinute(), 2);
+                    chars[16] = ':';
+                    write(chars, 17, dateTime.getSecond(), 2);
+                }
+            }
+            return new String(chars);
+        }
+
+        /**
+         * 读取定长数字，出现非数字字符时返回-1
+         */
+        private static int digits(String text, int offset, int length) {
+            int value = 0;
+            for (int i = offset; i < offset + length; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        private static void write(char[] chars, int offset, int value, int length) {
+            for (int i = offset + length - 1; i >= offset; i--) {
+                chars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+}
@@ -46,12 +46,13 @@ import java.math.*;
  */
 public class DiscountProcessor extends AbstractProcessor {
     private final BigDecimal discountRate;
+    private final ScaledDecimal fastDiscountRate;
 
     public DiscountProcessor(String config) {
         super("DiscountProcessor");
         this.discountRate = new BigDecimal(config != null ? config : "1.0");
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("折扣率: %s", discountRate), null);
+        this.fastDiscountRate = ScaledDecimal.parse(discountRate.toString());
+        ProcessorUtils.logProcessorConfig(processorName, "折扣率: %s", discountRate);
     }
 
     @Override
@@ -61,17 +62,21 @@ public class DiscountProcessor extends AbstractProcessor {
         }
 
         try {
-            BigDecimal amount;
-            if (value instanceof Number) {
-                amount = new BigDecimal(value.toString());
-            } else if (value instanceof String) {
-                amount = new BigDecimal((String) value);
-            } else {
+            if (!(value instanceof Number) && !(value instanceof String)) {
                 return value;
             }
 
-            BigDecimal result = amount.multiply(discountRate)
-                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal result = null;
+            ScaledDecimal amount = fastDiscountRate != null ? ScaledDecimal.of(value) : null;
+            if (amount != null) {
+                ScaledDecimal product = amount.multiply(fastDiscountRate);
+                ScaledDecimal rounded = product != null ? product.setScale(2) : null;
+                result = rounded != null ? rounded.toBigDecimal() : null;
+            }
+            if (result == null) {
+                result = ScaledDecimal.bigDecimalOf(value).multiply(discountRate)
+                        .setScale(2, RoundingMode.HALF_UP);
+            }
 
             ProcessorUtils.logProcessResult(processorName, value, result, null);
             return result;
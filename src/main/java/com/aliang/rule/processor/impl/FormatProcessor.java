@@ -3,6 +3,10 @@ package com.aliang.rule.processor.impl;
 import com.aliang.rule.processor.*;
 import com.aliang.utils.*;
 
+import java.math.*;
+import java.text.*;
+import java.util.*;
+
 /**
  * 格式化处理器
  * 将输入值按照指定的格式进行格式化
@@ -38,15 +42,30 @@ import com.aliang.utils.*;
  * 配置：format:%s-%s
  * 输入："123 main st"
  * 输出："123 main st-123 main st" (重复输入值)
+ * <p>
+ * 格式化字符串在创建处理器时解析为模板，常见的 %s、%d、%06d、%.2f、%% 和 %n 直接写入同一个 StringBuilder；
+ * 模板中包含其他说明符、参数类型不匹配或默认区域的数字符号不是 '0' 和 '.' 时，仍使用 String.format，
+ * 两种方式的输出完全相同。
  */
 public class FormatProcessor extends AbstractProcessor {
     private final String format;
+    private final int paramCount;
+    /**
+     * 预解析的模板，包含不支持的说明符时为null
+     */
+    private final Segment[] template;
+    /**
+     * 解析模板时的默认格式化区域，区域变化后不再使用模板
+     */
+    private final Locale templateLocale;
 
     public FormatProcessor(String config) {
         super("FormatProcessor");
         this.format = config != null ? config : "%s";
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("格式化模式: '%s'", format), null);
+        this.paramCount = countFormatSpecifiers(format);
+        this.templateLocale = Locale.getDefault(Locale.Category.FORMAT);
+        this.template = isPlainLocale(templateLocale) ? parseTemplate(format) : null;
+        ProcessorUtils.logProcessorConfig(processorName, "格式化模式: '%s'", format);
     }
 
     @Override
@@ -56,27 +75,10 @@ public class FormatProcessor extends AbstractProcessor {
         }
 
         try {
-            String result;
-            if (value instanceof Number) {
-                // 对于数字类型，使用String.format
-                result = String.format(format, value);
-            } else if (value instanceof String) {
-                // 对于字符串类型，计算需要的参数数量
-                int paramCount = countFormatSpecifiers(format);
-                if (paramCount > 1) {
-                    // 如果需要多个参数，重复输入值
-                    Object[] params = new Object[paramCount];
-                    for (int i = 0; i < paramCount; i++) {
-                        params[i] = value;
-                    }
-                    result = String.format(format, params);
-                } else {
-                    // 单个参数的情况
-                    result = String.format(format, value);
-                }
-            } else {
-                // 对于其他类型，先转换为字符串再格式化
-                result = String.format(format, value.toString());
+            String result = template != null && templateLocale.equals(Locale.getDefault(Locale.Category.FORMAT))
+                    ? render(value) : null;
+            if (result == null) {
+                result = formatWithFormatter(value);
             }
 
             ProcessorUtils.logProcessResult(processorName, value, result, null);
@@ -87,10 +89,252 @@ public class FormatProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * 使用 String.format 格式化
+     */
+    private String formatWithFormatter(Object value) {
+        if (value instanceof Number) {
+            // 对于数字类型，使用String.format
+            return String.format(format, value);
+        } else if (value instanceof String) {
+            // 对于字符串类型，计算需要的参数数量
+            if (paramCount > 1) {
+                // 如果需要多个参数，重复输入值
+                Object[] params = new Object[paramCount];
+                for (int i = 0; i < paramCount; i++) {
+                    params[i] = value;
+                }
+                return String.format(format, params);
+            }
+            // 单个参数的情况
+            return String.format(format, value);
+        }
+        // 对于其他类型，先转换为字符串再格式化
+        return String.format(format, value.toString());
+    }
+
+    /**
+     * 按预解析的模板格式化，参数与 {@link #formatWithFormatter} 相同
+     *
+     * @return 格式化结果，模板无法处理该参数时返回null
+     */
+    private String render(Object value) {
+        Object arg = value instanceof Number || value instanceof String ? value : value.toString();
+        int argCount = value instanceof String ? Math.max(paramCount, 1) : 1;
+        int argIndex = 0;
+        StringBuilder builder = new StringBuilder(format.length() + 16);
+        for (Segment segment : template) {
+            if (segment.literal != null) {
+                builder.append(segment.literal);
+                continue;
+            }
+            if (argIndex++ >= argCount || !segment.appendTo(builder, arg)) {
+                return null;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isPlainLocale(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.';
+    }
+
+    /**
+     * 将格式化字符串解析为模板
+     * 只支持 %%、%n、%s，以及可带 0 标志和宽度的 %d、%f（%f 可带精度），其他说明符返回null
+     */
+    private static Segment[] parseTemplate(String format) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = format.length();
+        int i = 0;
+        while (i < length) {
+            char c = format.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            boolean zeroPad = i < length && format.charAt(i) == '0';
+            if (zeroPad) {
+                i++;
+            }
+            int width = -1;
+            if (i < length && format.charAt(i) >= '1' && format.charAt(i) <= '9') {
+                width = 0;
+                while (i < length && Character.isDigit(format.charAt(i))) {
+                    width = width * 10 + (format.charAt(i++) - '0');
+                    if (width > 10_000) {
+                        return null;
+                    }
+                }
+            }
+            int precision = -1;
+            if (i < length && format.charAt(i) == '.') {
+                i++;
+                precision = 0;
+                int start = i;
+                while (i < length && Character.isDigit(format.charAt(i))) {
+                    precision = precision * 10 + (format.charAt(i++) - '0');
+                    if (precision > 1_000) {
+                        return null;
+                    }
+                }
+                if (i == start) {
+                    return null;
+                }
+            }
+            if (i >= length) {
+                return null;
+            }
+            char conversion = format.charAt(i++);
+            boolean plain = !zeroPad && width < 0 && precision < 0;
+            switch (conversion) {
+                case '%':
+                    if (!plain) {
+                        return null;
+                    }
+                    literal.append('%');
+                    continue;
+                case 'n':
+                    if (!plain) {
+                        return null;
+                    }
+                    literal.append(System.lineSeparator());
+                    continue;
+                case 's':
+                    if (!plain) {
+                        return null;
+                    }
+                    break;
+                case 'd':
+                    if (precision >= 0 || (zeroPad && width < 0)) {
+                        return null;
+                    }
+                    break;
+                case 'f':
+                    if (zeroPad && width < 0) {
+                        return null;
+                    }
+                    break;
+                default:
+                    return null;
+            }
+            if (literal.length() > 0) {
+                segments.add(new Segment(literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(new Segment(conversion, zeroPad, width, precision < 0 ? 6 : precision));
+        }
+        if (literal.length() > 0) {
+            segments.add(new Segment(literal.toString()));
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    /**
+     * 模板片段：字面量，或一个格式说明符
+     */
+    private static final class Segment {
+        private final String literal;
+        private final char conversion;
+        private final boolean zeroPad;
+        private final int width;
+        private final int precision;
+
+        Segment(String literal) {
+            this(literal, (char) 0, false, -1, -1);
+        }
+
+        Segment(char conversion, boolean zeroPad, int width, int precision) {
+            this(null, conversion, zeroPad, width, precision);
+        }
+
+        private Segment(String literal, char conversion, boolean zeroPad, int width, int precision) {
+            this.literal = literal;
+            this.conversion = conversion;
+            this.zeroPad = zeroPad;
+            this.width = width;
+            this.precision = precision;
+        }
+
+        /**
+         * 按说明符写入参数，参数类型与说明符不匹配时返回false
+         */
+        boolean appendTo(StringBuilder builder, Object arg) {
+            switch (conversion) {
+                case 's':
+                    if (arg instanceof Formattable) {
+                        return false;
+                    }
+                    builder.append(arg.toString());
+                    return true;
+                case 'd':
+                    if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+                        long number = ((Number) arg).longValue();
+                        appendPadded(builder, number < 0, Long.toString(number), number < 0 ? 1 : 0);
+                        return true;
+                    }
+                    if (arg instanceof BigInteger) {
+                        BigInteger number = (BigInteger) arg;
+                        appendPadded(builder, number.signum() < 0, number.toString(), number.signum() < 0 ? 1 : 0);
+                        return true;
+                    }
+                    return false;
+                case 'f':
+                    if (arg instanceof Double || arg instanceof Float) {
+                        double number = ((Number) arg).doubleValue();
+                        if (Double.isNaN(number) || Double.isInfinite(number)) {
+                            return false;
+                        }
+                        /*  与 Formatter 相同：在 Double.toString 的十进制表示上按 HALF_UP 舍入，-0.0 保留负号 */
+                        String digits = new BigDecimal(Double.toString(Math.abs(number)))
+                                .setScale(precision, RoundingMode.HALF_UP).toPlainString();
+                        appendPadded(builder, Double.compare(number, 0.0) < 0, digits, 0);
+                        return true;
+                    }
+                    if (arg instanceof BigDecimal) {
+                        BigDecimal number = (BigDecimal) arg;
+                        String digits = number.abs().setScale(precision, RoundingMode.HALF_UP).toPlainString();
+                        appendPadded(builder, number.signum() < 0, digits, 0);
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * 写入符号和数字，宽度不足时左侧补空格，带 0 标志时在符号之后补0
+         *
+         * @param digits      数字部分
+         * @param digitsStart 数字部分中跳过的前导符号长度
+         */
+        private void appendPadded(StringBuilder builder, boolean negative, String digits, int digitsStart) {
+            int length = (negative ? 1 : 0) + digits.length() - digitsStart;
+            int padding = width - length;
+            if (padding > 0 && !zeroPad) {
+                for (int i = 0; i < padding; i++) {
+                    builder.append(' ');
+                }
+            }
+            if (negative) {
+                builder.append('-');
+            }
+            if (padding > 0 && zeroPad) {
+                for (int i = 0; i < padding; i++) {
+                    builder.append('0');
+                }
+            }
+            builder.append(digits, digitsStart, digits.length());
+        }
+    }
+
     /**
      * 计算格式化字符串中需要的参数数量
      */
-    private int countFormatSpecifiers(String format) {
+    private static int countFormatSpecifiers(String format) {
         int count = 0;
         int i = 0;
         while (i < format.length()) {
@@ -16,8 +16,7 @@ public class IdCardProcessor extends AbstractProcessor {
     public IdCardProcessor(String config) {
         super("IdCardProcessor");
         this.mask = config != null && "mask".equalsIgnoreCase(config);
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("处理模式: %s", mask ? "脱敏" : "格式化"), null);
+        ProcessorUtils.logProcessorConfig(processorName, "处理模式: %s", mask ? "脱敏" : "格式化");
     }
 
     @Override
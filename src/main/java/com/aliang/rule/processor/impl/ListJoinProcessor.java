@@ -10,33 +10,33 @@ import java.util.stream.*;
  * 列表连接处理器
  * 将列表中的元素使用指定的分隔符连接成字符串
  * <p>
- * 配置格式：join:separator,prefix,suffix
+ * 配置格式：listjoin:separator:prefix:suffix
  * separator: 分隔符
  * prefix: 前缀（可选）
  * suffix: 后缀（可选）
  * <p>
  * 示例1 - 基本连接：
- * 配置：join:,
+ * 配置：listjoin:,
  * 输入：["a", "b", "c"]
  * 输出："a,b,c"
  * <p>
  * 示例2 - 自定义分隔符：
- * 配置：join:|
+ * 配置：listjoin:|
  * 输入：["user", "admin", "guest"]
  * 输出："user|admin|guest"
  * <p>
  * 示例3 - 带前后缀：
- * 配置：join:,,{,}
+ * 配置：listjoin:,:{:}
  * 输入：["1", "2", "3"]
  * 输出："{1,2,3}"
  * <p>
  * 示例4 - 处理数字列表：
- * 配置：join:-
+ * 配置：listjoin:-
  * 输入：[1, 2, 3]
  * 输出："1-2-3"
  * <p>
  * 示例5 - SQL IN子句：
- * 配置：join:,,(,)
+ * 配置：listjoin:,:(:)
  * 输入：["'a'", "'b'", "'c'"]
  * 输出："('a','b','c')"
  * <p>
@@ -71,9 +71,24 @@ public class ListJoinProcessor extends AbstractProcessor {
         this.delimiter = parts.length > 0 ? parts[0] : ",";
         this.prefix = parts.length > 1 ? parts[1] : "";
         this.suffix = parts.length > 2 ? parts[2] : "";
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("连接配置: 分隔符='%s', 前缀='%s', 后缀='%s'",
-                        delimiter, prefix, suffix), null);
+        ProcessorUtils.logProcessorConfig(processorName, "连接配置: 分隔符='%s', 前缀='%s', 后缀='%s'",
+                delimiter, prefix, suffix);
+    }
+
+    /**
+     * 整体连接集合，不按元素拆分
+     */
+    @Override
+    public Object doProcess(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return processValue(value);
+        } catch (Exception e) {
+            ProcessorUtils.logProcessResult(processorName, value, null, e.getMessage());
+            return value;
+        }
     }
 
     @Override
@@ -7,7 +7,7 @@ import com.aliang.utils.*;
  * 小写转换处理器
  * 将输入字符串转换为小写
  */
-public class LowercaseProcessor extends AbstractProcessor {
+public class LowercaseProcessor extends AbstractProcessor implements FusibleStringProcessor {
     public LowercaseProcessor() {
         super("LowercaseProcessor");
     }
@@ -18,4 +18,9 @@ public class LowercaseProcessor extends AbstractProcessor {
         ProcessorUtils.logProcessResult(processorName, value, result, null);
         return result;
     }
+
+    @Override
+    public void applyTo(StringBuilder builder) {
+        ProcessorUtils.toLowerCase(builder);
+    }
 }
@@ -1,5 +1,6 @@
 package com.aliang.rule.processor.impl;
 
+import com.aliang.registry.dictionary.*;
 import com.aliang.rule.processor.*;
 import com.aliang.utils.*;
 
@@ -42,14 +43,43 @@ import java.util.*;
  * 3. 每个键值对使用等号(=)分隔
  * 4. 支持数组和集合类型的批量转换
  * 5. 键和值都支持任意字符串，包括中文
+ * <p>
+ * 示例6 - 引用共享字典（数万条以上的码表）：
+ * 配置：mapvalue:@region
+ * 输入："110000"
+ * 输出："北京市"
+ * 字典从 MongoDB 集合 dict_region 加载，所有引用同名字典的规则共用一份数据，字典变更后自动刷新，
+ * 详见 {@link com.aliang.service.DictionaryWatcher}。
  */
 public class MapValueProcessor extends AbstractProcessor {
+    private static final String DICTIONARY_PREFIX = "@";
+
     private final Map<String, String> mapping;
+    private final DictionaryRegistry.Handle dictionary;
 
     public MapValueProcessor(String config) {
         super("MapValueProcessor");
-        this.mapping = parseMappingConfig(config);
-        ProcessorUtils.logProcessResult(processorName, null, "映射表: " + mapping, null);
+        if (isDictionaryReference(config)) {
+            this.mapping = Collections.emptyMap();
+            this.dictionary = DictionaryRegistry.shared().get(config.trim().substring(DICTIONARY_PREFIX.length()));
+            ProcessorUtils.logProcessorConfig(processorName, "引用字典: %s", dictionary.getName());
+        } else {
+            this.mapping = Collections.unmodifiableMap(parseMappingConfig(config));
+            this.dictionary = null;
+            ProcessorUtils.logProcessResult(processorName, null, mapping, null);
+        }
+    }
+
+    /**
+     * 以 @ 开头且不包含键值对分隔符的配置表示引用共享字典
+     */
+    private static boolean isDictionaryReference(String config) {
+        if (config == null) {
+            return false;
+        }
+        String trimmed = config.trim();
+        return trimmed.length() > DICTIONARY_PREFIX.length() && trimmed.startsWith(DICTIONARY_PREFIX)
+                && trimmed.indexOf('=') < 0 && trimmed.indexOf(';') < 0;
     }
 
     private Map<String, String> parseMappingConfig(String config) {
@@ -71,7 +101,9 @@ public class MapValueProcessor extends AbstractProcessor {
     @Override
     protected Object processValue(Object value) {
         String key = value.toString();
-        String result = mapping.getOrDefault(key, key);
+        String result = dictionary != null
+                ? dictionary.dictionary().getOrDefault(key, key)
+                : mapping.getOrDefault(key, key);
         ProcessorUtils.logProcessResult(processorName, value, result, null);
         return result;
     }
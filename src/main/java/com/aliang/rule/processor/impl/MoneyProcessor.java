@@ -9,10 +9,16 @@ import java.text.*;
 /**
  * 金额处理器
  * 将输入数值格式化为金额格式
+ * <p>
+ * DecimalFormat 非线程安全，按线程持有副本，使处理器实例可在映射计划中被并发共享。
+ * <p>
+ * 默认格式符号（千位分隔符 ','、小数点 '.'、负号 '-'）下，能用 long 尾数表示的数值直接拼接分组结果，
+ * 输出与 DecimalFormat 完全相同；其他情况仍使用 DecimalFormat。
  */
 public class MoneyProcessor extends AbstractProcessor {
-    private final DecimalFormat format;
+    private final ThreadLocal<DecimalFormat> format;
     private final int scale;
+    private final boolean fastFormat;
 
     public MoneyProcessor(String config) {
         super("MoneyProcessor");
@@ -22,9 +28,10 @@ public class MoneyProcessor extends AbstractProcessor {
         for (int i = 0; i < scale; i++) {
             pattern.append("0");
         }
-        this.format = new DecimalFormat(pattern.toString());
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("金额格式: 小数位数=%d", scale), null);
+        String formatPattern = pattern.toString();
+        this.format = ThreadLocal.withInitial(() -> new DecimalFormat(formatPattern));
+        this.fastFormat = scale >= 0 && isDefaultSymbols(format.get());
+        ProcessorUtils.logProcessorConfig(processorName, "金额格式: 小数位数=%d", scale);
     }
 
     @Override
@@ -34,17 +41,20 @@ public class MoneyProcessor extends AbstractProcessor {
         }
 
         try {
-            BigDecimal number;
-            if (value instanceof Number) {
-                number = new BigDecimal(value.toString());
-            } else if (value instanceof String) {
-                number = new BigDecimal((String) value);
-            } else {
+            if (!(value instanceof Number) && !(value instanceof String)) {
                 return value;
             }
 
-            number = number.setScale(scale, RoundingMode.HALF_UP);
-            String result = format.format(number);
+            String result = null;
+            if (fastFormat) {
+                ScaledDecimal number = ScaledDecimal.of(value);
+                ScaledDecimal rounded = number != null ? number.setScale(scale) : null;
+                result = rounded != null ? formatGrouped(rounded.getUnscaled()) : null;
+            }
+            if (result == null) {
+                BigDecimal number = ScaledDecimal.bigDecimalOf(value).setScale(scale, RoundingMode.HALF_UP);
+                result = format.get().format(number);
+            }
 
             ProcessorUtils.logProcessResult(processorName, value, result, null);
             return result;
@@ -53,4 +63,46 @@ public class MoneyProcessor extends AbstractProcessor {
             return value;
         }
     }
-} 
\ No newline at end of file
+
+    private static boolean isDefaultSymbols(DecimalFormat decimalFormat) {
+        DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+        return decimalFormat.getGroupingSize() == 3
+                && symbols.getGroupingSeparator() == ','
+                && symbols.getDecimalSeparator() == '.'
+                && symbols.getMinusSign() == '-'
+                && symbols.getZeroDigit() == '0'
+                && decimalFormat.getNegativePrefix().equals("-")
+                && decimalFormat.getNegativeSuffix().isEmpty();
+    }
+
+    /**
+     * 按 "#,##0.00" 格式输出已舍入到 scale 位小数的尾数，小数位数为0时与 DecimalFormat 一样保留小数点
+     */
+    private String formatGrouped(long unscaled) {
+        String digits = Long.toString(unscaled);
+        int start = unscaled < 0 ? 1 : 0;
+        int length = digits.length() - start;
+        StringBuilder builder = new StringBuilder(length + length / 3 + scale + 3);
+        if (unscaled < 0) {
+            builder.append('-');
+        }
+        /*  整数部分至少一位，不足时补0 */
+        int integerDigits = length - scale;
+        if (integerDigits <= 0) {
+            builder.append('0');
+        } else {
+            for (int i = 0; i < integerDigits; i++) {
+                if (i > 0 && (integerDigits - i) % 3 == 0) {
+                    builder.append(',');
+                }
+                builder.append(digits.charAt(start + i));
+            }
+        }
+        builder.append('.');
+        for (int i = integerDigits; i < 0; i++) {
+            builder.append('0');
+        }
+        builder.append(digits, start + Math.max(integerDigits, 0), digits.length());
+        return builder.toString();
+    }
+}
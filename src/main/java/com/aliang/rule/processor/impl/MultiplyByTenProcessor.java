@@ -10,6 +10,7 @@ import java.math.*;
  * 将输入数值乘以10
  */
 public class MultiplyByTenProcessor extends AbstractProcessor {
+    private static final ScaledDecimal TEN = ScaledDecimal.valueOf(10, 0);
 
     public MultiplyByTenProcessor(String config) {
         super("MultiplyByTenProcessor");
@@ -23,16 +24,20 @@ public class MultiplyByTenProcessor extends AbstractProcessor {
         }
 
         try {
-            BigDecimal number;
-            if (value instanceof Number) {
-                number = new BigDecimal(value.toString());
-            } else if (value instanceof String) {
-                number = new BigDecimal((String) value);
-            } else {
+            if (!(value instanceof Number) && !(value instanceof String)) {
                 return value;
             }
 
-            BigDecimal result = number.multiply(BigDecimal.TEN);
+            /*  优先在 long 尾数上计算，溢出或无法快速解析时使用 BigDecimal */
+            BigDecimal result = null;
+            ScaledDecimal number = ScaledDecimal.of(value);
+            if (number != null) {
+                ScaledDecimal product = number.multiply(TEN);
+                result = product != null ? product.toBigDecimal() : null;
+            }
+            if (result == null) {
+                result = ScaledDecimal.bigDecimalOf(value).multiply(BigDecimal.TEN);
+            }
             ProcessorUtils.logProcessResult(processorName, value, result, null);
             return result;
         } catch (NumberFormatException e) {
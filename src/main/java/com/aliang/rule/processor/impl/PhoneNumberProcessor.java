@@ -19,8 +19,7 @@ public class PhoneNumberProcessor extends AbstractProcessor {
         String[] parts = config != null ? config.split(":") : new String[0];
         this.mask = parts.length > 0 && "mask".equalsIgnoreCase(parts[0]);
         this.format = parts.length > 1 ? parts[1] : "****";
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("处理模式: %s, 格式: %s", mask ? "脱敏" : "格式化", format), null);
+        ProcessorUtils.logProcessorConfig(processorName, "处理模式: %s, 格式: %s", mask ? "脱敏" : "格式化", format);
     }
 
     @Override
@@ -57,13 +57,13 @@ import com.aliang.utils.*;
  * 4. 非字符串类型的输入将被转换为字符串后处理
  * 5. 如果输入为null，则直接返回null
  */
-public class PrefixProcessor extends AbstractProcessor {
+public class PrefixProcessor extends AbstractProcessor implements FusibleStringProcessor {
     private final String prefix;
 
     public PrefixProcessor(String prefix) {
         super("PrefixProcessor");
         this.prefix = prefix != null ? prefix : "";
-        ProcessorUtils.logProcessResult(processorName, null, "前缀: " + this.prefix, null);
+        ProcessorUtils.logProcessorConfig(processorName, "前缀: %s", this.prefix);
     }
 
     @Override
@@ -72,4 +72,9 @@ public class PrefixProcessor extends AbstractProcessor {
         ProcessorUtils.logProcessResult(processorName, value, result, null);
         return result;
     }
+
+    @Override
+    public void applyTo(StringBuilder builder) {
+        builder.insert(0, prefix);
+    }
 }
@@ -18,8 +18,7 @@ public class RangeProcessor extends AbstractProcessor {
         String[] range = config != null ? config.split(",") : new String[0];
         this.min = range.length > 0 ? new BigDecimal(range[0]) : null;
         this.max = range.length > 1 ? new BigDecimal(range[1]) : null;
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("范围: %s - %s", min, max), null);
+        ProcessorUtils.logProcessorConfig(processorName, "范围: %s - %s", min, max);
     }
 
     @Override
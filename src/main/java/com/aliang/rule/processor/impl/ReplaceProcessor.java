@@ -3,26 +3,98 @@ package com.aliang.rule.processor.impl;
 import com.aliang.rule.processor.*;
 import com.aliang.utils.*;
 
+import java.util.*;
+import java.util.regex.*;
+
 /**
  * 替换处理器
  * 将输入值中的指定字符串替换为新的字符串
  * 支持普通字符串替换和正则表达式替换
+ * <p>
+ * 配置格式：
+ * 1. 普通替换：replace:目标->替换
+ * 2. 正则替换：replace:正则->替换->regex，正则表达式在创建处理器时编译一次
+ * 3. 多目标替换：replace:目标1->替换1|目标2->替换2|...
+ * <p>
+ * 多目标替换使用 Aho–Corasick 自动机一次扫描完成全部替换：每个位置选择最靠左、最长的目标，
+ * 替换后的文本不会被其他规则再次匹配。目标之间互不包含、替换结果也不产生新的目标时，
+ * 结果与依次配置多个 replace 处理器相同。
  */
 public class ReplaceProcessor extends AbstractProcessor {
     private final String target;
     private final String replacement;
     private final boolean isRegex;
+    private final Pattern pattern;
+    private final String patternError;
+    private final AhoCorasickReplacer multiReplacer;
 
     public ReplaceProcessor(String config) {
         super("ReplaceProcessor");
+        List<String[]> rules = parseMultiRules(config);
+        if (rules != null) {
+            List<String> targets = new ArrayList<>(rules.size());
+            List<String> replacements = new ArrayList<>(rules.size());
+            for (String[] rule : rules) {
+                targets.add(rule[0]);
+                replacements.add(rule[1]);
+            }
+            this.target = String.join("|", targets);
+            this.replacement = String.join("|", replacements);
+            this.isRegex = false;
+            this.pattern = null;
+            this.patternError = null;
+            this.multiReplacer = new AhoCorasickReplacer(targets, replacements);
+            ProcessorUtils.logProcessorConfig(processorName, "多目标替换: %d 条规则", rules.size());
+            return;
+        }
+
         String[] parts = config != null ? config.split("->") : new String[]{"", ""};
         this.target = parts[0].trim();
         this.replacement = parts.length > 1 ? parts[1].trim() : "";
         this.isRegex = parts.length > 2 && "regex".equalsIgnoreCase(parts[2].trim());
+        this.multiReplacer = null;
+
+        Pattern compiled = null;
+        String error = null;
+        if (isRegex && !target.isEmpty()) {
+            try {
+                compiled = Pattern.compile(target);
+            } catch (PatternSyntaxException e) {
+                error = e.getMessage();
+            }
+        }
+        this.pattern = compiled;
+        this.patternError = error;
+
+        ProcessorUtils.logProcessorConfig(processorName, "替换规则: '%s' -> '%s' (%s)",
+                target, replacement, isRegex ? "正则表达式" : "普通字符串");
+    }
 
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("替换规则: '%s' -> '%s' (%s)",
-                        target, replacement, isRegex ? "正则表达式" : "普通字符串"), null);
+    /**
+     * 解析多目标替换规则：至少两条以 | 分隔的 目标->替换，且不包含正则规则
+     *
+     * @return 规则列表，不是多目标替换时返回null
+     */
+    private static List<String[]> parseMultiRules(String config) {
+        if (config == null || config.indexOf('|') < 0) {
+            return null;
+        }
+        String[] items = config.split("\\|");
+        if (items.length < 2) {
+            return null;
+        }
+        List<String[]> rules = new ArrayList<>(items.length);
+        for (String item : items) {
+            if (!item.contains("->")) {
+                return null;
+            }
+            String[] parts = item.split("->");
+            if (parts.length > 2 || parts.length == 0) {
+                return null;
+            }
+            rules.add(new String[]{parts[0].trim(), parts.length > 1 ? parts[1].trim() : ""});
+        }
+        return rules;
     }
 
     @Override
@@ -39,8 +111,14 @@ public class ReplaceProcessor extends AbstractProcessor {
 
         try {
             String result;
-            if (isRegex) {
-                result = strValue.replaceAll(target, replacement);
+            if (multiReplacer != null) {
+                result = multiReplacer.replace(strValue);
+            } else if (isRegex) {
+                if (pattern == null) {
+                    ProcessorUtils.logProcessResult(processorName, value, value, patternError);
+                    return value;
+                }
+                result = pattern.matcher(strValue).replaceAll(replacement);
             } else {
                 result = strValue.replace(target, replacement);
             }
@@ -51,4 +129,4 @@ public class ReplaceProcessor extends AbstractProcessor {
             return value;
         }
     }
-} 
\ No newline at end of file
+}
@@ -15,8 +15,7 @@ public class RoundTwoDecimalProcessor extends AbstractProcessor {
     public RoundTwoDecimalProcessor(String config) {
         super("RoundTwoDecimalProcessor");
         this.scale = config != null ? Integer.parseInt(config.trim()) : 2;
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("小数位数: %d", scale), null);
+        ProcessorUtils.logProcessorConfig(processorName, "小数位数: %d", scale);
     }
 
     @Override
@@ -26,8 +25,7 @@ public class RoundTwoDecimalProcessor extends AbstractProcessor {
         }
 
         try {
-            BigDecimal number = new BigDecimal(value.toString());
-            BigDecimal result = number.setScale(scale, RoundingMode.HALF_UP);
+            BigDecimal result = round(value);
             ProcessorUtils.logProcessResult(processorName, value, result, null);
             return result;
         } catch (NumberFormatException e) {
@@ -35,4 +33,16 @@ public class RoundTwoDecimalProcessor extends AbstractProcessor {
             return value;
         }
     }
+
+    private BigDecimal round(Object value) {
+        ScaledDecimal number = ScaledDecimal.of(value);
+        if (number != null) {
+            ScaledDecimal rounded = number.setScale(scale);
+            if (rounded != null) {
+                return rounded.toBigDecimal();
+            }
+        }
+        return (value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString()))
+                .setScale(scale, RoundingMode.HALF_UP);
+    }
 }
@@ -57,7 +57,7 @@ public class StatusToChineseProcessor extends AbstractProcessor {
 
     public StatusToChineseProcessor(String config) {
         super("StatusToChineseProcessor");
-        this.statusMap = new HashMap<>();
+        Map<String, String> statusMap = new HashMap<>();
         if (config != null && !config.isEmpty()) {
             String[] pairs = config.split(",");
             for (String pair : pairs) {
@@ -67,8 +67,8 @@ public class StatusToChineseProcessor extends AbstractProcessor {
                 }
             }
         }
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("状态映射: %s", statusMap), null);
+        this.statusMap = Collections.unmodifiableMap(statusMap);
+        ProcessorUtils.logProcessResult(processorName, null, this.statusMap, null);
     }
 
     @Override
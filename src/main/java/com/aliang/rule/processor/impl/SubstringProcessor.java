@@ -64,8 +64,7 @@ public class SubstringProcessor extends AbstractProcessor {
         String[] range = config != null ? config.split(",") : new String[0];
         this.start = range.length > 0 ? Integer.parseInt(range[0]) : 0;
         this.end = range.length > 1 ? Integer.parseInt(range[1]) : -1;
-        ProcessorUtils.logProcessResult(processorName, null,
-                String.format("范围: %d - %s", start, end == -1 ? "end" : end), null);
+        ProcessorUtils.logProcessorConfig(processorName, "范围: %d - %s", start, end == -1 ? "end" : end);
     }
 
     @Override
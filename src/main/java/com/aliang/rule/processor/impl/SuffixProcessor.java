@@ -57,13 +57,13 @@ import com.aliang.utils.*;
  * 4. 非字符串类型的输入将被转换为字符串后处理
  * 5. 如果输入为null，则直接返回null
  */
-public class SuffixProcessor extends AbstractProcessor {
+public class SuffixProcessor extends AbstractProcessor implements FusibleStringProcessor {
     private final String suffix;
 
     public SuffixProcessor(String suffix) {
         super("SuffixProcessor");
         this.suffix = suffix != null ? suffix : "";
-        ProcessorUtils.logProcessResult(processorName, null, "后缀: " + this.suffix, null);
+        ProcessorUtils.logProcessorConfig(processorName, "后缀: %s", this.suffix);
     }
 
     @Override
@@ -72,4 +72,9 @@ public class SuffixProcessor extends AbstractProcessor {
         ProcessorUtils.logProcessResult(processorName, value, result, null);
         return result;
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void applyTo(StringBuilder builder) {
+        builder.append(suffix);
+    }
+}
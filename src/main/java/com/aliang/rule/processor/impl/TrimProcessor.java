@@ -55,7 +55,7 @@ import com.aliang.utils.*;
  * 4. 非字符串类型的输入将被转换为字符串后处理
  * 5. null值将被返回null
  */
-public class TrimProcessor extends AbstractProcessor {
+public class TrimProcessor extends AbstractProcessor implements FusibleStringProcessor {
     public TrimProcessor() {
         super("TrimProcessor");
     }
@@ -66,4 +66,9 @@ public class TrimProcessor extends AbstractProcessor {
         ProcessorUtils.logProcessResult(processorName, value, result, null);
         return result;
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void applyTo(StringBuilder builder) {
+        ProcessorUtils.trim(builder);
+    }
+}
@@ -7,7 +7,7 @@ import com.aliang.utils.*;
  * 大写转换处理器
  * 将输入字符串转换为大写
  */
-public class UppercaseProcessor extends AbstractProcessor {
+public class UppercaseProcessor extends AbstractProcessor implements FusibleStringProcessor {
     public UppercaseProcessor() {
         super("UppercaseProcessor");
     }
@@ -18,4 +18,9 @@ public class UppercaseProcessor extends AbstractProcessor {
         ProcessorUtils.logProcessResult(processorName, value, result, null);
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void applyTo(StringBuilder builder) {
+        ProcessorUtils.toUpperCase(builder);
+    }
+}
@@ -0,0 +1,51 @@
+package com.aliang.rule.strategy;
+
+import java.util.*;
+
+/**
+ * 可合并的聚合策略
+ * <p>
+ * 累加器满足结合律：分段累加后按分段顺序 {@link MergeableAccumulator#merge 合并}，结果与顺序累加完全相同。
+ * 大数组按 {@link ParallelReduction} 分块并行累加后合并，其余情况与 {@link ReducibleAggregationStrategy} 一样顺序累加。
+ *
+ * @param <A> 累加器类型
+ */
+public interface MergeableAggregationStrategy<A extends MergeableAggregationStrategy.MergeableAccumulator<A>>
+        extends ReducibleAggregationStrategy {
+
+    @Override
+    A newAccumulator();
+
+    @Override
+    default Object apply(List<?> values) {
+        if (!ParallelReduction.shared().accepts(values)) {
+            return ReducibleAggregationStrategy.super.apply(values);
+        }
+        List<A> chunks = ParallelReduction.shared().reduceChunks(values, (list, from, to) -> {
+            A chunk = newAccumulator();
+            for (int i = from; i < to; i++) {
+                chunk.accept(list.get(i));
+            }
+            return chunk;
+        });
+        A accumulator = chunks.get(0);
+        for (int i = 1; i < chunks.size(); i++) {
+            accumulator.merge(chunks.get(i));
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * 可合并的累加器，非线程安全
+     *
+     * @param <A> 累加器自身的类型
+     */
+    interface MergeableAccumulator<A extends MergeableAccumulator<A>> extends Accumulator {
+        /**
+         * 合并紧随其后的一段值的累加结果
+         *
+         * @param following 后一段值的累加器
+         */
+        void merge(A following);
+    }
+}
@@ -0,0 +1,120 @@
+package com.aliang.rule.strategy;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 大数组的分块并行归约
+ * <p>
+ * 元素数达到阈值的数组按下标切分为连续的分块，在共享的 ForkJoinPool 中并行归约每个分块，
+ * 再由调用方按分块顺序合并。切分只取决于数组长度和线程池并行度，与线程调度无关；
+ * 各聚合策略的合并满足结合律（精确求和、计数、保留先出现者的最值、按顺序拼接字符串），
+ * 结果与顺序执行完全相同。
+ * <p>
+ * 默认不启用（阈值为0），由映射服务按配置设置阈值和线程池。
+ */
+public final class ParallelReduction {
+    private static final ParallelReduction SHARED = new ParallelReduction();
+
+    /**
+     * 每个分块的最少元素数，避免过细的切分
+     */
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    private volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+    private volatile int minSize;
+
+    /**
+     * 获取全局共享的并行归约配置
+     */
+    public static ParallelReduction shared() {
+        return SHARED;
+    }
+
+    /**
+     * 设置线程池与启用阈值
+     *
+     * @param pool    执行分块的线程池，为null时使用公共线程池
+     * @param minSize 启用并行的最小元素数，小于等于0时不启用
+     */
+    public void configure(ForkJoinPool pool, int minSize) {
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+        this.minSize = minSize;
+    }
+
+    /**
+     * 数组是否应并行归约：已启用、达到阈值、支持随机访问且线程池并行度大于1
+     */
+    public boolean accepts(List<?> values) {
+        int threshold = minSize;
+        return threshold > 0 && values != null && values.size() >= threshold
+                && values instanceof RandomAccess && pool.getParallelism() > 1;
+    }
+
+    /**
+     * 并行归约各分块
+     *
+     * @param values  数组
+     * @param reducer 分块归约函数
+     * @return 按分块顺序排列的归约结果
+     */
+    public <R> List<R> reduceChunks(List<?> values, ChunkReducer<R> reducer) {
+        ForkJoinPool current = pool;
+        int size = values.size();
+        int chunks = Math.max(1, Math.min(current.getParallelism() * 4, size / MIN_CHUNK_SIZE));
+        Object[] results = new Object[chunks];
+        ChunkTask task = new ChunkTask(values, reducer, results, 0, chunks);
+        if (ForkJoinTask.getPool() == current) {
+            task.invoke();
+        } else {
+            current.invoke(task);
+        }
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
+    }
+
+    /**
+     * 分块归约函数，处理数组的 [from, to) 区间
+     */
+    @FunctionalInterface
+    public interface ChunkReducer<R> {
+        R reduce(List<?> values, int from, int to);
+    }
+
+    /**
+     * 对分块区间 [lo, hi) 二分执行，每个分块的结果写入对应位置
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<?> values;
+        private final ChunkReducer<?> reducer;
+        private final Object[] results;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(List<?> values, ChunkReducer<?> reducer, Object[] results, int lo, int hi) {
+            this.values = values;
+            this.reducer = reducer;
+            this.results = results;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                int size = values.size();
+                int chunks = results.length;
+                int from = (int) ((long) size * lo / chunks);
+                int to = (int) ((long) size * hi / chunks);
+                results[lo] = reducer.reduce(values, from, to);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ChunkTask(values, reducer, results, lo, mid),
+                    new ChunkTask(values, reducer, results, mid, hi));
+        }
+    }
+}
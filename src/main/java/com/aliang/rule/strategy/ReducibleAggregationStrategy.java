@@ -0,0 +1,51 @@
+package com.aliang.rule.strategy;
+
+import java.util.*;
+
+/**
+ * 可归约的聚合策略
+ * <p>
+ * 值可以按顺序逐个交给 {@link Accumulator}，不需要先得到完整集合。
+ * 源路径为通配符数组时，映射计划在遍历数组的同时累加，不再生成中间集合；
+ * {@link Accumulator#accept} 返回false时结果已确定（如取第一个值），遍历提前结束。
+ * <p>
+ * {@link #apply} 默认按同样的累加器实现，两种执行方式的结果完全一致。
+ * 累加器可以分段合并的策略实现 {@link MergeableAggregationStrategy}，大数组分块并行累加。
+ */
+public interface ReducibleAggregationStrategy extends AggregationStrategy {
+
+    /**
+     * 创建新的累加器，每次聚合使用一个实例
+     */
+    Accumulator newAccumulator();
+
+    @Override
+    default Object apply(List<?> values) {
+        Accumulator accumulator = newAccumulator();
+        if (values != null) {
+            for (Object value : values) {
+                if (!accumulator.accept(value)) {
+                    break;
+                }
+            }
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * 聚合累加器，非线程安全
+     */
+    interface Accumulator {
+        /**
+         * 累加一个值
+         *
+         * @return 还需要后续的值时返回true，结果已确定时返回false
+         */
+        boolean accept(Object value);
+
+        /**
+         * 聚合结果，未累加任何值时与对空集合聚合的结果相同
+         */
+        Object result();
+    }
+}
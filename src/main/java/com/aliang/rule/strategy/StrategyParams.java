@@ -0,0 +1,77 @@
+package com.aliang.rule.strategy;
+
+import java.util.*;
+
+/**
+ * 聚合策略参数
+ * <p>
+ * 配置格式：策略名:key1=value1;key2=value2
+ * 解析后的参数以字符串形式传给策略的创建方法，由策略按需读取为数值。
+ */
+public final class StrategyParams {
+
+    private StrategyParams() {
+    }
+
+    /**
+     * 解析参数部分（冒号之后），格式不正确的键值对会被忽略
+     *
+     * @param params 参数字符串，可为null
+     * @return 参数名到参数值的映射
+     */
+    public static Map<String, String> parse(String params) {
+        Map<String, String> result = new HashMap<>();
+        if (params != null && !params.isEmpty()) {
+            String[] pairs = params.split(";");
+            for (String pair : pairs) {
+                String[] keyValue = pair.split("=");
+                if (keyValue.length == 2) {
+                    result.put(keyValue[0].trim(), keyValue[1].trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 读取整数参数
+     *
+     * @param params       配置参数，可为null
+     * @param name         参数名
+     * @param defaultValue 未配置时的默认值
+     * @return 参数值
+     * @throws IllegalArgumentException 参数值不是整数
+     */
+    public static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params != null ? params.get(name) : null;
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("聚合策略参数 " + name + " 不是整数: " + value, e);
+        }
+    }
+
+    /**
+     * 读取数值参数
+     *
+     * @param params       配置参数，可为null
+     * @param name         参数名
+     * @param defaultValue 未配置时的默认值
+     * @return 参数值
+     * @throws IllegalArgumentException 参数值不是数值
+     */
+    public static double doubleParam(Map<String, String> params, String name, double defaultValue) {
+        String value = params != null ? params.get(name) : null;
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("聚合策略参数 " + name + " 不是数值: " + value, e);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
+import com.aliang.utils.*;
 
 import java.math.*;
-import java.util.*;
-import java.util.stream.*;
 
 /**
  * 平均值聚合策略
@@ -19,20 +18,63 @@ import java.util.stream.*;
  * 2. 使用BigDecimal保证精度
  * 3. 空值、空集合或无数值类型元素返回null
  */
-public class AverageAggregationStrategy implements AggregationStrategy {
+public class AverageAggregationStrategy
+        implements MergeableAggregationStrategy<AverageAggregationStrategy.AverageAccumulator> {
+    /**
+     * 结果保留的小数位数
+     */
+    private static final int SCALE = 10;
+
     @Override
-    public Object apply(List<?> values) {
-        if (values == null || values.isEmpty()) {
-            return null;
+    public AverageAccumulator newAccumulator() {
+        return new AverageAccumulator();
+    }
+
+    static final class AverageAccumulator implements MergeableAccumulator<AverageAccumulator> {
+        private final DecimalAccumulator sum = new DecimalAccumulator();
+
+        @Override
+        public boolean accept(Object value) {
+            if (value instanceof Number) {
+                sum.add(value);
+            }
+            return true;
+        }
+
+        @Override
+        public Object result() {
+            return average(sum);
         }
-        List<BigDecimal> numbers = values.stream()
-                .filter(value -> value instanceof Number)
-                .map(value -> new BigDecimal(value.toString()))
-                .collect(Collectors.toList());
-        if (numbers.isEmpty()) {
+
+        /**
+         * 平均值按和与个数合并
+         */
+        @Override
+        public void merge(AverageAccumulator following) {
+            sum.merge(following.sum);
+        }
+    }
+
+    private static BigDecimal average(DecimalAccumulator sum) {
+        int count = sum.getCount();
+        if (count == 0) {
             return null;
         }
-        BigDecimal sum = numbers.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
-        return sum.divide(new BigDecimal(numbers.size()), 10, RoundingMode.HALF_UP);
+        if (sum.isExact() && sum.getScale() <= SCALE) {
+            long numerator = ScaledDecimal.rescale(sum.getUnscaled(), SCALE - sum.getScale());
+            if (numerator != Long.MIN_VALUE) {
+                return BigDecimal.valueOf(divideHalfUp(numerator, count), SCALE);
+            }
+        }
+        return sum.toBigDecimal().divide(new BigDecimal(count), SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static long divideHalfUp(long dividend, int divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
     }
 } 
\ No newline at end of file
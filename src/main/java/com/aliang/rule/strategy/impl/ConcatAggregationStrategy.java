@@ -3,7 +3,6 @@ package com.aliang.rule.strategy.impl;
 import com.aliang.rule.strategy.*;
 
 import java.util.*;
-import java.util.stream.*;
 
 /**
  * 字符串连接聚合策略（无分隔符）
@@ -24,8 +23,6 @@ public class ConcatAggregationStrategy implements AggregationStrategy {
         if (values == null || values.isEmpty()) {
             return null;
         }
-        return values.stream()
-                .map(Object::toString)
-                .collect(Collectors.joining());
+        return JoinAggregationStrategy.join(values, "");
     }
-} 
\ No newline at end of file
+}
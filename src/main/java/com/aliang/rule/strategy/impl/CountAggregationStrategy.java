@@ -2,8 +2,6 @@ package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
 
-import java.util.*;
-
 /**
  * 计数聚合策略
  * 统计集合中的元素数量
@@ -59,12 +57,30 @@ import java.util.*;
  * 4. null输入将返回0
  * 5. 过滤条件对不同类型的处理方式不同
  */
-public class CountAggregationStrategy implements AggregationStrategy {
+public class CountAggregationStrategy
+        implements MergeableAggregationStrategy<CountAggregationStrategy.CountAccumulator> {
     @Override
-    public Object apply(List<?> values) {
-        if (values == null) {
-            return 0;
+    public CountAccumulator newAccumulator() {
+        return new CountAccumulator();
+    }
+
+    static final class CountAccumulator implements MergeableAccumulator<CountAccumulator> {
+        private int count;
+
+        @Override
+        public boolean accept(Object value) {
+            count++;
+            return true;
+        }
+
+        @Override
+        public Object result() {
+            return count;
+        }
+
+        @Override
+        public void merge(CountAccumulator following) {
+            count += following.count;
         }
-        return values.size();
     }
-} 
\ No newline at end of file
+}
@@ -2,8 +2,6 @@ package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
 
-import java.util.*;
-
 /**
  * 取第一个值聚合策略
  * 返回集合中的第一个元素
@@ -60,14 +58,23 @@ import java.util.*;
  * 4. null输入将返回null
  * 5. 如果找不到符合条件的元素，返回null
  */
-public class FirstAggregationStrategy implements AggregationStrategy {
+public class FirstAggregationStrategy implements ReducibleAggregationStrategy {
     @Override
-    public Object apply(List<?> values) {
-        if (values == null || values.isEmpty()) {
-            return null;
-        }
+    public Accumulator newAccumulator() {
+        return new Accumulator() {
+            private Object first;
+
+            @Override
+            public boolean accept(Object value) {
+                first = value;
+                /*  第一个值即为结果，不再需要后续的值 */
+                return false;
+            }
 
-        Iterator<?> iterator = values.iterator();
-        return iterator.hasNext() ? iterator.next() : null;
+            @Override
+            public Object result() {
+                return first;
+            }
+        };
     }
-} 
\ No newline at end of file
+}
@@ -3,7 +3,6 @@ package com.aliang.rule.strategy.impl;
 import com.aliang.rule.strategy.*;
 
 import java.util.*;
-import java.util.stream.*;
 
 /**
  * 字符串连接聚合策略（带分隔符）
@@ -22,10 +21,14 @@ import java.util.stream.*;
  * 4. 可以配置是否保持数组格式
  */
 public class JoinAggregationStrategy implements AggregationStrategy {
+    /**
+     * 预估容量的上限，避免第一个元素特别长时过量分配
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1 << 24;
+
     private final String delimiter;
     private final boolean keepArrayFormat;
 
-
     public JoinAggregationStrategy(String delimiter, boolean keepArrayFormat) {
         this.delimiter = delimiter;
         this.keepArrayFormat = keepArrayFormat;
@@ -37,10 +40,47 @@ public class JoinAggregationStrategy implements AggregationStrategy {
             return null;
         }
 
-        String result = values.stream()
-                .map(Object::toString)
-                .collect(Collectors.joining(delimiter));
-
+        String result = join(values, delimiter);
         return keepArrayFormat ? "[" + result + "]" : result;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 用分隔符连接全部元素；大数组分块并行连接后按顺序拼接，结果与顺序连接相同
+     *
+     * @throws NullPointerException 元素为null
+     */
+    static String join(List<?> values, String delimiter) {
+        if (!ParallelReduction.shared().accepts(values)) {
+            return join(values, 0, values.size(), delimiter);
+        }
+        List<String> chunks = ParallelReduction.shared().reduceChunks(values,
+                (list, from, to) -> join(list, from, to, delimiter));
+        /*  分块结果的总长度已知，按精确长度创建 */
+        int length = delimiter.length() * (chunks.size() - 1);
+        for (String chunk : chunks) {
+            length += chunk.length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < chunks.size(); i++) {
+            if (i > 0) {
+                builder.append(delimiter);
+            }
+            builder.append(chunks.get(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 连接 [from, to) 区间的元素，按第一个元素的长度和元素个数预估容量
+     */
+    private static String join(List<?> values, int from, int to, String delimiter) {
+        String first = values.get(from).toString();
+        long estimate = (long) (first.length() + delimiter.length()) * (to - from);
+        StringBuilder builder = new StringBuilder((int) Math.min(estimate, MAX_INITIAL_CAPACITY));
+        builder.append(first);
+        for (int i = from + 1; i < to; i++) {
+            builder.append(delimiter).append(values.get(i).toString());
+        }
+        return builder.toString();
+    }
+}
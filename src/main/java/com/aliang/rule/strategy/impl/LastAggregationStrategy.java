@@ -2,8 +2,6 @@ package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
 
-import java.util.*;
-
 /**
  * 取最后一个值聚合策略
  * 返回集合中的最后一个元素
@@ -60,17 +58,22 @@ import java.util.*;
  * 4. null输入将返回null
  * 5. 如果找不到符合条件的元素，返回null
  */
-public class LastAggregationStrategy implements AggregationStrategy {
+public class LastAggregationStrategy implements ReducibleAggregationStrategy {
     @Override
-    public Object apply(List<?> values) {
-        if (values == null || values.isEmpty()) {
-            return null;
-        }
+    public Accumulator newAccumulator() {
+        return new Accumulator() {
+            private Object last;
+
+            @Override
+            public boolean accept(Object value) {
+                last = value;
+                return true;
+            }
 
-        Object last = null;
-        for (Object value : values) {
-            last = value;
-        }
-        return last;
+            @Override
+            public Object result() {
+                return last;
+            }
+        };
     }
-} 
\ No newline at end of file
+}
@@ -1,9 +1,9 @@
 package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
+import com.aliang.utils.*;
 
 import java.math.*;
-import java.util.*;
 
 /**
  * 取最大值聚合策略
@@ -60,29 +60,57 @@ import java.util.*;
  * 4. null值会被忽略
  * 5. 空集合返回null
  */
-public class MaxAggregationStrategy implements AggregationStrategy {
+public class MaxAggregationStrategy implements MergeableAggregationStrategy<MaxAggregationStrategy.MaxAccumulator> {
     @Override
-    public Object apply(List<?> values) {
-        if (values == null || values.isEmpty()) {
-            return null;
-        }
+    public MaxAccumulator newAccumulator() {
+        return new MaxAccumulator();
+    }
 
-        BigDecimal max = null;
-        for (Object value : values) {
+    static final class MaxAccumulator implements MergeableAccumulator<MaxAccumulator> {
+        /*  能用 long 尾数表示的值直接比较，其余转换为 BigDecimal */
+        private ScaledDecimal fast;
+        private BigDecimal max;
+
+        @Override
+        public boolean accept(Object value) {
             if (value == null) {
-                continue;
+                return true;
             }
 
+            ScaledDecimal decimal = ScaledDecimal.of(value);
+            if (decimal != null) {
+                if (fast == null && max == null) {
+                    fast = decimal;
+                } else if (fast != null ? decimal.compareTo(fast) > 0 : decimal.toBigDecimal().compareTo(max) > 0) {
+                    fast = decimal;
+                    max = null;
+                }
+                return true;
+            }
             try {
                 BigDecimal current = new BigDecimal(value.toString());
-                if (max == null || current.compareTo(max) > 0) {
+                BigDecimal best = fast != null ? fast.toBigDecimal() : max;
+                if (best == null || current.compareTo(best) > 0) {
                     max = current;
+                    fast = null;
                 }
             } catch (NumberFormatException ignored) {
                 // 忽略无法转换的值
             }
+            return true;
+        }
+
+        @Override
+        public Object result() {
+            return fast != null ? fast.toBigDecimal() : max;
         }
 
-        return max;
+        /**
+         * 后一段的结果只在严格更大时替换当前结果，相等时保留先出现的值
+         */
+        @Override
+        public void merge(MaxAccumulator following) {
+            accept(following.result());
+        }
     }
-} 
\ No newline at end of file
+}
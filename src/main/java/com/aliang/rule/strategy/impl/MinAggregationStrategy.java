@@ -1,9 +1,9 @@
 package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
+import com.aliang.utils.*;
 
 import java.math.*;
-import java.util.*;
 
 /**
  * 取最小值聚合策略
@@ -60,29 +60,57 @@ import java.util.*;
  * 4. null值会被忽略
  * 5. 空集合返回null
  */
-public class MinAggregationStrategy implements AggregationStrategy {
+public class MinAggregationStrategy implements MergeableAggregationStrategy<MinAggregationStrategy.MinAccumulator> {
     @Override
-    public Object apply(List<?> values) {
-        if (values == null || values.isEmpty()) {
-            return null;
-        }
+    public MinAccumulator newAccumulator() {
+        return new MinAccumulator();
+    }
 
-        BigDecimal min = null;
-        for (Object value : values) {
+    static final class MinAccumulator implements MergeableAccumulator<MinAccumulator> {
+        /*  能用 long 尾数表示的值直接比较，其余转换为 BigDecimal */
+        private ScaledDecimal fast;
+        private BigDecimal min;
+
+        @Override
+        public boolean accept(Object value) {
             if (value == null) {
-                continue;
+                return true;
             }
 
+            ScaledDecimal decimal = ScaledDecimal.of(value);
+            if (decimal != null) {
+                if (fast == null && min == null) {
+                    fast = decimal;
+                } else if (fast != null ? decimal.compareTo(fast) < 0 : decimal.toBigDecimal().compareTo(min) < 0) {
+                    fast = decimal;
+                    min = null;
+                }
+                return true;
+            }
             try {
                 BigDecimal current = new BigDecimal(value.toString());
-                if (min == null || current.compareTo(min) < 0) {
+                BigDecimal best = fast != null ? fast.toBigDecimal() : min;
+                if (best == null || current.compareTo(best) < 0) {
                     min = current;
+                    fast = null;
                 }
             } catch (NumberFormatException ignored) {
                 /*  忽略无法转换的值 */
             }
+            return true;
+        }
+
+        @Override
+        public Object result() {
+            return fast != null ? fast.toBigDecimal() : min;
         }
 
-        return min;
+        /**
+         * 后一段的结果只在严格更小时替换当前结果，相等时保留先出现的值
+         */
+        @Override
+        public void merge(MinAccumulator following) {
+            accept(following.result());
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.aliang.rule.strategy.impl;
+
+import com.aliang.rule.strategy.*;
+import com.aliang.utils.*;
+
+import java.math.*;
+import java.util.*;
+
+/**
+ * 分位数聚合策略
+ * 计算集合中数值类型元素的分位数（p50、p95、p99、median 等）
+ * <p>
+ * 配置格式：percentile:p=95;compression=100;exactThreshold=10000
+ * - p: 百分位，取值 [0, 100]；p50/p95/p99/median 已固定百分位
+ * - compression: t-digest 压缩参数，越大越精确，默认100
+ * - exactThreshold: 数值个数不超过该值时精确计算，默认10000
+ * <p>
+ * 示例：
+ * 配置：median
+ * 输入：[1, 2, 3, 4]
+ * 输出：2.5
+ * <p>
+ * 特点：
+ * 1. 只处理Number类型的有限值
+ * 2. 精确计算时按 rank = p × (n - 1) 在相邻两个值之间线性插值，使用BigDecimal保证精度
+ * 3. 超过精确计算阈值后改用 t-digest 估计，内存不再随数据量增长
+ * 4. 空值、空集合或无数值类型元素返回null
+ */
+public class PercentileAggregationStrategy implements ReducibleAggregationStrategy {
+    private static final double DEFAULT_COMPRESSION = 100;
+    private static final int DEFAULT_EXACT_THRESHOLD = 10000;
+
+    private final double percentile;
+    private final double compression;
+    private final int exactThreshold;
+
+    /**
+     * @param percentile     百分位，取值 [0, 100]
+     * @param compression    t-digest 压缩参数，不小于10
+     * @param exactThreshold 精确计算的最大数值个数，小于等于0时始终估计
+     */
+    public PercentileAggregationStrategy(double percentile, double compression, int exactThreshold) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("百分位应在 0 到 100 之间: " + percentile);
+        }
+        if (!(compression >= 10)) {
+            throw new IllegalArgumentException("t-digest 压缩参数不能小于10: " + compression);
+        }
+        this.percentile = percentile;
+        this.compression = compression;
+        this.exactThreshold = exactThreshold;
+    }
+
+    /**
+     * 按配置参数创建
+     *
+     * @param percentile 固定的百分位，为null时读取参数 p
+     * @param params     配置参数
+     * @return 聚合策略
+     */
+    public static PercentileAggregationStrategy of(Double percentile, Map<String, String> params) {
+        double p = percentile != null ? percentile : StrategyParams.doubleParam(params, "p", 50);
+        return new PercentileAggregationStrategy(p,
+                StrategyParams.doubleParam(params, "compression", DEFAULT_COMPRESSION),
+                StrategyParams.intParam(params, "exactThreshold", DEFAULT_EXACT_THRESHOLD));
+    }
+
+    @Override
+    public Accumulator newAccumulator() {
+        return new PercentileAccumulator();
+    }
+
+    private final class PercentileAccumulator implements Accumulator {
+        private List<BigDecimal> exact = new ArrayList<>();
+        private boolean sorted = true;
+        private TDigest digest;
+
+        @Override
+        public boolean accept(Object value) {
+            if (!(value instanceof Number)) {
+                return true;
+            }
+            if (value instanceof Double || value instanceof Float) {
+                double number = ((Number) value).doubleValue();
+                if (Double.isNaN(number) || Double.isInfinite(number)) {
+                    return true;
+                }
+            }
+            if (digest != null) {
+                digest.add(((Number) value).doubleValue());
+                return true;
+            }
+            exact.add(ScaledDecimal.bigDecimalOf(value));
+            sorted = false;
+            if (exact.size() > exactThreshold) {
+                /*  超过阈值，改用 t-digest 估计 */
+                digest = new TDigest(compression);
+                for (BigDecimal decimal : exact) {
+                    digest.add(decimal.doubleValue());
+                }
+                exact = null;
+            }
+            return true;
+        }
+
+        @Override
+        public Object result() {
+            if (digest != null) {
+                return BigDecimal.valueOf(digest.quantile(percentile / 100));
+            }
+            if (exact.isEmpty()) {
+                return null;
+            }
+            if (!sorted) {
+                /*  只在有新值加入后排序，重复取结果不再排序 */
+                Collections.sort(exact);
+                sorted = true;
+            }
+            BigDecimal rank = BigDecimal.valueOf(percentile).movePointLeft(2).multiply(BigDecimal.valueOf(exact.size() - 1));
+            int index = rank.intValue();
+            BigDecimal lower = exact.get(index);
+            if (index + 1 >= exact.size()) {
+                return lower;
+            }
+            BigDecimal fraction = rank.subtract(BigDecimal.valueOf(index));
+            if (fraction.signum() == 0) {
+                return lower;
+            }
+            /*  小数部分在 (0, 1) 之间，去掉末尾的0不会产生负的小数位数 */
+            fraction = fraction.stripTrailingZeros();
+            return lower.add(exact.get(index + 1).subtract(lower).multiply(fraction));
+        }
+    }
+}
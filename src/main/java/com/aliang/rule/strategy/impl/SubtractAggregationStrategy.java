@@ -1,6 +1,7 @@
 package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
+import com.aliang.utils.*;
 
 import java.math.*;
 import java.util.*;
@@ -30,15 +31,15 @@ public class SubtractAggregationStrategy implements AggregationStrategy {
             throw new IllegalArgumentException("SUBTRACT 策略只支持数字类型");
         }
 
-        BigDecimal result = new BigDecimal(values.get(0).toString());
+        DecimalAccumulator result = new DecimalAccumulator(values.get(0));
         for (int i = 1; i < values.size(); i++) {
             Object value = values.get(i);
             if (value instanceof Number) {
-                result = result.subtract(new BigDecimal(value.toString()));
+                result.subtract(value);
             } else {
                 throw new IllegalArgumentException("SUBTRACT 策略只支持数字类型");
             }
         }
-        return result;
+        return result.toBigDecimal();
     }
 } 
\ No newline at end of file
@@ -1,9 +1,7 @@
 package com.aliang.rule.strategy.impl;
 
 import com.aliang.rule.strategy.*;
-
-import java.math.*;
-import java.util.*;
+import com.aliang.utils.*;
 
 /**
  * 求和聚合策略
@@ -18,18 +16,35 @@ import java.util.*;
  * 2. 使用BigDecimal保证精度
  * 3. 空值或空集合返回null
  */
-public class SumAggregationStrategy implements AggregationStrategy {
+public class SumAggregationStrategy implements MergeableAggregationStrategy<SumAggregationStrategy.SumAccumulator> {
     @Override
-    public Object apply(List<?> values) {
-        if (values == null || values.isEmpty()) {
-            return null;
+    public SumAccumulator newAccumulator() {
+        return new SumAccumulator();
+    }
+
+    static final class SumAccumulator implements MergeableAccumulator<SumAccumulator> {
+        /*  在 long 尾数上累加，溢出时改用 BigDecimal */
+        private final DecimalAccumulator sum = new DecimalAccumulator();
+        private boolean seen;
+
+        @Override
+        public boolean accept(Object value) {
+            seen = true;
+            if (value instanceof Number) {
+                sum.add(value);
+            }
+            return true;
         }
 
-        BigDecimal sum = values.stream()
-                .filter(value -> value instanceof Number)
-                .map(value -> new BigDecimal(value.toString()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        @Override
+        public Object result() {
+            return seen ? sum.toBigDecimal() : null;
+        }
 
-        return sum;
+        @Override
+        public void merge(SumAccumulator following) {
+            seen |= following.seen;
+            sum.merge(following.sum);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.aliang.service;
 
 import com.aliang.registry.*;
 import com.aliang.registry.factory.*;
+import com.aliang.registry.parse.*;
 import com.alibaba.fastjson.*;
 import org.bson.*;
 import org.slf4j.*;
@@ -10,7 +11,9 @@ import org.springframework.data.mongodb.core.*;
 import org.springframework.data.mongodb.core.query.*;
 import org.springframework.stereotype.*;
 
+import javax.annotation.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 @Service
 public abstract class BaseMappingService {
@@ -25,12 +28,128 @@ public abstract class BaseMappingService {
     @Value("${your.collection.name}")
     protected String collectionName;
 
+    /**
+     * 规则缓存最多保留的产品编码数量
+     */
+    @Value("${mapping.rule-cache.max-size:1000}")
+    protected int ruleCacheMaxSize;
+
+    /**
+     * 规则缓存过期时间（毫秒），小于等于0表示永不过期
+     */
+    @Value("${mapping.rule-cache.ttl-ms:300000}")
+    protected long ruleCacheTtlMillis;
+
     protected final MappingRegistry mappingRegistry;
     protected final ProcessorFactory processorFactory;
 
+    /**
+     * 规则加载锁，按产品编码分段，避免同一编码并发回源
+     */
+    private final Object[] loadLocks = new Object[64];
+
+    /**
+     * 已加载规则文档的 _id 到产品编码的映射
+     */
+    private final Map<String, String> ruleCodesById = new ConcurrentHashMap<>();
+
     protected BaseMappingService() {
         this.mappingRegistry = new MappingRegistry();
         this.processorFactory = new ProcessorFactory();
+        for (int i = 0; i < loadLocks.length; i++) {
+            loadLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void initRuleCache() {
+        mappingRegistry.setMaxSize(ruleCacheMaxSize);
+        mappingRegistry.setTtlMillis(ruleCacheTtlMillis);
+    }
+
+    /**
+     * 确保产品编码的映射规则已加载到注册中心
+     * <p>
+     * 缓存命中且未过期时直接返回，不访问MongoDB也不解析规则；
+     * 否则从MongoDB加载并整体替换该编码的规则。
+     * 调用方应使用返回的规则集快照执行映射：返回之后该编码仍可能被淘汰或失效。
+     *
+     * @param code 产品编码
+     * @return 已检查或新加载的规则集
+     * @throws IllegalArgumentException 如果MongoDB中不存在该产品编码的配置
+     */
+    protected MappingRuleSet loadRules(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            throw new IllegalArgumentException("产品编码不能为空");
+        }
+        MappingRuleSet ruleSet = mappingRegistry.getFreshRuleSet(code);
+        if (ruleSet != null) {
+            return ruleSet;
+        }
+        synchronized (loadLockOf(code)) {
+            ruleSet = mappingRegistry.getFreshRuleSet(code);
+            if (ruleSet != null) {
+                return ruleSet;
+            }
+            return doLoadRules(code);
+        }
+    }
+
+    /**
+     * 从MongoDB重新加载产品编码的映射规则并替换缓存
+     *
+     * @param code 产品编码
+     * @throws IllegalArgumentException 如果MongoDB中不存在该产品编码的配置
+     */
+    public void refreshRules(String code) {
+        synchronized (loadLockOf(code)) {
+            doLoadRules(code);
+        }
+    }
+
+    private MappingRuleSet doLoadRules(String code) {
+        JSONObject mappingConfig = getMappingConfigFromMongo(code);
+        if (mappingConfig == null) {
+            mappingRegistry.clearMappings(code);
+            throw new IllegalArgumentException("未找到产品映射配置: " + code);
+        }
+        MappingRuleSet ruleSet = mappingRegistry.replaceMappings(code, MappingConfigParser.parse(mappingConfig));
+        rememberRuleId(code, mappingConfig.get("_id"));
+        logger.debug("加载映射规则 - code: {}", code);
+        return ruleSet;
+    }
+
+    private Object loadLockOf(String code) {
+        return loadLocks[(code.hashCode() & 0x7fffffff) % loadLocks.length];
+    }
+
+    private void rememberRuleId(String code, Object id) {
+        if (id instanceof JSONObject && ((JSONObject) id).containsKey("$oid")) {
+            id = ((JSONObject) id).getString("$oid");
+        }
+        if (id != null) {
+            ruleCodesById.put(String.valueOf(id), code);
+        }
+    }
+
+    /**
+     * 根据规则文档的 _id 查找已加载的产品编码
+     * 用于处理只携带文档主键的删除事件
+     *
+     * @param ruleId 规则文档 _id 的字符串形式
+     * @return 产品编码，未加载过时返回null
+     */
+    public String findCodeByRuleId(String ruleId) {
+        return ruleId != null ? ruleCodesById.get(ruleId) : null;
+    }
+
+    /**
+     * 使产品编码的缓存规则失效，下次请求时重新加载
+     *
+     * @param code 产品编码
+     */
+    public void invalidateRules(String code) {
+        mappingRegistry.clearMappings(code);
     }
 
     /**
@@ -0,0 +1,118 @@
+package com.aliang.service;
+
+import com.aliang.registry.dictionary.*;
+import com.mongodb.client.*;
+import com.mongodb.client.model.*;
+import org.bson.*;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.data.mongodb.core.*;
+import org.springframework.stereotype.*;
+
+import javax.annotation.*;
+
+/**
+ * 码表字典加载与刷新
+ * <p>
+ * mapvalue 处理器通过 {@code mapvalue:@名称} 引用的字典从 MongoDB 集合 {@code 前缀+名称} 加载，
+ * 集合中每条文档表示一个键值对：{@code {key: "110000", value: "北京市", updatedAt: ...}}。
+ * <p>
+ * 后台线程定时比较已加载字典的版本戳（文档数、最大 updatedAt 与最大 _id），变化时重新加载并替换，
+ * 修改字典数据时需要同时更新 updatedAt 字段。
+ */
+@Component
+public class DictionaryWatcher implements DictionaryLoader {
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryWatcher.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final DictionaryRegistry registry;
+    private final String collectionPrefix;
+    private final long refreshIntervalMillis;
+    private final boolean enabled;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public DictionaryWatcher(MongoTemplate mongoTemplate,
+                             @Value("${mapping.dictionary.collection-prefix:dict_}") String collectionPrefix,
+                             @Value("${mapping.dictionary.refresh-interval-ms:60000}") long refreshIntervalMillis,
+                             @Value("${mapping.dictionary.enabled:true}") boolean enabled) {
+        this(mongoTemplate, DictionaryRegistry.shared(), collectionPrefix, refreshIntervalMillis, enabled);
+    }
+
+    public DictionaryWatcher(MongoTemplate mongoTemplate, DictionaryRegistry registry, String collectionPrefix,
+                             long refreshIntervalMillis, boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.registry = registry;
+        this.collectionPrefix = collectionPrefix;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        registry.setLoader(this);
+        if (!enabled || running || refreshIntervalMillis <= 0) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "dictionary-watcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(refreshIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (String name : registry.getNames()) {
+                try {
+                    if (registry.refresh(name)) {
+                        logger.info("字典已刷新 - 字典: {}", name);
+                    }
+                } catch (Exception e) {
+                    logger.warn("刷新字典失败 - 字典: {}, 错误: {}", name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public CodeDictionary load(String name) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionPrefix + name);
+        CodeDictionary.Builder builder = CodeDictionary.builder((int) Math.min(collection.estimatedDocumentCount(), Integer.MAX_VALUE));
+        for (Document doc : collection.find().projection(Projections.include("key", "value"))) {
+            Object key = doc.get("key");
+            Object value = doc.get("value");
+            if (key != null && value != null) {
+                builder.put(key.toString(), value.toString());
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String stamp(String name) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionPrefix + name);
+        Document latestUpdate = collection.find().projection(Projections.include("updatedAt"))
+                .sort(Sorts.descending("updatedAt")).limit(1).first();
+        Document latestId = collection.find().projection(Projections.include("_id"))
+                .sort(Sorts.descending("_id")).limit(1).first();
+        return collection.countDocuments() + "/"
+                + (latestUpdate != null ? latestUpdate.get("updatedAt") : null) + "/"
+                + (latestId != null ? latestId.get("_id") : null);
+    }
+}
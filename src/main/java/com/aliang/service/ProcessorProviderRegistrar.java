@@ -0,0 +1,30 @@
+package com.aliang.service;
+
+import com.aliang.registry.factory.*;
+import org.slf4j.*;
+import org.springframework.beans.factory.*;
+import org.springframework.stereotype.*;
+
+import javax.annotation.*;
+
+/**
+ * 将 Spring 容器中的 {@link ProcessorProvider} Bean 注册到共享的处理器注册表
+ */
+@Component
+public class ProcessorProviderRegistrar {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessorProviderRegistrar.class);
+
+    private final ObjectProvider<ProcessorProvider> providers;
+
+    public ProcessorProviderRegistrar(ObjectProvider<ProcessorProvider> providers) {
+        this.providers = providers;
+    }
+
+    @PostConstruct
+    public void register() {
+        providers.orderedStream().forEach(provider -> {
+            ProcessorRegistry.shared().register(provider);
+            logger.info("已注册处理器扩展 - provider: {}", provider.getClass().getName());
+        });
+    }
+}
@@ -1,18 +1,98 @@
 package com.aliang.service;
 
+import com.aliang.logger.*;
+import com.aliang.registry.*;
 import com.aliang.registry.engine.*;
-import com.aliang.registry.parse.*;
+import com.aliang.registry.plan.*;
+import com.aliang.rule.strategy.*;
 import com.alibaba.fastjson.*;
 import org.slf4j.*;
+import org.springframework.beans.factory.annotation.*;
 import org.springframework.stereotype.*;
 
 import javax.annotation.*;
+import java.io.*;
+import java.nio.charset.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 @Service
 public class ProductMappingService extends BaseMappingService {
     private static final Logger logger = LoggerFactory.getLogger(ProductMappingService.class);
     private MappingEngine engine;
+    private ForkJoinPool parallelPool;
+
+    /**
+     * 是否并行执行批量与流式映射
+     */
+    @Value("${mapping.parallel.enabled:false}")
+    protected boolean parallelEnabled;
+
+    /**
+     * 并行线程数，小于等于0时使用CPU核数
+     */
+    @Value("${mapping.parallel.threads:0}")
+    protected int parallelThreads;
+
+    /**
+     * 每个分块的目标大小（JSON 字符数）
+     */
+    @Value("${mapping.parallel.chunk-chars:65536}")
+    protected int parallelChunkChars;
+
+    /**
+     * 同时执行的最大分块数，小于等于0时取线程数的两倍
+     */
+    @Value("${mapping.parallel.max-in-flight:0}")
+    protected int parallelMaxInFlight;
+
+    /**
+     * 批量映射启用并行的最小数据条数
+     */
+    @Value("${mapping.parallel.min-batch-size:64}")
+    protected int parallelMinBatchSize;
+
+    /**
+     * 是否对超宽规则的单文档映射按字段并行
+     */
+    @Value("${mapping.parallel.field.enabled:false}")
+    protected boolean fieldParallelEnabled;
+
+    /**
+     * 启用字段并行的最小字段数
+     */
+    @Value("${mapping.parallel.field.min-fields:200}")
+    protected int fieldParallelMinFields;
+
+    /**
+     * 启用字段并行的最小估算成本
+     */
+    @Value("${mapping.parallel.field.min-cost:2000}")
+    protected int fieldParallelMinCost;
+
+    /**
+     * 聚合策略分块并行归约的最小数组长度，小于等于0时不启用
+     */
+    @Value("${mapping.parallel.aggregation.min-size:0}")
+    protected int aggregationParallelMinSize;
+
+    /**
+     * 错误日志采样间隔，每N条同类错误只输出1条，小于等于1时不采样
+     */
+    @Value("${mapping.logging.error-sample-rate:1}")
+    protected int errorLogSampleRate;
+
+    /**
+     * 每个时间窗口最多输出的同类错误日志条数，小于等于0时不限流
+     */
+    @Value("${mapping.logging.error-max-per-interval:0}")
+    protected int errorLogMaxPerInterval;
+
+    /**
+     * 错误日志限流的时间窗口（毫秒）
+     */
+    @Value("${mapping.logging.error-interval-ms:1000}")
+    protected long errorLogIntervalMillis;
 
     public ProductMappingService() {
         super();
@@ -20,31 +100,96 @@ public class ProductMappingService extends BaseMappingService {
 
     @PostConstruct
     public void initEngine() {
+        ErrorLogThrottle.shared().configure(errorLogSampleRate, errorLogMaxPerInterval, errorLogIntervalMillis);
         this.engine = new MappingEngine(mappingRegistry);
+        /*  未创建映射线程池时，大数组的聚合在公共线程池中并行 */
+        ParallelReduction.shared().configure(null, aggregationParallelMinSize);
+        if (!parallelEnabled && !fieldParallelEnabled) {
+            return;
+        }
+        int threads = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+        this.parallelPool = new ForkJoinPool(threads);
+        ParallelReduction.shared().configure(parallelPool, aggregationParallelMinSize);
+        if (parallelEnabled) {
+            engine.setParallelExecutor(new ParallelMappingExecutor(parallelPool, threads,
+                    parallelChunkChars, parallelMaxInFlight, parallelMinBatchSize));
+        }
+        if (fieldParallelEnabled) {
+            engine.setFieldParallelism(new FieldParallelism(parallelPool, threads,
+                    fieldParallelMinFields, fieldParallelMinCost));
+        }
+        logger.info("并行映射已启用 - 线程数: {}, 批量并行: {}, 字段并行: {}", threads, parallelEnabled, fieldParallelEnabled);
+    }
+
+    @PreDestroy
+    public void shutdownEngine() {
+        if (parallelPool != null) {
+            ParallelReduction.shared().configure(null, aggregationParallelMinSize);
+            parallelPool.shutdown();
+        }
     }
 
     @Override
     public Map<String, Object> processMapping(String productCode, Map<String, Object> source, Map<String, Object> targetTemplate) {
         try {
-            /*  获取映射配置 */
-            JSONObject mappingConfig = getMappingConfigFromMongo(productCode);
-            if (mappingConfig == null) {
-                throw new IllegalArgumentException("未找到产品映射配置: " + productCode);
-            }
-
-            /*  清理旧规则并注册新规则 */
-            mappingRegistry.clearMappings(productCode);
-            MappingConfigParser.parseAndRegister(mappingConfig, mappingRegistry);
+            /*  加载映射规则（缓存命中时不访问MongoDB），使用加载时的规则集，不受随后的淘汰或失效影响 */
+            CompiledMappingPlan plan = engine.getPlan(loadRules(productCode));
 
             /*  执行映射 */
             JSONObject sourceJson = new JSONObject(source);
             // 创建全新的模板对象，避免引用问题
             JSONObject targetJson = JSON.parseObject(JSON.toJSONString(targetTemplate));
-            JSONObject result = engine.executeMapping(productCode, sourceJson, targetJson);
+            JSONObject result = engine.executeMapping(plan, sourceJson, targetJson);
             return result.getInnerMap();
         } catch (Exception e) {
             logger.error("映射处理失败 - 产品编码: {}, 错误: {}", productCode, e.getMessage());
             throw new RuntimeException("处理产品映射失败", e);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 批量处理映射
+     * <p>
+     * 同一产品编码的多条数据只加载一次规则，结果顺序与输入一致，单条失败不影响其他数据。
+     *
+     * @param productCode 产品编码
+     * @param sources     源数据列表
+     * @return 每条数据的映射结果
+     */
+    public List<MappingItemResult> processBatch(String productCode, List<Map<String, Object>> sources) {
+        try {
+            CompiledMappingPlan plan = engine.getPlan(loadRules(productCode));
+
+            List<JSONObject> sourceJsons = new ArrayList<>(sources.size());
+            for (Map<String, Object> source : sources) {
+                sourceJsons.add(source != null ? new JSONObject(source) : null);
+            }
+            return engine.executeBatch(plan, sourceJsons);
+        } catch (Exception e) {
+            logger.error("批量映射处理失败 - 产品编码: {}, 错误: {}", productCode, e.getMessage());
+            throw new RuntimeException("处理产品批量映射失败", e);
+        }
+    }
+
+    /**
+     * 流式处理映射
+     * <p>
+     * 从输入流逐行读取 NDJSON（UTF-8），映射后逐行写入输出流，适用于大批量数据的重新映射。
+     *
+     * @param productCode 产品编码
+     * @param in          NDJSON 输入流
+     * @param out         NDJSON 输出流
+     * @return 处理统计
+     */
+    public MappingStreamResult processStream(String productCode, InputStream in, OutputStream out) {
+        try {
+            CompiledMappingPlan plan = engine.getPlan(loadRules(productCode));
+            return engine.executeStream(plan,
+                    new InputStreamReader(in, StandardCharsets.UTF_8),
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            logger.error("流式映射处理失败 - 产品编码: {}, 错误: {}", productCode, e.getMessage());
+            throw new RuntimeException("处理产品流式映射失败", e);
+        }
+    }
+}
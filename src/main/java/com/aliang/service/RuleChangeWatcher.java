@@ -0,0 +1,352 @@
+package com.aliang.service;
+
+import com.mongodb.*;
+import com.mongodb.client.*;
+import com.mongodb.client.model.changestream.*;
+import org.bson.*;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.data.mongodb.core.*;
+import org.springframework.data.mongodb.core.query.*;
+import org.springframework.stereotype.*;
+
+import javax.annotation.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 映射规则变更监听器
+ * <p>
+ * 监听 mapping_rules 集合的变更，并只刷新受影响产品编码的缓存规则：
+ * 1. 优先使用 MongoDB Change Stream（副本集/分片集群）
+ * 2. 服务端不支持 Change Stream（单机部署）时，退化为定时轮询 code/updatedAt/version 字段
+ * 3. Change Stream 因主节点切换、网络等原因中断时，重试期间以轮询兜底，重试间隔按指数退避；
+ *    断点已不可恢复（oplog 历史丢失、resume token 失效）时丢弃断点重新开启监听
+ * <p>
+ * 每个应用节点各自监听同一集合，因此规则修改可以传播到所有节点。
+ * 只有本节点已缓存的产品编码会被重新加载；已删除的规则会从缓存中清理。
+ */
+@Component
+public class RuleChangeWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(RuleChangeWatcher.class);
+
+    /**
+     * 服务端不支持 Change Stream 的错误码：仅支持副本集(40573)、不识别 $changeStream 阶段(40324)、命令不支持(115)
+     */
+    private static final Set<Integer> UNSUPPORTED_CODES = new HashSet<>(Arrays.asList(40573, 40324, 115));
+
+    /**
+     * 断点不可恢复的错误码：InvalidResumeToken(260)、ChangeStreamFatalError(280)、ChangeStreamHistoryLost(286)
+     */
+    private static final Set<Integer> RESUME_FAILED_CODES = new HashSet<>(Arrays.asList(260, 280, 286));
+
+    /**
+     * Change Stream 重试间隔上限
+     */
+    private static final long MAX_RETRY_INTERVAL_MILLIS = 60000;
+
+    private final MongoTemplate mongoTemplate;
+    private final String collectionName;
+    private final List<BaseMappingService> services;
+    private final long pollIntervalMillis;
+    private final boolean enabled;
+
+    /**
+     * 轮询模式下上一次看到的规则快照：产品编码 -> 版本戳
+     */
+    private final Map<String, String> lastStamps = new HashMap<>();
+
+    /**
+     * lastStamps 是否为可比较的基线；进入轮询时重置，下一次轮询重新建立基线
+     */
+    private boolean baselined;
+
+    private volatile boolean running;
+    private volatile boolean polling;
+    private Thread worker;
+
+    public RuleChangeWatcher(MongoTemplate mongoTemplate,
+                             @Value("${your.collection.name}") String collectionName,
+                             List<BaseMappingService> services,
+                             @Value("${mapping.rule-watch.poll-interval-ms:5000}") long pollIntervalMillis,
+                             @Value("${mapping.rule-watch.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.collectionName = collectionName;
+        this.services = services;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "rule-change-watcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * 当前是否处于轮询模式
+     */
+    public boolean isPolling() {
+        return polling;
+    }
+
+    private void run() {
+        BsonDocument resumeToken = null;
+        long retryMillis = pollIntervalMillis;
+        while (running) {
+            try {
+                resumeToken = watchChangeStream(resumeToken);
+                continue;
+            } catch (MongoCommandException e) {
+                if (!running) {
+                    return;
+                }
+                if (UNSUPPORTED_CODES.contains(e.getErrorCode())) {
+                    logger.warn("服务端不支持Change Stream，改为轮询规则变更 - 错误: {}", e.getErrorMessage());
+                    pollUntil(Long.MAX_VALUE);
+                    return;
+                }
+                if (resumeToken != null && RESUME_FAILED_CODES.contains(e.getErrorCode())) {
+                    /*  断点已不可恢复，丢弃后重新开启监听，开启后刷新全部规则 */
+                    logger.warn("Change Stream断点已失效，重新开启监听 - 错误: {}", e.getErrorMessage());
+                    resumeToken = null;
+                    continue;
+                }
+                logger.warn("规则变更监听失败，{}ms后重试，期间轮询规则变更 - 错误: {}", retryMillis, e.getErrorMessage());
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("规则变更监听中断，{}ms后重试，期间轮询规则变更 - 错误: {}", retryMillis, e.getMessage());
+            }
+            if (!polling) {
+                /*  监听曾经成功开启，重新从最小间隔开始退避 */
+                retryMillis = pollIntervalMillis;
+            }
+            pollUntil(System.currentTimeMillis() + retryMillis);
+            retryMillis = Math.max(pollIntervalMillis, Math.min(retryMillis * 2, MAX_RETRY_INTERVAL_MILLIS));
+        }
+    }
+
+    /**
+     * 轮询规则变更直到指定时间或监听器停止
+     * <p>
+     * 从监听切换到轮询时重新建立基线并刷新本节点缓存的全部规则，
+     * 避免监听中断到第一次轮询之间的修改被遗漏。
+     *
+     * @param deadline 截止时间（毫秒时间戳）
+     */
+    private void pollUntil(long deadline) {
+        if (!polling) {
+            synchronized (lastStamps) {
+                baselined = false;
+            }
+            pollSafely();
+            polling = true;
+        }
+        while (running && System.currentTimeMillis() < deadline) {
+            sleep(pollIntervalMillis);
+            if (running) {
+                pollSafely();
+            }
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            pollOnce();
+        } catch (Exception e) {
+            logger.warn("轮询规则变更失败 - 错误: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 通过 Change Stream 监听规则集合，直到监听器停止或出现异常
+     *
+     * @param resumeToken 断点续传位置，可为null
+     * @return 最后处理的事件位置
+     */
+    protected BsonDocument watchChangeStream(BsonDocument resumeToken) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+        ChangeStreamIterable<Document> stream = collection.watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            logger.info("已开启规则变更监听 - collection: {}", collectionName);
+            polling = false;
+            if (resumeToken == null) {
+                /*  没有断点可续传，开启前的修改不会再收到事件 */
+                refreshAll();
+            }
+            while (running) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event == null) {
+                    continue;
+                }
+                resumeToken = event.getResumeToken();
+                handleChangeEvent(event);
+            }
+        }
+        return resumeToken;
+    }
+
+    private void handleChangeEvent(ChangeStreamDocument<Document> event) {
+        OperationType type = event.getOperationType();
+        Document fullDocument = event.getFullDocument();
+        String code = fullDocument != null ? fullDocument.getString("code") : null;
+        if (code == null && event.getDocumentKey() != null) {
+            code = findCodeByRuleId(ruleIdOf(event.getDocumentKey().get("_id")));
+        }
+
+        switch (type) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                if (code != null) {
+                    refresh(code);
+                } else {
+                    refreshAll();
+                }
+                break;
+            case DELETE:
+                if (code != null) {
+                    invalidate(code);
+                } else {
+                    refreshAll();
+                }
+                break;
+            default:
+                /*  集合被删除或重命名，全部刷新 */
+                refreshAll();
+                break;
+        }
+    }
+
+    /**
+     * 轮询一次规则版本戳，刷新发生变化的产品编码
+     */
+    void pollOnce() {
+        Map<String, String> stamps = fetchRuleStamps();
+        synchronized (lastStamps) {
+            if (baselined) {
+                for (Map.Entry<String, String> entry : stamps.entrySet()) {
+                    String previous = lastStamps.get(entry.getKey());
+                    if (previous != null && !previous.equals(entry.getValue())) {
+                        refresh(entry.getKey());
+                    }
+                }
+                for (String code : lastStamps.keySet()) {
+                    if (!stamps.containsKey(code)) {
+                        invalidate(code);
+                    }
+                }
+            }
+            lastStamps.clear();
+            lastStamps.putAll(stamps);
+            if (!baselined) {
+                /*  没有可比较的基线，记录基线后刷新全部规则，之后的修改由下一次轮询发现 */
+                baselined = true;
+                refreshAll();
+            }
+        }
+    }
+
+    /**
+     * 读取所有规则的版本戳（仅投影 code/updatedAt/version 字段）
+     *
+     * @return 产品编码到版本戳的映射
+     */
+    protected Map<String, String> fetchRuleStamps() {
+        Query query = new Query();
+        query.fields().include("code").include("updatedAt").include("version");
+        Map<String, String> stamps = new HashMap<>();
+        for (Document doc : mongoTemplate.find(query, Document.class, collectionName)) {
+            String code = doc.getString("code");
+            if (code != null) {
+                stamps.put(code, ruleIdOf(doc.get("_id")) + "/" + doc.get("updatedAt") + "/" + doc.get("version"));
+            }
+        }
+        return stamps;
+    }
+
+    private void refresh(String code) {
+        for (BaseMappingService service : services) {
+            if (!service.mappingRegistry.contains(code)) {
+                continue;
+            }
+            try {
+                service.refreshRules(code);
+                logger.info("映射规则已刷新 - code: {}", code);
+            } catch (Exception e) {
+                logger.warn("刷新映射规则失败，清理缓存 - code: {}, 错误: {}", code, e.getMessage());
+                service.invalidateRules(code);
+            }
+        }
+    }
+
+    private void invalidate(String code) {
+        for (BaseMappingService service : services) {
+            if (service.mappingRegistry.contains(code)) {
+                service.invalidateRules(code);
+                logger.info("映射规则已失效 - code: {}", code);
+            }
+        }
+    }
+
+    private void refreshAll() {
+        for (BaseMappingService service : services) {
+            for (String code : service.mappingRegistry.getCodes()) {
+                refresh(code);
+            }
+        }
+    }
+
+    private String findCodeByRuleId(String ruleId) {
+        for (BaseMappingService service : services) {
+            String code = service.findCodeByRuleId(ruleId);
+            if (code != null) {
+                return code;
+            }
+        }
+        return null;
+    }
+
+    private static String ruleIdOf(Object id) {
+        if (id instanceof BsonValue) {
+            BsonValue value = (BsonValue) id;
+            if (value.isObjectId()) {
+                return value.asObjectId().getValue().toHexString();
+            }
+            if (value.isString()) {
+                return value.asString().getValue();
+            }
+        }
+        return String.valueOf(id);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
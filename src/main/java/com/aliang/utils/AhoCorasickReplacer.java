@@ -0,0 +1,196 @@
+package com.aliang.utils;
+
+import java.util.*;
+
+/**
+ * 多字面量替换（Aho–Corasick 自动机）
+ * <p>
+ * 一次扫描完成全部替换，耗时与替换规则数量无关：
+ * 1. 每个位置选择最靠左的匹配，起点相同时选择最长的目标
+ * 2. 匹配之间不重叠，替换后的文本不会被再次匹配
+ * 3. 目标重复时以先出现的规则为准，空目标被忽略
+ * <p>
+ * 构建完成后不再修改，可被多个线程并发使用。
+ */
+public final class AhoCorasickReplacer {
+    /**
+     * 每个节点的子节点在 edgeChars/edgeTargets 中的区间 [childStart[i], childStart[i + 1])，按字符排序
+     */
+    private final int[] childStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    /**
+     * 以该节点结尾的目标编号，没有时为-1
+     */
+    private final int[] output;
+    /**
+     * 沿失败链最近的、有目标结尾的节点，没有时为-1
+     */
+    private final int[] outputLink;
+    private final int[] depth;
+    private final String[] replacements;
+
+    public AhoCorasickReplacer(List<String> targets, List<String> replacements) {
+        if (targets.size() != replacements.size()) {
+            throw new IllegalArgumentException("替换目标与替换字符串数量不一致");
+        }
+        this.replacements = replacements.toArray(new String[0]);
+
+        /*  构建字典树 */
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        children.add(new TreeMap<>());
+        outputs.add(-1);
+        depths.add(0);
+        for (int t = 0; t < targets.size(); t++) {
+            String target = targets.get(t);
+            if (target == null || target.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < target.length(); i++) {
+                Integer child = children.get(node).get(target.charAt(i));
+                if (child == null) {
+                    child = children.size();
+                    children.add(new TreeMap<>());
+                    outputs.add(-1);
+                    depths.add(i + 1);
+                    children.get(node).put(target.charAt(i), child);
+                }
+                node = child;
+            }
+            if (outputs.get(node) < 0) {
+                outputs.set(node, t);
+            }
+        }
+
+        int size = children.size();
+        this.childStart = new int[size + 1];
+        int edges = 0;
+        for (int i = 0; i < size; i++) {
+            childStart[i] = edges;
+            edges += children.get(i).size();
+        }
+        childStart[size] = edges;
+        this.edgeChars = new char[edges];
+        this.edgeTargets = new int[edges];
+        for (int i = 0; i < size; i++) {
+            int e = childStart[i];
+            for (Map.Entry<Character, Integer> entry : children.get(i).entrySet()) {
+                edgeChars[e] = entry.getKey();
+                edgeTargets[e] = entry.getValue();
+                e++;
+            }
+        }
+        this.output = new int[size];
+        this.depth = new int[size];
+        for (int i = 0; i < size; i++) {
+            output[i] = outputs.get(i);
+            depth[i] = depths.get(i);
+        }
+
+        /*  按层次计算失败链 */
+        this.fail = new int[size];
+        this.outputLink = new int[size];
+        outputLink[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int e = childStart[0]; e < childStart[1]; e++) {
+            int child = edgeTargets[e];
+            fail[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = childStart[node]; e < childStart[node + 1]; e++) {
+                int child = edgeTargets[e];
+                int state = fail[node];
+                int next;
+                while ((next = child(state, edgeChars[e])) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                fail[child] = next >= 0 ? next : 0;
+                outputLink[child] = output[fail[child]] >= 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int child(int node, char c) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 执行替换
+     *
+     * @param text 输入字符串
+     * @return 替换后的字符串，没有匹配时返回原字符串
+     */
+    public String replace(String text) {
+        StringBuilder builder = null;
+        int length = text.length();
+        int copied = 0;
+        int state = 0;
+        int pendingStart = -1;
+        int pendingEnd = -1;
+        int pendingTarget = -1;
+        int i = 0;
+        while (true) {
+            if (i < length) {
+                char c = text.charAt(i);
+                int next;
+                while ((next = child(state, c)) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                state = next >= 0 ? next : 0;
+
+                /*  以 i 结尾的最长目标起点最靠左，其余更短的目标不可能优于它 */
+                int matched = output[state] >= 0 ? state : outputLink[state];
+                if (matched >= 0) {
+                    int start = i - depth[matched] + 1;
+                    if (pendingStart < 0 || start <= pendingStart) {
+                        pendingStart = start;
+                        pendingEnd = i + 1;
+                        pendingTarget = output[matched];
+                    }
+                }
+                /*  之后的匹配起点都不早于 i - depth + 1，待定匹配已确定 */
+                if (pendingStart < 0 || pendingStart >= i - depth[state] + 1) {
+                    i++;
+                    continue;
+                }
+            } else if (pendingStart < 0) {
+                break;
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder(length + 16);
+            }
+            builder.append(text, copied, pendingStart).append(replacements[pendingTarget]);
+            copied = pendingEnd;
+            /*  从匹配结尾重新开始扫描，保证匹配之间不重叠 */
+            i = pendingEnd;
+            state = 0;
+            pendingStart = -1;
+        }
+        if (builder == null) {
+            return text;
+        }
+        return builder.append(text, copied, length).toString();
+    }
+}
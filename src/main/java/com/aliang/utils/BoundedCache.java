@@ -0,0 +1,122 @@
+package com.aliang.utils;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ * 有界并发缓存
+ * <p>
+ * 最多保留 maxSize 个键，超出时淘汰最久未访问的键（LRU），其余键及其值保持不变。
+ * 淘汰按批进行：一次扫描移除约 1/8 容量的最久未访问键，键持续增长时每次写入的均摊成本为常数。
+ * <p>
+ * 读写线程安全；访问顺序为近似顺序，并发访问时可能淘汰刚被访问的键。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public final class BoundedCache<K, V> {
+    private final int maxSize;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * @param maxSize 最多保留的键数量
+     */
+    public BoundedCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取键对应的值并记录访问
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * 键不存在时放入值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 已存在的值，不存在时返回null
+     */
+    public V putIfAbsent(K key, V value) {
+        Entry<V> existing = entries.putIfAbsent(key, new Entry<>(value, clock.incrementAndGet()));
+        if (existing != null) {
+            existing.lastAccess = clock.incrementAndGet();
+            return existing.value;
+        }
+        evictIfNecessary();
+        return null;
+    }
+
+    /**
+     * 获取键对应的值，不存在时创建并放入
+     * <p>
+     * 创建方法在缓存内部的锁中执行，不应耗时或访问同一个缓存。
+     *
+     * @param key     键
+     * @param factory 创建方法，不能返回null
+     * @return 已存在或新创建的值
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        Entry<V> entry = entries.computeIfAbsent(key, k -> new Entry<>(factory.apply(k), clock.incrementAndGet()));
+        evictIfNecessary();
+        return entry.value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evictIfNecessary() {
+        if (entries.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Long> accesses = new ArrayList<>(entries.size());
+            for (Entry<V> entry : entries.values()) {
+                accesses.add(entry.lastAccess);
+            }
+            int count = Math.min(accesses.size(), Math.max(accesses.size() - maxSize, Math.max(1, maxSize / 8)));
+            Collections.sort(accesses);
+            long threshold = accesses.get(count - 1);
+            /*  移除期间被再次访问的键访问时间已更新，不会被移除 */
+            entries.values().removeIf(entry -> entry.lastAccess <= threshold);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile long lastAccess;
+
+        private Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.aliang.utils;
+
+import java.math.*;
+
+/**
+ * 定点小数累加器
+ * <p>
+ * 在 long 尾数上累加，小数位数取所有加数的最大值；整数直接读取，定点小数按 {@link ScaledDecimal#of} 读取。
+ * 溢出或遇到无法用 long 表示的加数后改用 BigDecimal 继续累加，结果与依次调用 {@link BigDecimal#add}
+ * （加数为 {@code new BigDecimal(value.toString())}）完全相同。
+ * <p>
+ * 非线程安全，每次聚合创建新实例。
+ */
+public final class DecimalAccumulator {
+    private long unscaled;
+    private int scale;
+    private BigDecimal big;
+    private int count;
+
+    /**
+     * 从 BigDecimal.ZERO 开始累加
+     */
+    public DecimalAccumulator() {
+    }
+
+    /**
+     * 从指定值开始累加（小数位数与该值相同）
+     *
+     * @throws NumberFormatException 输入不是合法数字
+     */
+    public DecimalAccumulator(Object initial) {
+        ScaledDecimal decimal = ScaledDecimal.of(initial);
+        if (decimal != null) {
+            unscaled = decimal.getUnscaled();
+            scale = decimal.getScale();
+        } else {
+            big = new BigDecimal(initial.toString());
+        }
+        count = 1;
+    }
+
+    /**
+     * 加上一个值
+     *
+     * @throws NumberFormatException 输入不是合法数字
+     */
+    public void add(Object value) {
+        accumulate(value, false);
+    }
+
+    /**
+     * 减去一个值
+     *
+     * @throws NumberFormatException 输入不是合法数字
+     */
+    public void subtract(Object value) {
+        accumulate(value, true);
+    }
+
+    private void accumulate(Object value, boolean negate) {
+        count++;
+        if (big == null) {
+            long addend;
+            int addendScale;
+            if (value instanceof Integer || value instanceof Long) {
+                addend = ((Number) value).longValue();
+                addendScale = 0;
+            } else {
+                ScaledDecimal decimal = ScaledDecimal.of(value);
+                if (decimal == null) {
+                    addBig(new BigDecimal(value.toString()), negate);
+                    return;
+                }
+                addend = decimal.getUnscaled();
+                addendScale = decimal.getScale();
+            }
+            if (addLong(addend, addendScale, negate)) {
+                return;
+            }
+            addBig(BigDecimal.valueOf(addend, addendScale), negate);
+            return;
+        }
+        addBig(new BigDecimal(value.toString()), negate);
+    }
+
+    private boolean addLong(long addend, int addendScale, boolean negate) {
+        if (negate) {
+            if (addend == Long.MIN_VALUE) {
+                return false;
+            }
+            addend = -addend;
+        }
+        long current = unscaled;
+        int targetScale = scale;
+        if (addendScale > targetScale) {
+            current = ScaledDecimal.rescale(current, addendScale - targetScale);
+            if (current == Long.MIN_VALUE) {
+                return false;
+            }
+            targetScale = addendScale;
+        } else if (addendScale < targetScale) {
+            addend = ScaledDecimal.rescale(addend, targetScale - addendScale);
+            if (addend == Long.MIN_VALUE) {
+                return false;
+            }
+        }
+        long sum = current + addend;
+        if (((current ^ sum) & (addend ^ sum)) < 0) {
+            return false;
+        }
+        unscaled = sum;
+        scale = targetScale;
+        return true;
+    }
+
+    private void addBig(BigDecimal addend, boolean negate) {
+        if (big == null) {
+            big = BigDecimal.valueOf(unscaled, scale);
+        }
+        big = negate ? big.subtract(addend) : big.add(addend);
+    }
+
+    /**
+     * 合并另一个累加器的结果，等价于依次累加其全部值（加法满足结合律，和与小数位数都不变）
+     */
+    public void merge(DecimalAccumulator other) {
+        count += other.count;
+        if (big == null && other.big == null && addLong(other.unscaled, other.scale, false)) {
+            return;
+        }
+        addBig(other.toBigDecimal(), false);
+    }
+
+    /**
+     * 已累加的值的个数（包括初始值）
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 仍在 long 尾数上累加时返回true，此时 {@link #getUnscaled()} 与 {@link #getScale()} 有效
+     */
+    public boolean isExact() {
+        return big == null;
+    }
+
+    public long getUnscaled() {
+        return unscaled;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+    }
+}
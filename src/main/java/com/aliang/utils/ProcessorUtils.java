@@ -93,11 +93,110 @@ public class ProcessorUtils {
     public static void logProcessResult(String processorName, Object input, Object output, String error) {
         if (error != null) {
             logger.logProcessFailure(processorName, input, error);
-        } else {
+        } else if (logger.isDebugEnabled()) {
             logger.logProcessSuccess(processorName, input, output);
         }
     }
 
+    /**
+     * 记录处理器配置，调试日志关闭时不格式化日志内容
+     *
+     * @param processorName 处理器名称
+     * @param format        {@link String#format} 格式
+     * @param args          格式参数
+     */
+    public static void logProcessorConfig(String processorName, String format, Object... args) {
+        if (logger.isDebugEnabled()) {
+            logger.logProcessSuccess(processorName, null, String.format(format, args));
+        }
+    }
+
+    /**
+     * 是否输出处理器调试日志
+     */
+    public static boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    /**
+     * 在字符串缓冲区上原地执行 {@link String#trim()}
+     *
+     * @param builder 字符串缓冲区
+     */
+    public static void trim(StringBuilder builder) {
+        int end = builder.length();
+        while (end > 0 && builder.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        builder.setLength(end);
+        int start = 0;
+        while (start < end && builder.charAt(start) <= ' ') {
+            start++;
+        }
+        if (start > 0) {
+            builder.delete(0, start);
+        }
+    }
+
+    /**
+     * 在字符串缓冲区上执行 {@link String#toUpperCase()}
+     * ASCII 字符原地转换，含非 ASCII 字符或默认语言区域有特殊大小写规则时整体调用 String.toUpperCase
+     *
+     * @param builder 字符串缓冲区
+     */
+    public static void toUpperCase(StringBuilder builder) {
+        if (hasAsciiCaseRules()) {
+            for (int i = 0; i < builder.length(); i++) {
+                char c = builder.charAt(i);
+                if (c >= 0x80) {
+                    replace(builder, builder.toString().toUpperCase());
+                    return;
+                }
+                if (c >= 'a' && c <= 'z') {
+                    builder.setCharAt(i, (char) (c - ('a' - 'A')));
+                }
+            }
+            return;
+        }
+        replace(builder, builder.toString().toUpperCase());
+    }
+
+    /**
+     * 在字符串缓冲区上执行 {@link String#toLowerCase()}
+     * ASCII 字符原地转换，含非 ASCII 字符或默认语言区域有特殊大小写规则时整体调用 String.toLowerCase
+     *
+     * @param builder 字符串缓冲区
+     */
+    public static void toLowerCase(StringBuilder builder) {
+        if (hasAsciiCaseRules()) {
+            for (int i = 0; i < builder.length(); i++) {
+                char c = builder.charAt(i);
+                if (c >= 0x80) {
+                    replace(builder, builder.toString().toLowerCase());
+                    return;
+                }
+                if (c >= 'A' && c <= 'Z') {
+                    builder.setCharAt(i, (char) (c + ('a' - 'A')));
+                }
+            }
+            return;
+        }
+        replace(builder, builder.toString().toLowerCase());
+    }
+
+    /**
+     * 默认语言区域下 ASCII 字母是否按普通规则转换大小写（土耳其语等区域的 i/I 规则不同）
+     */
+    private static boolean hasAsciiCaseRules() {
+        String language = Locale.getDefault().getLanguage();
+        return !"tr".equals(language) && !"az".equals(language) && !"lt".equals(language);
+    }
+
+    private static void replace(StringBuilder builder, String value) {
+        builder.setLength(0);
+        builder.append(value);
+    }
+
     /**
      * 安全地转换字符串为数字
      *
@@ -110,15 +209,41 @@ public class ProcessorUtils {
         }
         try {
             if (value instanceof Number) {
-                return new BigDecimal(value.toString());
+                return ScaledDecimal.bigDecimalOf(value);
             }
-            String strValue = value.toString().replaceAll("[^\\d.-]", "");
-            return new BigDecimal(strValue);
+            return ScaledDecimal.bigDecimalOf(stripNonNumeric(value.toString()));
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * 去掉数字、小数点和负号以外的字符，没有需要去掉的字符时直接返回原字符串
+     */
+    private static String stripNonNumeric(String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length && isNumericChar(text.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(text, 0, i);
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (isNumericChar(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isNumericChar(char c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '-';
+    }
+
     /**
      * 安全地转换字符串为整数
      *
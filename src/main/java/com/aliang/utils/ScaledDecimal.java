@@ -0,0 +1,241 @@
+package com.aliang.utils;
+
+import java.math.*;
+
+/**
+ * 定点小数（long 尾数 + 小数位数）
+ * <p>
+ * 价格、金额等数值绝大多数不超过18位有效数字，用 long 尾数和 int 小数位数即可精确表示。
+ * 数值处理器先尝试在此表示上完成解析、乘法和舍入，结果通过 {@link #toBigDecimal()} 转换，
+ * 尾数和小数位数与对应的 BigDecimal 运算完全相同（equals 相等）。
+ * <p>
+ * 无法用此表示的输入（科学计数法、超过18位数字等）解析时返回null，运算溢出时同样返回null，
+ * 调用方应退回 BigDecimal 计算。
+ */
+public final class ScaledDecimal {
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    /**
+     * 最多解析的数字位数，保证尾数不会溢出
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private final long unscaled;
+    private final int scale;
+
+    private ScaledDecimal(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    public static ScaledDecimal valueOf(long unscaled, int scale) {
+        return new ScaledDecimal(unscaled, scale);
+    }
+
+    /**
+     * 转换数值或字符串，尾数和小数位数与 {@code new BigDecimal(value.toString())} 相同
+     * <p>
+     * 整数类型和 BigDecimal 直接读取；整数值的 Double/Float 按 Double.toString 的 "n.0" 形式读取为1位小数，
+     * 不经过字符串转换。
+     *
+     * @param value 输入值
+     * @return 定点小数，无法快速转换时返回null
+     */
+    public static ScaledDecimal of(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return new ScaledDecimal(((Number) value).longValue(), 0);
+        }
+        if (value instanceof String) {
+            return parse((String) value);
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            if (decimal.scale() < 0 || decimal.precision() > MAX_DIGITS) {
+                return null;
+            }
+            return new ScaledDecimal(decimal.unscaledValue().longValue(), decimal.scale());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            /*  Double.toString 对 [1e-3, 1e7) 内的整数值输出 "n.0" */
+            double number = ((Number) value).doubleValue();
+            if (number == Math.rint(number) && Math.abs(number) < 1e7) {
+                return new ScaledDecimal((long) number * 10, 1);
+            }
+        }
+        if (value instanceof Number) {
+            return parse(value.toString());
+        }
+        return null;
+    }
+
+    /**
+     * 解析 [+-]数字[.数字] 格式的字符串，结果与 {@code new BigDecimal(text)} 相同
+     *
+     * @param text 字符串
+     * @return 定点小数，格式不符或超过18位数字时返回null
+     */
+    public static ScaledDecimal parse(String text) {
+        int length = text.length();
+        if (length == 0 || length > MAX_DIGITS + 2) {
+            return null;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return null;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (point) {
+                    scale++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        return new ScaledDecimal(negative ? -unscaled : unscaled, scale);
+    }
+
+    /**
+     * 转换为 BigDecimal，无法快速转换时使用 {@code new BigDecimal(value.toString())}
+     *
+     * @param value 输入值
+     * @return BigDecimal
+     * @throws NumberFormatException 输入不是合法数字
+     */
+    public static BigDecimal bigDecimalOf(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        ScaledDecimal decimal = of(value);
+        return decimal != null ? decimal.toBigDecimal() : new BigDecimal(value.toString());
+    }
+
+    public long getUnscaled() {
+        return unscaled;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * 乘法，等价于 {@link BigDecimal#multiply(BigDecimal)}
+     *
+     * @return 乘积，溢出时返回null
+     */
+    public ScaledDecimal multiply(ScaledDecimal other) {
+        long a = unscaled;
+        long b = other.unscaled;
+        long product = a * b;
+        long absA = Math.abs(a);
+        long absB = Math.abs(b);
+        if ((absA | absB) >>> 31 != 0) {
+            if (a == Long.MIN_VALUE || b == Long.MIN_VALUE || (b != 0 && product / b != a)) {
+                return null;
+            }
+        }
+        return new ScaledDecimal(product, scale + other.scale);
+    }
+
+    /**
+     * 按 HALF_UP 调整小数位数，等价于 {@code setScale(newScale, RoundingMode.HALF_UP)}
+     *
+     * @return 调整后的值，溢出时返回null
+     */
+    public ScaledDecimal setScale(int newScale) {
+        if (newScale == scale) {
+            return this;
+        }
+        if (newScale > scale) {
+            int shift = newScale - scale;
+            if (shift >= POW10.length || unscaled == Long.MIN_VALUE
+                    || Math.abs(unscaled) > Long.MAX_VALUE / POW10[shift]) {
+                return null;
+            }
+            return new ScaledDecimal(unscaled * POW10[shift], newScale);
+        }
+        int shift = scale - newScale;
+        if (shift >= POW10.length) {
+            return null;
+        }
+        long divisor = POW10[shift];
+        long quotient = unscaled / divisor;
+        long remainder = Math.abs(unscaled % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += unscaled < 0 ? -1 : 1;
+        }
+        return new ScaledDecimal(quotient, newScale);
+    }
+
+    /**
+     * 比较数值大小，等价于 {@link BigDecimal#compareTo(BigDecimal)}
+     */
+    public int compareTo(ScaledDecimal other) {
+        return compare(unscaled, scale, other.unscaled, other.scale);
+    }
+
+    /**
+     * 比较两个定点小数 a × 10^-scaleA 与 b × 10^-scaleB 的大小
+     */
+    public static int compare(long a, int scaleA, long b, int scaleB) {
+        if (scaleA == scaleB) {
+            return Long.compare(a, b);
+        }
+        if (scaleA < scaleB) {
+            long scaled = rescale(a, scaleB - scaleA);
+            if (scaled != Long.MIN_VALUE) {
+                return Long.compare(scaled, b);
+            }
+        } else {
+            long scaled = rescale(b, scaleA - scaleB);
+            if (scaled != Long.MIN_VALUE) {
+                return Long.compare(a, scaled);
+            }
+        }
+        return BigDecimal.valueOf(a, scaleA).compareTo(BigDecimal.valueOf(b, scaleB));
+    }
+
+    /**
+     * 尾数乘以 10^shift
+     *
+     * @return 结果，溢出时返回 Long.MIN_VALUE
+     */
+    public static long rescale(long unscaled, int shift) {
+        if (shift < 0 || shift >= POW10.length || unscaled == Long.MIN_VALUE
+                || Math.abs(unscaled) > Long.MAX_VALUE / POW10[shift]) {
+            return Long.MIN_VALUE;
+        }
+        return unscaled * POW10[shift];
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toString();
+    }
+}
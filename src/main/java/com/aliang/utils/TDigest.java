@@ -0,0 +1,137 @@
+package com.aliang.utils;
+
+import java.util.*;
+
+/**
+ * t-digest 分位数估计（合并式实现）
+ * <p>
+ * 新值先写入缓冲区，缓冲区满时排序并与已有质心合并。质心的权重上限为 4·n·q·(1-q)/compression，
+ * 两端（q 接近0或1）的质心很小，中部的质心较大，因此尾部分位数（p95、p99）的精度较高。
+ * 内存与 compression 成正比，与数据量无关；相同的输入顺序得到相同的结果。
+ * <p>
+ * 非线程安全。
+ */
+public final class TDigest {
+    private final double compression;
+    private final double[] buffer;
+    private int buffered;
+
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroids;
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param compression 压缩参数，越大越精确，常用 100
+     */
+    public TDigest(double compression) {
+        if (!(compression >= 10)) {
+            throw new IllegalArgumentException("t-digest 压缩参数不能小于10: " + compression);
+        }
+        this.compression = compression;
+        this.buffer = new double[(int) Math.ceil(compression * 5)];
+    }
+
+    /**
+     * 加入一个值
+     *
+     * @param value 有限的数值
+     */
+    public void add(double value) {
+        buffer[buffered++] = value;
+        count++;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        if (buffered == buffer.length) {
+            compress();
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * 将缓冲区与已有质心按均值顺序合并，相邻的值在权重上限内合并为一个质心
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        int capacity = centroids + buffered;
+        double[] newMeans = new double[capacity];
+        double[] newWeights = new double[capacity];
+        int size = 0;
+        double before = 0;
+        int i = 0;
+        int j = 0;
+        while (i < centroids || j < buffered) {
+            double mean;
+            double weight;
+            if (j >= buffered || (i < centroids && means[i] <= buffer[j])) {
+                mean = means[i];
+                weight = weights[i++];
+            } else {
+                mean = buffer[j++];
+                weight = 1;
+            }
+            if (size > 0) {
+                double proposed = newWeights[size - 1] + weight;
+                double q = (before + proposed / 2) / count;
+                if (proposed <= 4 * count * q * (1 - q) / compression) {
+                    newMeans[size - 1] += (mean - newMeans[size - 1]) * weight / proposed;
+                    newWeights[size - 1] = proposed;
+                    continue;
+                }
+                before += newWeights[size - 1];
+            }
+            newMeans[size] = mean;
+            newWeights[size] = weight;
+            size++;
+        }
+        means = newMeans;
+        weights = newWeights;
+        centroids = size;
+        buffered = 0;
+    }
+
+    /**
+     * 估计分位数
+     *
+     * @param q 分位点，取值 [0, 1]
+     * @return 分位数，没有任何值时返回 NaN
+     */
+    public double quantile(double q) {
+        compress();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double index = q * count;
+        if (index <= weights[0] / 2) {
+            /*  第一个质心中心之前，在最小值与其均值之间插值 */
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double center = weights[0] / 2;
+        for (int k = 1; k < centroids; k++) {
+            double next = center + (weights[k - 1] + weights[k]) / 2;
+            if (index <= next) {
+                return means[k - 1] + (means[k] - means[k - 1]) * (index - center) / (next - center);
+            }
+            center = next;
+        }
+        /*  最后一个质心中心之后，在其均值与最大值之间插值 */
+        double tail = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, (index - center) / tail);
+    }
+}
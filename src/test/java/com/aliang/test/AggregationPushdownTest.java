@@ -0,0 +1,208 @@
+package com.aliang.test;
+
+import com.aliang.registry.factory.*;
+import com.aliang.registry.path.*;
+import com.aliang.registry.plan.*;
+import com.aliang.rule.strategy.*;
+import com.aliang.rule.strategy.impl.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.math.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 聚合下推测试
+ * 验证通配符路径逐个访问的值与 JSONPath 求值结果一致，边遍历边聚合的结果与先生成数组再聚合完全相同，
+ * 包括null元素、嵌套数组、集合属性值和标量元素。
+ */
+public class AggregationPushdownTest {
+    private static final String[] PATHS = {
+            "$.order.items[*]",
+            "$.order.items[*].qty",
+            "$.order.items[*].product.price",
+            "$.order.items[*].tags",
+            "$.order.missing[*].qty",
+            "$.order.single[*].qty"
+    };
+
+    private static final String[][] STRATEGIES = {
+            {"sum"}, {"count"}, {"first"}, {"last"}, {"min"}, {"max"}, {"avg"},
+            {"first", "count"}, {"count", "sum"}, {"sum", "first"}
+    };
+
+    private static Object randomValue(Random random, int depth) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return null;
+            case 1:
+                return random.nextInt(1000) - 200;
+            case 2:
+                return new BigDecimal(random.nextInt(100000)).movePointLeft(random.nextInt(4));
+            case 3:
+                return "s" + random.nextInt(10);
+            case 4:
+                return random.nextBoolean();
+            default:
+                if (depth > 2) {
+                    return random.nextInt(10);
+                }
+                JSONArray array = new JSONArray();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    array.add(random.nextBoolean() ? randomItem(random, depth + 1) : randomValue(random, depth + 1));
+                }
+                return array;
+        }
+    }
+
+    private static Object randomItem(Random random, int depth) {
+        if (random.nextInt(6) == 0) {
+            return randomValue(random, depth);
+        }
+        JSONObject item = new JSONObject();
+        if (random.nextInt(5) > 0) {
+            item.put("qty", randomValue(random, depth));
+        }
+        if (random.nextInt(3) > 0) {
+            JSONObject product = new JSONObject();
+            product.put("price", randomValue(random, depth));
+            item.put("product", random.nextInt(4) == 0 ? new JSONArray(Collections.singletonList(product)) : product);
+        }
+        if (random.nextBoolean()) {
+            item.put("tags", randomValue(random, depth));
+        }
+        return item;
+    }
+
+    private static JSONObject randomSource(Random random) {
+        JSONArray items = new JSONArray();
+        for (int i = random.nextInt(8); i > 0; i--) {
+            items.add(randomItem(random, 0));
+        }
+        JSONObject order = new JSONObject();
+        order.put("items", items);
+        order.put("single", randomItem(random, 0));
+        JSONObject source = new JSONObject();
+        source.put("order", order);
+        return source;
+    }
+
+    @Test
+    public void testVisitSameAsJsonPath() {
+        List<SourcePath> paths = new ArrayList<>();
+        boolean[] deferred = new boolean[PATHS.length];
+        for (int i = 0; i < PATHS.length; i++) {
+            paths.add(SourcePath.compile(PATHS[i]));
+            assertTrue(PATHS[i], paths.get(i).isStreamable());
+            deferred[i] = true;
+        }
+        SourcePathTrie trie = new SourcePathTrie(paths, deferred);
+        Random random = new Random(7);
+        for (int round = 0; round < 2000; round++) {
+            JSONObject source = randomSource(random);
+            Object[] values = trie.resolve(source);
+            for (int i = 0; i < PATHS.length; i++) {
+                Object expected = JSONPath.eval(source, PATHS[i]);
+                Object actual = values[i];
+                if (actual instanceof SourcePathTrie.Deferred) {
+                    List<Object> visited = new ArrayList<>();
+                    assertTrue(((SourcePathTrie.Deferred) actual).visit(visited::add));
+                    actual = visited;
+                }
+                assertEquals(PATHS[i] + " <- " + source, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testReduceSameAsMaterialized() {
+        ProcessorFactory factory = new ProcessorFactory();
+        Map<String, JSONObject> mappings = new LinkedHashMap<>();
+        List<String> targets = new ArrayList<>();
+        for (String path : PATHS) {
+            for (String[] strategies : STRATEGIES) {
+                String target = "$.f" + targets.size();
+                targets.add(target);
+                JSONObject mapping = new JSONObject();
+                mapping.put("sourcePath", path);
+                mapping.put("aggregationStrategies", Arrays.asList(strategies));
+                mappings.put(target, mapping);
+            }
+        }
+        CompiledMappingPlan plan = new MappingPlanCompiler(factory).compile("PUSH01", 1, mappings);
+        Random random = new Random(11);
+        for (int round = 0; round < 1000; round++) {
+            JSONObject source = randomSource(random);
+            JSONObject result = plan.execute(source);
+            int index = 0;
+            for (String path : PATHS) {
+                for (String[] strategies : STRATEGIES) {
+                    Object expected = JSONPath.eval(source, path);
+                    for (String name : strategies) {
+                        if (expected instanceof List) {
+                            AggregationStrategy strategy = factory.getRegistry().getAggregation(name).create(null);
+                            expected = strategy.apply((List<?>) expected);
+                        }
+                    }
+                    String target = targets.get(index++);
+                    assertEquals(path + " " + Arrays.toString(strategies) + " <- " + source,
+                            expected, JSONPath.eval(result, target));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSharedScanKeepsFailureSemantics() {
+        Map<String, JSONObject> mappings = new LinkedHashMap<>();
+        String[][] fields = {{"$.totalItems", "sum"}, {"$.itemCount", "count"}, {"$.firstQty", "first"}, {"$.avgQty", "avg"}};
+        for (String[] field : fields) {
+            mappings.put(field[0], JSON.parseObject("{\"sourcePath\":\"$.items[*].qty\","
+                    + "\"aggregationStrategies\":[\"" + field[1] + "\"]}"));
+        }
+        CompiledMappingPlan plan = new MappingPlanCompiler(new ProcessorFactory()).compile("PUSH02", 1, mappings);
+
+        JSONObject source = JSON.parseObject("{\"items\":[{\"qty\":2},{\"qty\":1.5},{\"qty\":\"x\"}]}");
+        JSONObject result = plan.execute(source);
+        assertEquals(new BigDecimal("3.5"), result.get("totalItems"));
+        assertEquals(3, result.get("itemCount"));
+        assertEquals(2, result.get("firstQty"));
+        assertEquals(new BigDecimal("1.7500000000"), result.get("avgQty"));
+
+        /*  求和与平均遇到 NaN 时策略失败，字段保持原数组；计数和取第一个值不受影响 */
+        source.getJSONArray("items").getJSONObject(1).put("qty", Double.NaN);
+        result = plan.execute(source);
+        List<Object> expected = Arrays.asList(2, Double.NaN, "x");
+        assertEquals(expected, result.get("totalItems"));
+        assertEquals(3, result.get("itemCount"));
+        assertEquals(2, result.get("firstQty"));
+        assertEquals(expected, result.get("avgQty"));
+    }
+
+    @Test
+    public void testFirstStopsAtFirstMatch() {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < 100000; i++) {
+            items.add(new JSONObject(Collections.singletonMap("qty", i % 7)));
+        }
+        JSONObject source = new JSONObject(Collections.singletonMap("items", items));
+        SourcePath path = SourcePath.compile("$.items[*].qty");
+        Object value = new SourcePathTrie(Collections.singletonList(path), new boolean[]{true}).resolve(source)[0];
+        assertTrue(value instanceof SourcePathTrie.Deferred);
+
+        int[] visits = new int[1];
+        ReducibleAggregationStrategy.Accumulator first = new FirstAggregationStrategy().newAccumulator();
+        assertTrue(((SourcePathTrie.Deferred) value).visit(v -> {
+            visits[0]++;
+            return first.accept(v);
+        }));
+        assertEquals(1, visits[0]);
+        assertEquals(0, first.result());
+
+        ReducibleAggregationStrategy.Accumulator sum = new SumAggregationStrategy().newAccumulator();
+        assertTrue(((SourcePathTrie.Deferred) value).visit(sum::accept));
+        assertEquals(new BigDecimal(299995), sum.result());
+    }
+}
@@ -0,0 +1,130 @@
+package com.aliang.test;
+
+import com.aliang.rule.strategy.*;
+import com.aliang.rule.strategy.impl.*;
+import org.junit.*;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 数值聚合策略测试
+ * 验证在 long 尾数上计算的求和、平均、最值与相减，与逐个元素转换为 BigDecimal 计算的结果完全相同，
+ * 包括小数位数不同、溢出和无法解析的元素；大数组分块并行归约的结果与顺序执行相同。
+ */
+public class AggregationStrategyTest {
+
+    private static BigDecimal decimal(Object value) {
+        return new BigDecimal(value.toString());
+    }
+
+    private static Object expectedSum(List<?> values) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (Object value : values) {
+            if (value instanceof Number) {
+                sum = sum.add(decimal(value));
+            }
+        }
+        return sum;
+    }
+
+    private static Object expectedExtremum(List<?> values, boolean max) {
+        BigDecimal best = null;
+        for (Object value : values) {
+            try {
+                BigDecimal current = decimal(value);
+                if (best == null || (max ? current.compareTo(best) > 0 : current.compareTo(best) < 0)) {
+                    best = current;
+                }
+            } catch (RuntimeException ignored) {
+                /*  null 或无法解析的值 */
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void testExamples() {
+        List<Object> values = Arrays.asList(1, new BigDecimal("2.50"), 3.0, "x", null, Long.MAX_VALUE);
+        assertEquals(new BigDecimal("9223372036854775813.50"), new SumAggregationStrategy().apply(values));
+        assertEquals(new BigDecimal("2305843009213693953.3750000000"), new AverageAggregationStrategy().apply(values));
+        assertEquals(new BigDecimal("1"), new MinAggregationStrategy().apply(values));
+        assertEquals(new BigDecimal(Long.MAX_VALUE), new MaxAggregationStrategy().apply(values));
+        assertEquals(new BigDecimal("-4.50"), new SubtractAggregationStrategy().apply(Arrays.asList(1, new BigDecimal("2.50"), 3.0)));
+        assertNull(new AverageAggregationStrategy().apply(Arrays.asList("a", "b")));
+    }
+
+    private static Object randomValue(Random random) {
+        long unscaled = (long) (random.nextGaussian() * Math.pow(10, random.nextInt(19)));
+        switch (random.nextInt(6)) {
+            case 0:
+                return unscaled;
+            case 1:
+                return (int) unscaled;
+            case 2:
+                return BigDecimal.valueOf(unscaled, random.nextInt(10) - 2);
+            case 3:
+                return random.nextGaussian() * 1000;
+            case 4:
+                return BigDecimal.valueOf(unscaled, random.nextInt(6)).toPlainString();
+            default:
+                return random.nextBoolean() ? null : random.nextLong();
+        }
+    }
+
+    @Test
+    public void testMatchesBigDecimal() {
+        Random random = new Random(21);
+        for (int round = 0; round < 20000; round++) {
+            List<Object> values = new ArrayList<>();
+            for (int i = random.nextInt(8); i >= 0; i--) {
+                values.add(randomValue(random));
+            }
+            assertEquals(values.toString(), expectedSum(values), new SumAggregationStrategy().apply(values));
+            assertEquals(values.toString(), expectedExtremum(values, false), new MinAggregationStrategy().apply(values));
+            assertEquals(values.toString(), expectedExtremum(values, true), new MaxAggregationStrategy().apply(values));
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        AggregationStrategy[] strategies = {
+                new SumAggregationStrategy(), new AverageAggregationStrategy(), new MinAggregationStrategy(),
+                new MaxAggregationStrategy(), new CountAggregationStrategy(),
+                new JoinAggregationStrategy(",", true), new ConcatAggregationStrategy()
+        };
+        Random random = new Random(24);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 10; round++) {
+                List<Object> values = new ArrayList<>();
+                for (int i = 10000 + random.nextInt(40000); i > 0; i--) {
+                    /*  第一轮全部为相等但小数位数不同的值，最值应保留先出现的值 */
+                    Object value = round > 0 ? randomValue(random) : null;
+                    values.add(value != null ? value : (random.nextBoolean() ? "1.0" : new BigDecimal("1.00")));
+                }
+                for (AggregationStrategy strategy : strategies) {
+                    ParallelReduction.shared().configure(null, 0);
+                    Object expected = strategy.apply(values);
+                    ParallelReduction.shared().configure(pool, 1000);
+                    assertEquals(strategy.getClass().getSimpleName(), expected, strategy.apply(values));
+                }
+            }
+
+            List<Object> withNull = new ArrayList<>(Collections.nCopies(20000, "a"));
+            withNull.set(15000, null);
+            try {
+                new ConcatAggregationStrategy().apply(withNull);
+                fail("null元素应使连接失败");
+            } catch (NullPointerException expected) {
+                /*  与顺序连接相同 */
+            }
+        } finally {
+            ParallelReduction.shared().configure(null, 0);
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.aliang.test;
+
+import com.aliang.registry.factory.*;
+import com.aliang.registry.plan.*;
+import com.aliang.rule.strategy.*;
+import com.aliang.rule.strategy.impl.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 近似聚合测试
+ * 验证去重计数与分位数在阈值以下精确计算，超过阈值后 HyperLogLog 与 t-digest 的误差在预期范围内，
+ * 以及规则配置中的策略名称与参数。
+ */
+public class ApproximateAggregationTest {
+
+    @Test
+    public void testExactBelowThreshold() {
+        List<Object> values = Arrays.asList("SKU-1", "SKU-2", "SKU-1", null, 1, new BigDecimal("1.00"), 2.0);
+        assertEquals(4, new DistinctCountAggregationStrategy().apply(values));
+        assertEquals(0, new DistinctCountAggregationStrategy().apply(Collections.emptyList()));
+
+        assertEquals(new BigDecimal("2.5"), PercentileAggregationStrategy.of(50.0, null).apply(Arrays.asList(4, 1, "x", 3, 2)));
+        assertEquals(new BigDecimal("3"), PercentileAggregationStrategy.of(50.0, null).apply(Arrays.asList(5, 1, 3, null)));
+        assertNull(PercentileAggregationStrategy.of(99.0, null).apply(Arrays.asList("a", null)));
+
+        ReducibleAggregationStrategy.Accumulator median = PercentileAggregationStrategy.of(50.0, null).newAccumulator();
+        for (int value : new int[]{9, 1, 5}) {
+            median.accept(value);
+        }
+        assertEquals(new BigDecimal("5"), median.result());
+        assertEquals(new BigDecimal("5"), median.result());
+        median.accept(0);
+        assertEquals(new BigDecimal("3.0"), median.result());
+
+        Random random = new Random(25);
+        List<Object> numbers = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            numbers.add(random.nextInt(100000));
+        }
+        List<Object> sorted = new ArrayList<>(numbers);
+        sorted.sort(Comparator.comparingInt(v -> (Integer) v));
+        assertEquals(new BigDecimal(sorted.get(950).toString()), PercentileAggregationStrategy.of(95.0, null).apply(numbers));
+        assertEquals(new BigDecimal(sorted.get(1000).toString()), PercentileAggregationStrategy.of(100.0, null).apply(numbers));
+    }
+
+    @Test
+    public void testHyperLogLogError() {
+        for (int cardinality : new int[]{500, 20000, 1000000}) {
+            List<Object> values = new ArrayList<>(cardinality * 2);
+            for (int i = 0; i < cardinality; i++) {
+                values.add("SKU-" + i);
+                values.add("SKU-" + (cardinality - 1 - i));
+            }
+            int estimate = (Integer) new DistinctCountAggregationStrategy(14, 0).apply(values);
+            assertEquals("cardinality " + cardinality, cardinality, estimate, cardinality * 0.03);
+        }
+    }
+
+    @Test
+    public void testTDigestError() {
+        Random random = new Random(26);
+        int size = 500000;
+        List<Object> values = new ArrayList<>(size);
+        double[] sorted = new double[size];
+        for (int i = 0; i < size; i++) {
+            /*  对数正态分布，近似延迟数据的长尾 */
+            double latency = Math.exp(random.nextGaussian());
+            values.add(latency);
+            sorted[i] = latency;
+        }
+        Arrays.sort(sorted);
+        for (double percentile : new double[]{50, 95, 99}) {
+            Map<String, String> params = Collections.singletonMap("p", String.valueOf(percentile));
+            double estimate = ((BigDecimal) PercentileAggregationStrategy.of(null, params).apply(values)).doubleValue();
+            int rank = Arrays.binarySearch(sorted, estimate);
+            rank = rank >= 0 ? rank : -rank - 1;
+            assertEquals("p" + percentile, percentile / 100, (double) rank / size, 0.002);
+        }
+    }
+
+    @Test
+    public void testParallelDistinctCountMatchesSequential() {
+        Random random = new Random(27);
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 60000; i++) {
+            values.add("SKU-" + random.nextInt(i < 30000 ? 5000 : 50000));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threshold : new int[]{100000, 8000, 0}) {
+                AggregationStrategy strategy = new DistinctCountAggregationStrategy(12, threshold);
+                ParallelReduction.shared().configure(null, 0);
+                Object expected = strategy.apply(values);
+                ParallelReduction.shared().configure(pool, 1000);
+                assertEquals("threshold " + threshold, expected, strategy.apply(values));
+            }
+        } finally {
+            ParallelReduction.shared().configure(null, 0);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testConfiguredInPlan() {
+        Map<String, JSONObject> mappings = new LinkedHashMap<>();
+        mappings.put("$.uniqueSkus", JSON.parseObject("{\"sourcePath\":\"$.items[*].sku\","
+                + "\"aggregationStrategies\":[\"distinctCount:precision=12;exactThreshold=100\"]}"));
+        mappings.put("$.medianQty", JSON.parseObject("{\"sourcePath\":\"$.items[*].qty\","
+                + "\"aggregationStrategies\":[\"median\"]}"));
+        mappings.put("$.p99Qty", JSON.parseObject("{\"sourcePath\":\"$.items[*].qty\","
+                + "\"aggregationStrategies\":[\"p99\"]}"));
+        CompiledMappingPlan plan = new MappingPlanCompiler(new ProcessorFactory()).compile("APPROX01", 1, mappings);
+        JSONObject source = JSON.parseObject("{\"items\":[{\"sku\":\"A\",\"qty\":1},{\"sku\":\"B\",\"qty\":3},"
+                + "{\"sku\":\"A\",\"qty\":2},{\"sku\":\"C\",\"qty\":10}]}");
+        JSONObject result = plan.execute(source);
+        assertEquals(3, result.get("uniqueSkus"));
+        assertEquals(new BigDecimal("2.5"), result.get("medianQty"));
+        assertEquals(new BigDecimal("9.79"), result.get("p99Qty"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.aliang.test;
+
+import com.aliang.registry.*;
+import com.aliang.registry.engine.*;
+import com.aliang.registry.parse.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 批量映射测试
+ * 验证结果顺序与输入一致，单条数据失败不影响其他数据，以及 NDJSON 流式映射。
+ */
+public class BatchMappingTest {
+    private MappingEngine engine;
+
+    @Before
+    public void setUp() {
+        MappingRegistry registry = new MappingRegistry();
+        engine = new MappingEngine(registry);
+        MappingConfigParser.parseAndRegister(JSON.parseObject("{\"code\":\"BATCH01\",\"mappings\":[" +
+                "{\"sourcePath\":\"$.user.name\",\"targetPath\":\"$.name\",\"processors\":[\"trim\",\"uppercase\"]}," +
+                "{\"sourcePath\":\"$.items[*].qty\",\"targetPath\":\"$.total\",\"aggregationStrategies\":[\"sum\"]}" +
+                "]}"), registry);
+    }
+
+    private JSONObject source(String name, int... quantities) {
+        JSONArray items = new JSONArray();
+        for (int qty : quantities) {
+            items.add(new JSONObject().fluentPut("qty", qty));
+        }
+        return new JSONObject()
+                .fluentPut("user", new JSONObject().fluentPut("name", name))
+                .fluentPut("items", items);
+    }
+
+    @Test
+    public void testResultsInInputOrder() {
+        List<JSONObject> sources = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sources.add(source(" user" + i + " ", i, 1));
+        }
+
+        List<MappingItemResult> results = engine.executeBatch("BATCH01", sources);
+        assertEquals(50, results.size());
+        for (int i = 0; i < 50; i++) {
+            MappingItemResult result = results.get(i);
+            assertEquals(i, result.getIndex());
+            assertTrue(result.isSuccess());
+            assertEquals("USER" + i, result.getResult().getString("name"));
+            assertEquals(i + 1, result.getResult().getIntValue("total"));
+        }
+    }
+
+    @Test
+    public void testFailedItemDoesNotFailBatch() {
+        List<JSONObject> sources = Arrays.asList(source("a", 1), null, source("c", 3));
+
+        List<MappingItemResult> results = engine.executeBatch("BATCH01", sources);
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertNotNull(results.get(1).getError());
+        assertNull(results.get(1).getResult());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("C", results.get(2).getResult().getString("name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCodeFailsWholeBatch() {
+        engine.executeBatch("MISSING", Collections.singletonList(source("a", 1)));
+    }
+
+    @Test
+    public void testStreamWritesOneLinePerDocument() throws IOException {
+        String input = source(" a ", 1, 2).toJSONString() + "\n" +
+                "\n" +
+                "{not json\n" +
+                source("b", 5).toJSONString() + "\n";
+        StringWriter out = new StringWriter();
+
+        MappingStreamResult summary = engine.executeStream("BATCH01", new StringReader(input), out);
+        assertEquals(3, summary.getTotal());
+        assertEquals(1, summary.getFailed());
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        JSONObject first = JSON.parseObject(lines[0]);
+        assertEquals(0, first.getIntValue("index"));
+        assertEquals("A", first.getJSONObject("result").getString("name"));
+        assertEquals(3, first.getJSONObject("result").getIntValue("total"));
+        assertFalse(JSON.parseObject(lines[1]).getBooleanValue("success"));
+        assertEquals(2, JSON.parseObject(lines[2]).getIntValue("index"));
+        assertEquals("B", JSON.parseObject(lines[2]).getJSONObject("result").getString("name"));
+    }
+
+    @Test
+    public void testStreamDoesNotBufferInput() throws IOException {
+        final int documents = 20000;
+        final String line = source("user", 1, 2, 3).toJSONString() + "\n";
+        Reader generated = new Reader() {
+            private int produced;
+            private int offset = line.length();
+
+            @Override
+            public int read(char[] buffer, int off, int len) {
+                if (offset == line.length()) {
+                    if (produced == documents) {
+                        return -1;
+                    }
+                    produced++;
+                    offset = 0;
+                }
+                int count = Math.min(len, line.length() - offset);
+                line.getChars(offset, offset + count, buffer, off);
+                offset += count;
+                return count;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final long[] lines = new long[1];
+        Writer counting = new Writer() {
+            @Override
+            public void write(char[] buffer, int off, int len) {
+                for (int i = off; i < off + len; i++) {
+                    if (buffer[i] == '\n') {
+                        lines[0]++;
+                    }
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        MappingStreamResult summary = engine.executeStream("BATCH01", generated, counting);
+        assertEquals(documents, summary.getTotal());
+        assertEquals(0, summary.getFailed());
+        assertEquals(documents, lines[0]);
+    }
+}
@@ -0,0 +1,95 @@
+package com.aliang.test;
+
+import com.aliang.rule.processor.impl.*;
+import org.junit.*;
+
+import java.time.*;
+import java.time.format.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 日期格式化处理器测试
+ * 验证定长格式、宽松解析、开头空白与超过4位的年份、毫秒时间戳与 ISO-8601 输入，以及共享实例的并发使用。
+ */
+public class DateFormatProcessorTest {
+
+    private static String local(Instant instant, String pattern) {
+        return DateTimeFormatter.ofPattern(pattern).format(instant.atZone(ZoneId.systemDefault()));
+    }
+
+    @Test
+    public void testFixedWidthPatterns() {
+        assertEquals("20240305", new DateFormatProcessor("yyyy-MM-dd->yyyyMMdd").doProcess("2024-03-05"));
+        assertEquals("2024-03-05", new DateFormatProcessor("yyyyMMdd->yyyy-MM-dd").doProcess("20240305"));
+        assertEquals("2024/03/05 13:04",
+                new DateFormatProcessor("yyyy-MM-dd HH:mm:ss->yyyy/MM/dd HH:mm").doProcess("2024-03-05 13:04:05"));
+        assertEquals("2024-03-05 00:00:00",
+                new DateFormatProcessor("yyyy-MM-dd->yyyy-MM-dd HH:mm:ss").doProcess("2024-03-05"));
+    }
+
+    @Test
+    public void testLenientParsing() {
+        DateFormatProcessor processor = new DateFormatProcessor("yyyy-MM-dd->yyyyMMdd");
+        assertEquals("20240305", processor.doProcess("2024-3-5"));
+        assertEquals("20240301", processor.doProcess("2024-02-30"));
+        assertEquals("20240305", processor.doProcess("2024-03-05 13:04:05"));
+        assertEquals("1970-03-05", new DateFormatProcessor("MM-dd->yyyy-MM-dd").doProcess("03-05"));
+        assertEquals("not a date", processor.doProcess("not a date"));
+    }
+
+    @Test
+    public void testLeadingBlanksAndLongYearsMatchSimpleDateFormat() {
+        assertEquals("2024/03/05", new DateFormatProcessor("yyyy-MM-dd->yyyy/MM/dd").doProcess(" 2024-03-05"));
+        assertEquals("20240305", new DateFormatProcessor("yyyy-MM-dd->yyyyMMdd").doProcess("\t 2024-03-05 "));
+        assertEquals("2024-03-05", new DateFormatProcessor("dd/MM/yyyy->yyyy-MM-dd").doProcess("  05/03/2024"));
+        assertEquals("2024-03-05T13:04:05",
+                new DateFormatProcessor("yyyy-MM-dd->yyyy-MM-dd'T'HH:mm:ss").doProcess(" 2024-03-05T13:04:05"));
+
+        assertEquals("99999/01/01", new DateFormatProcessor("yyyy-MM-dd->yyyy/MM/dd").doProcess("99999-01-01"));
+        assertEquals("10000-01-01 00:00:00",
+                new DateFormatProcessor("yyyy-MM-dd->yyyy-MM-dd HH:mm:ss").doProcess("10000-01-01"));
+        assertEquals("01.01.99999", new DateFormatProcessor("yyyy/MM/dd->dd.MM.yyyy").doProcess("99999/01/01"));
+        assertEquals("yyyy 2024", new DateFormatProcessor("yyyy-MM-dd->'yyyy' yyyy").doProcess("2024-03-05"));
+    }
+
+    @Test
+    public void testEpochMillisAndIsoInput() {
+        DateFormatProcessor processor = new DateFormatProcessor("yyyy-MM-dd->yyyy-MM-dd HH:mm:ss");
+        Instant instant = Instant.parse("2024-03-05T13:04:05Z");
+        String expected = local(instant, "yyyy-MM-dd HH:mm:ss");
+
+        assertEquals(expected, processor.doProcess(instant.toEpochMilli()));
+        assertEquals(expected, processor.doProcess("2024-03-05T13:04:05Z"));
+        assertEquals(expected, processor.doProcess("2024-03-05T21:04:05+08:00"));
+        assertEquals(expected, processor.doProcess(Date.from(instant)));
+        /*  数值本身符合输入格式时按输入格式解析 */
+        assertEquals("2024-03-05", new DateFormatProcessor("yyyyMMdd->yyyy-MM-dd").doProcess(20240305));
+    }
+
+    @Test
+    public void testSharedInstanceIsThreadSafe() throws Exception {
+        DateFormatProcessor processor = new DateFormatProcessor("yyyy-MM-dd->dd/MM/yyyy");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                LocalDate date = LocalDate.of(2000, 1, 1).plusDays(offset);
+                for (int i = 0; i < 2000; i++, date = date.plusDays(4)) {
+                    String expected = DateTimeFormatter.ofPattern("dd/MM/yyyy").format(date);
+                    if (!expected.equals(processor.doProcess(date.toString()))) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> future : futures) {
+            assertTrue(future.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.aliang.test;
+
+import com.aliang.registry.dictionary.*;
+import com.aliang.registry.factory.*;
+import com.aliang.rule.processor.*;
+import com.aliang.service.*;
+import com.mongodb.client.*;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.*;
+import de.bwaldvogel.mongo.*;
+import de.bwaldvogel.mongo.backend.memory.*;
+import org.bson.*;
+import org.junit.*;
+import org.springframework.data.mongodb.core.*;
+
+import java.net.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 码表字典测试
+ * 验证字典的查询与值合并，以及 mapvalue 引用 MongoDB 字典时的加载、共享与刷新。
+ */
+public class DictionaryTest {
+    private static final long REFRESH_INTERVAL_MILLIS = 100;
+    private static final long MAX_PROPAGATION_MILLIS = 3000;
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private DictionaryWatcher watcher;
+
+    @Before
+    public void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "config");
+        watcher = new DictionaryWatcher(mongoTemplate, DictionaryRegistry.shared(), "dict_", REFRESH_INTERVAL_MILLIS, true);
+        watcher.start();
+    }
+
+    @After
+    public void tearDown() {
+        watcher.stop();
+        DictionaryRegistry.shared().setLoader(null);
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void testCodeDictionary() {
+        CodeDictionary.Builder builder = CodeDictionary.builder(0);
+        for (int i = 0; i < 10000; i++) {
+            builder.put("K" + i, new String("V" + (i % 7)));
+        }
+        builder.put("K1", "override");
+        CodeDictionary dictionary = builder.build();
+        assertEquals(10000, dictionary.size());
+        assertEquals("override", dictionary.get("K1"));
+        assertEquals("V3", dictionary.get("K9999"));
+        assertNull(dictionary.get("K10000"));
+        assertEquals("x", dictionary.getOrDefault("missing", "x"));
+        assertSame(dictionary.get("K2"), dictionary.get("K9"));
+        assertNull(CodeDictionary.EMPTY.get("K1"));
+    }
+
+    @Test
+    public void testMapValueFromMongoDictionary() throws Exception {
+        MongoCollection<Document> collection = mongoTemplate.getCollection("dict_region_test");
+        List<Document> docs = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            docs.add(new Document("key", String.valueOf(110000 + i)).append("value", "地区" + (i % 10))
+                    .append("updatedAt", 1L));
+        }
+        collection.insertMany(docs);
+
+        ProcessorFactory factory = new ProcessorFactory();
+        ValueProcessor processor = factory.getProcessor("mapvalue", "@region_test");
+        assertSame(processor, factory.getProcessor("mapvalue", "@region_test"));
+        assertEquals("地区1", processor.doProcess("110001"));
+        assertEquals(Arrays.asList("地区0", "999"), processor.doProcess(Arrays.asList(110000, "999")));
+
+        collection.updateOne(Filters.eq("key", "110001"),
+                Updates.combine(Updates.set("value", "北京市"), Updates.set("updatedAt", 2L)));
+        long deadline = System.currentTimeMillis() + MAX_PROPAGATION_MILLIS;
+        while (!"北京市".equals(processor.doProcess("110001")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("北京市", processor.doProcess("110001"));
+        assertEquals("地区2", processor.doProcess("110002"));
+    }
+
+    @Test
+    public void testInlineMappingUnchanged() {
+        ValueProcessor processor = new ProcessorFactory().getProcessor("mapvalue", "@A=甲;B=乙");
+        assertEquals("甲", processor.doProcess("@A"));
+    }
+}
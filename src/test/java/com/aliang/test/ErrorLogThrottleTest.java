@@ -0,0 +1,65 @@
+package com.aliang.test;
+
+import com.aliang.logger.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 错误日志限流测试
+ * 验证默认不限流、按键采样、按时间窗口限流，丢弃条数的报告，以及大量不同日志键出现时持续出错的键仍被限流。
+ */
+public class ErrorLogThrottleTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        ErrorLogThrottle throttle = new ErrorLogThrottle();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, throttle.acquire("uppercase"));
+        }
+    }
+
+    @Test
+    public void testSamplingPerKey() {
+        ErrorLogThrottle throttle = new ErrorLogThrottle();
+        throttle.configure(3, 0, 1000);
+        assertEquals(0, throttle.acquire("a"));
+        assertEquals(-1, throttle.acquire("a"));
+        assertEquals(0, throttle.acquire("b"));
+        assertEquals(-1, throttle.acquire("a"));
+        assertEquals(2, throttle.acquire("a"));
+    }
+
+    @Test
+    public void testRateLimitPerInterval() throws Exception {
+        ErrorLogThrottle throttle = new ErrorLogThrottle();
+        throttle.configure(1, 2, 50);
+        assertEquals(0, throttle.acquire("k"));
+        assertEquals(0, throttle.acquire("k"));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(-1, throttle.acquire("k"));
+        }
+        Thread.sleep(80);
+        assertEquals(10, throttle.acquire("k"));
+        assertEquals(0, throttle.acquire("k"));
+        assertEquals(-1, throttle.acquire("k"));
+    }
+
+    @Test
+    public void testKeyStormKeepsHotKeyThrottled() {
+        ErrorLogThrottle throttle = new ErrorLogThrottle();
+        throttle.configure(10, 0, 1000);
+        int logged = 0;
+        long reported = 0;
+        for (int i = 0; i < 10000; i++) {
+            long hot = throttle.acquire("hot");
+            if (hot >= 0) {
+                logged++;
+                reported += hot;
+            }
+            throttle.acquire("storm-" + i);
+        }
+        assertEquals(1000, logged);
+        assertEquals(9000 - 9, reported);
+    }
+}
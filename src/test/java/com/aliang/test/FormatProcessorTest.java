@@ -0,0 +1,62 @@
+package com.aliang.test;
+
+import com.aliang.rule.processor.impl.*;
+import org.junit.*;
+
+import java.math.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 格式化处理器测试
+ * 验证预解析模板的输出与 String.format 完全相同，包括补零、舍入、负零以及不支持的说明符。
+ */
+public class FormatProcessorTest {
+    private static final String[] FORMATS = {
+            "%s", "[%s]", "%s-%s", "%d", "%06d", "%6d", "ORDER-%06d", "%.2f", "￥%.2f", "%.1f%%",
+            "%f", "%.0f", "%08.2f", "%8.3f", "%%", "%n%s", "%5s", "%,d", "%x", "%1$s", "%s %d", "%", "%.f"
+    };
+
+    private static Object expected(String format, Object value) {
+        try {
+            if (value instanceof String && format.contains("%s-%s")) {
+                return String.format(format, value, value);
+            }
+            return String.format(format, value);
+        } catch (Exception e) {
+            return value;
+        }
+    }
+
+    @Test
+    public void testExamples() {
+        assertEquals("ORDER-000123", new FormatProcessor("ORDER-%06d").doProcess(123));
+        assertEquals("-0000123", new FormatProcessor("%08d").doProcess(-123));
+        assertEquals("￥99.90", new FormatProcessor("￥%.2f").doProcess(99.9));
+        assertEquals("-0.00", new FormatProcessor("%.2f").doProcess(-0.001));
+        assertEquals("1.01", new FormatProcessor("%.2f").doProcess(1.005));
+        assertEquals("a-a", new FormatProcessor("%s-%s").doProcess("a"));
+        /*  类型不匹配时返回原值 */
+        assertEquals("abc", new FormatProcessor("%d").doProcess("abc"));
+    }
+
+    @Test
+    public void testMatchesStringFormat() {
+        Random random = new Random(18);
+        List<Object> values = new ArrayList<>(Arrays.asList(0, -0.0, 0.125, 2.675, 1e20, Long.MIN_VALUE,
+                (short) -5, new BigInteger("-123456789012345678901"), new BigDecimal("-0.005"),
+                new BigDecimal("1E+5"), Double.NaN, 1.5f, "abc", "", true));
+        for (int i = 0; i < 500; i++) {
+            values.add(random.nextGaussian() * Math.pow(10, random.nextInt(30) - 10));
+            values.add(random.nextLong() >> random.nextInt(64));
+            values.add(BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(12) - 2));
+        }
+        for (String format : FORMATS) {
+            FormatProcessor processor = new FormatProcessor(format);
+            for (Object value : values) {
+                assertEquals(format + " <- " + value, expected(format, value), processor.doProcess(value));
+            }
+        }
+    }
+}
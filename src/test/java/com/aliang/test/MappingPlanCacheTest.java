@@ -0,0 +1,115 @@
+package com.aliang.test;
+
+import com.aliang.registry.*;
+import com.aliang.registry.engine.*;
+import com.aliang.registry.factory.*;
+import com.aliang.registry.parse.*;
+import com.aliang.registry.plan.*;
+import com.alibaba.fastjson.*;
+import com.aliang.rule.processor.*;
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 映射计划缓存测试
+ * 验证同一规则版本复用编译后的计划，规则变更或处理器、聚合策略定义被覆盖后重新编译，相同规格的处理器共享实例。
+ */
+public class MappingPlanCacheTest {
+    private static final String SOURCE = "{\"user\":{\"name\":\" john \"},\"items\":[{\"qty\":2},{\"qty\":3}]}";
+
+    private MappingRegistry registry;
+    private MappingEngine engine;
+
+    @Before
+    public void setUp() {
+        registry = new MappingRegistry();
+        engine = new MappingEngine(registry);
+        MappingConfigParser.parseAndRegister(JSON.parseObject("{\"code\":\"PLAN01\",\"mappings\":[" +
+                "{\"sourcePath\":\"$.user.name\",\"targetPath\":\"$.profile.name\",\"processors\":[\"trim\",\"uppercase\"]}," +
+                "{\"sourcePath\":\"$.items[*].qty\",\"targetPath\":\"$.total\",\"aggregationStrategies\":[\"sum\"],\"processors\":[\"tointeger\"]}" +
+                "]}"), registry);
+    }
+
+    @Test
+    public void testPlanReusedForSameVersion() {
+        CompiledMappingPlan first = engine.getPlan("PLAN01");
+        CompiledMappingPlan second = engine.getPlan("PLAN01");
+        assertSame(first, second);
+
+        JSONObject result = engine.executeMapping("PLAN01", JSON.parseObject(SOURCE), new JSONObject());
+        assertEquals("JOHN", result.getJSONObject("profile").getString("name"));
+        assertEquals(Integer.valueOf(5), result.getInteger("total"));
+    }
+
+    @Test
+    public void testPlanRecompiledAfterRuleChange() {
+        CompiledMappingPlan first = engine.getPlan("PLAN01");
+
+        registry.clearMappings("PLAN01");
+        MappingConfigParser.parseAndRegister(JSON.parseObject("{\"code\":\"PLAN01\",\"mappings\":[" +
+                "{\"sourcePath\":\"$.user.name\",\"targetPath\":\"$.profile.name\",\"processors\":[\"trim\",\"lowercase\"]}" +
+                "]}"), registry);
+
+        CompiledMappingPlan second = engine.getPlan("PLAN01");
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+
+        JSONObject result = engine.executeMapping("PLAN01", JSON.parseObject(SOURCE), new JSONObject());
+        assertEquals("john", result.getJSONObject("profile").getString("name"));
+        assertFalse(result.containsKey("total"));
+    }
+
+    @Test
+    public void testPlanRecompiledAfterDefinitionOverride() {
+        ProcessorRegistry processors = ProcessorRegistry.shared();
+        processors.register(ProcessorDefinition.builder("plantag", "PlanTag",
+                p -> (ValueProcessor) value -> "v1:" + value).build());
+        processors.register(AggregationDefinition.builder("planpick", p -> values -> values.get(0))
+                .alias("planchoose").build());
+        MappingConfigParser.parseAndRegister(JSON.parseObject("{\"code\":\"PLAN02\",\"mappings\":[" +
+                "{\"sourcePath\":\"$.user.name\",\"targetPath\":\"$.tag\",\"processors\":[\"plantag\"]}," +
+                "{\"sourcePath\":\"$.items[*].qty\",\"targetPath\":\"$.pick\",\"aggregationStrategies\":[\"planchoose\"]}" +
+                "]}"), registry);
+
+        CompiledMappingPlan first = engine.getPlan("PLAN02");
+        JSONObject result = first.execute(JSON.parseObject(SOURCE));
+        assertEquals("v1: john ", result.getString("tag"));
+        assertEquals(2, result.getIntValue("pick"));
+        assertSame(first, engine.getPlan("PLAN02"));
+
+        processors.register(ProcessorDefinition.builder("plantag", "PlanTag",
+                p -> (ValueProcessor) value -> "v2:" + value).build());
+        CompiledMappingPlan second = engine.getPlan("PLAN02");
+        assertNotSame(first, second);
+        assertEquals(first.getVersion(), second.getVersion());
+        assertEquals("v2: john ", second.execute(JSON.parseObject(SOURCE)).getString("tag"));
+
+        processors.register(AggregationDefinition.builder("planpick", p -> values -> values.get(values.size() - 1))
+                .alias("planchoose").build());
+        CompiledMappingPlan third = engine.getPlan("PLAN02");
+        assertNotSame(second, third);
+        assertEquals(3, third.execute(JSON.parseObject(SOURCE)).getIntValue("pick"));
+        assertSame(third, engine.getPlan("PLAN02"));
+    }
+
+    @Test
+    public void testProcessorSharedBySpec() {
+        ProcessorFactory factory = new ProcessorFactory();
+        ValueProcessor first = factory.getProcessor("mapValue", "A=甲;B=乙");
+        ValueProcessor second = new ProcessorFactory().getProcessor("mapvalue", "A=甲;B=乙");
+        assertSame(first, second);
+        assertNotSame(first, factory.getProcessor("mapvalue", "A=甲"));
+        assertEquals("乙", second.doProcess("B"));
+
+        assertNull(factory.getProcessor("prefix", null));
+        assertNull(factory.getProcessor("unknown", "x"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnknownCodeFails() {
+        engine.executeMapping("MISSING", JSON.parseObject(SOURCE), new JSONObject());
+    }
+}
@@ -0,0 +1,68 @@
+package com.aliang.test;
+
+import com.aliang.registry.path.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 输出骨架测试
+ * 验证按骨架构建的结果与逐字段写入一致，以及同一数组下的多个字段写入同一元素。
+ */
+public class OutputSkeletonTest {
+
+    private List<TargetPath> compile(String... paths) {
+        List<TargetPath> result = new ArrayList<>();
+        for (String path : paths) {
+            result.add(TargetPath.compile(path));
+        }
+        return result;
+    }
+
+    private JSONObject writeSequentially(List<TargetPath> paths, Object[] values) {
+        JSONObject result = new JSONObject();
+        for (int i = 0; i < values.length; i++) {
+            paths.get(i).write(result, values[i]);
+        }
+        return result;
+    }
+
+    @Test
+    public void testSkeletonMatchesSequentialWrites() {
+        List<TargetPath> paths = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            paths.add(TargetPath.compile("$.field" + i));
+            values.add(i);
+        }
+        paths.addAll(compile("$.user.name", "$.user.address.city", "$.tags[*]", "$.user.address.zip", "plain"));
+        values.addAll(Arrays.asList("Tom", "Paris", "a", null, true));
+
+        Object[] array = values.toArray();
+        JSONObject expected = writeSequentially(paths, array);
+        JSONObject actual = OutputSkeleton.build(paths).create(array);
+        assertEquals(expected, actual);
+        assertEquals(JSON.toJSONString(expected), JSON.toJSONString(actual));
+        assertTrue(actual.getJSONObject("user").getJSONObject("address").containsKey("zip"));
+    }
+
+    @Test
+    public void testFieldsUnderSameArrayShareElement() {
+        List<TargetPath> paths = compile("$.items[*].name", "$.items[*].qty", "$.items[*].price.amount");
+        Object[] values = {"apple", 2, "9.99"};
+
+        JSONObject expected = JSON.parseObject("{\"items\":[{\"name\":\"apple\",\"qty\":2,\"price\":{\"amount\":\"9.99\"}}]}");
+        assertEquals(expected, OutputSkeleton.build(paths).create(values));
+        assertEquals(expected, writeSequentially(paths, values));
+    }
+
+    @Test
+    public void testConflictingPathsHaveNoSkeleton() {
+        assertNull(OutputSkeleton.build(compile("$.a", "$.a.b")));
+        assertNull(OutputSkeleton.build(compile("$.a.b", "$.a[*].c")));
+        assertNotNull(OutputSkeleton.build(compile("$.a", "$.a")));
+    }
+}
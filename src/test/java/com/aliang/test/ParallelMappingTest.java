@@ -0,0 +1,201 @@
+package com.aliang.test;
+
+import com.aliang.registry.*;
+import com.aliang.registry.engine.*;
+import com.aliang.registry.parse.*;
+import com.aliang.registry.plan.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 并行映射测试
+ * 验证批量、流式与字段级并行执行的结果与串行一致、顺序不变，且同时执行的分块数不超过上限。
+ */
+public class ParallelMappingTest {
+    private static final int MAX_IN_FLIGHT = 3;
+
+    private MappingRegistry registry;
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        registry = new MappingRegistry();
+        MappingConfigParser.parseAndRegister(JSON.parseObject("{\"code\":\"PAR01\",\"mappings\":[" +
+                "{\"sourcePath\":\"$.user.name\",\"targetPath\":\"$.name\",\"processors\":[\"trim\",\"uppercase\"]}," +
+                "{\"sourcePath\":\"$.user.birthday\",\"targetPath\":\"$.birthday\",\"processors\":[\"dateformat:yyyy-MM-dd->yyyyMMdd\"]}," +
+                "{\"sourcePath\":\"$.user.balance\",\"targetPath\":\"$.balance\",\"processors\":[\"money:2\"]}," +
+                "{\"sourcePath\":\"$.items[*].qty\",\"targetPath\":\"$.lines[*].total\",\"aggregationStrategies\":[\"sum\"]}," +
+                "{\"sourcePath\":\"$.items[*].name\",\"targetPath\":\"$.lines[*].names\",\"aggregationStrategies\":[\"join:delimiter=/\"]}" +
+                "]}"), registry);
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private MappingEngine engine(Executor executor) {
+        MappingEngine engine = new MappingEngine(registry);
+        if (executor != null) {
+            engine.setParallelExecutor(new ParallelMappingExecutor(executor, 4, 256, MAX_IN_FLIGHT, 2));
+        }
+        return engine;
+    }
+
+    private JSONObject source(int i) {
+        JSONArray items = new JSONArray();
+        for (int j = 0; j <= i % 5; j++) {
+            items.add(new JSONObject().fluentPut("qty", j + i).fluentPut("name", "p" + j));
+        }
+        return new JSONObject()
+                .fluentPut("user", new JSONObject()
+                        .fluentPut("name", " user" + i + " ")
+                        .fluentPut("birthday", String.format("19%02d-%02d-%02d", i % 100, i % 12 + 1, i % 28 + 1))
+                        .fluentPut("balance", i * 1234.567))
+                .fluentPut("items", items);
+    }
+
+    @Test
+    public void testParallelBatchMatchesSequential() {
+        List<JSONObject> sources = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            sources.add(source(i));
+        }
+        sources.set(17, null);
+
+        List<MappingItemResult> expected = engine(null).executeBatch("PAR01", sources);
+        List<MappingItemResult> actual = engine(pool).executeBatch("PAR01", sources);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, actual.get(i).getIndex());
+            assertEquals(expected.get(i).isSuccess(), actual.get(i).isSuccess());
+            assertEquals(expected.get(i).getResult(), actual.get(i).getResult());
+        }
+        assertFalse(actual.get(17).isSuccess());
+    }
+
+    @Test
+    public void testParallelStreamKeepsOrder() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            input.append(i == 5 ? "{broken" : source(i).toJSONString()).append('\n');
+        }
+
+        StringWriter expected = new StringWriter();
+        StringWriter actual = new StringWriter();
+        engine(null).executeStream("PAR01", new StringReader(input.toString()), expected);
+        MappingStreamResult summary = engine(pool).executeStream("PAR01", new StringReader(input.toString()), actual);
+
+        assertEquals(3000, summary.getTotal());
+        assertEquals(1, summary.getFailed());
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void testInFlightChunksBounded() throws Exception {
+        /*  单个慢速工作线程执行分块，排队中的分块均未被取走结果，其数量即为同时在途的分块数 */
+        BlockingQueue<Runnable> queued = new LinkedBlockingQueue<>();
+        AtomicInteger maxQueued = new AtomicInteger();
+        Executor slow = task -> {
+            queued.add(task);
+            maxQueued.accumulateAndGet(queued.size(), Math::max);
+        };
+        Thread worker = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Runnable task = queued.take();
+                    Thread.sleep(2);
+                    task.run();
+                }
+            } catch (InterruptedException ignored) {
+                // 测试结束
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+
+        try {
+            List<JSONObject> sources = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                sources.add(source(i));
+            }
+            List<MappingItemResult> results = engine(slow).executeBatch("PAR01", sources);
+            assertEquals(200, results.size());
+            assertEquals(199, results.get(199).getIndex());
+            assertTrue("在途分块数超过上限: " + maxQueued.get(), maxQueued.get() <= MAX_IN_FLIGHT);
+        } finally {
+            worker.interrupt();
+        }
+    }
+
+    private void registerWideRule(String code, int width, Map<Integer, String> brokenPaths) {
+        JSONArray mappings = new JSONArray();
+        for (int i = 0; i < width; i++) {
+            String sourcePath = brokenPaths.containsKey(i) ? brokenPaths.get(i)
+                    : (i % 3 == 0 ? "$.items[*].qty" : "$.user.name");
+            JSONObject mapping = new JSONObject()
+                    .fluentPut("sourcePath", sourcePath)
+                    .fluentPut("targetPath", "$.group" + (i % 7) + ".field" + i);
+            if (i % 3 == 0) {
+                mapping.put("aggregationStrategies", Collections.singletonList(i % 2 == 0 ? "sum" : "max"));
+            } else {
+                mapping.put("processors", Arrays.asList("trim", i % 2 == 0 ? "uppercase" : "lowercase"));
+            }
+            mappings.add(mapping);
+        }
+        MappingConfigParser.parseAndRegister(new JSONObject().fluentPut("code", code).fluentPut("mappings", mappings), registry);
+    }
+
+    @Test
+    public void testFieldParallelMatchesSequential() {
+        registerWideRule("WIDE01", 300, Collections.emptyMap());
+        MappingEngine sequential = new MappingEngine(registry);
+        MappingEngine parallel = new MappingEngine(registry);
+        parallel.setFieldParallelism(new FieldParallelism(pool, 4, 100, 0));
+
+        assertTrue(parallel.getPlan("WIDE01").getCost() > 300);
+        for (int i = 0; i < 20; i++) {
+            JSONObject expected = sequential.executeMapping("WIDE01", source(i), new JSONObject());
+            JSONObject actual = parallel.executeMapping("WIDE01", source(i), new JSONObject());
+            assertEquals(expected, actual);
+            assertEquals(JSON.toJSONString(expected), JSON.toJSONString(actual));
+        }
+    }
+
+    @Test
+    public void testFieldParallelReportsFirstFailure() {
+        Map<Integer, String> broken = new HashMap<>();
+        broken.put(40, "$.items[?(@ > 65)]");
+        broken.put(260, "$.items[?(@.qty ~ 1)]");
+        registerWideRule("WIDE02", 300, broken);
+        MappingEngine sequential = new MappingEngine(registry);
+        MappingEngine parallel = new MappingEngine(registry);
+        parallel.setFieldParallelism(new FieldParallelism(pool, 4, 100, 0));
+
+        String expected = rootCauseMessage(() -> sequential.executeMapping("WIDE02", source(1), new JSONObject()));
+        String actual = rootCauseMessage(() -> parallel.executeMapping("WIDE02", source(1), new JSONObject()));
+        assertNotNull(expected);
+        assertEquals(expected, actual);
+    }
+
+    private String rootCauseMessage(Runnable mapping) {
+        try {
+            mapping.run();
+        } catch (RuntimeException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            return cause.getMessage();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,115 @@
+package com.aliang.test;
+
+import com.aliang.registry.factory.*;
+import com.aliang.rule.processor.*;
+import ch.qos.logback.classic.*;
+import org.junit.*;
+import org.slf4j.LoggerFactory;
+
+import java.math.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 处理器链测试
+ * 验证融合执行、批量处理与逐个处理器执行的结果完全一致，包括集合中的null元素、嵌套集合与处理器异常。
+ */
+public class ProcessorChainTest {
+    private static final String[] SPECS = {
+            "trim", "uppercase", "lowercase", "prefix:ZIP-", "suffix:-A", "capitalize", "reverse",
+            "substring:0,3", "mapvalue:A=甲;zip-a=乙", "tointeger", "json", "dateformat:yyyy-MM-dd->yyyyMMdd",
+            "roundtwodecimal:1"
+    };
+
+    private final ProcessorFactory factory = new ProcessorFactory();
+
+    private ValueProcessor[] processors(String... specs) {
+        ValueProcessor[] processors = new ValueProcessor[specs.length];
+        for (int i = 0; i < specs.length; i++) {
+            String[] parts = specs[i].split(":", 2);
+            processors[i] = factory.getProcessor(parts[0], parts.length > 1 ? parts[1] : null);
+        }
+        return processors;
+    }
+
+    private static Object stepwise(ValueProcessor[] processors, Object value) {
+        Object result = value;
+        for (ValueProcessor processor : processors) {
+            result = processor.doProcess(result);
+        }
+        return result;
+    }
+
+    @Test
+    public void testStringChainOverArray() {
+        ValueProcessor[] processors = processors("trim", "uppercase", "prefix:ZIP-", "suffix:-A");
+        List<Object> input = Arrays.asList(" a ", "b", 12, "  Écran ");
+        Object result = new ProcessorChain(processors).apply(input);
+        assertEquals(Arrays.asList("ZIP-A-A", "ZIP-B-A", "ZIP-12-A", "ZIP-ÉCRAN-A"), result);
+        assertEquals(stepwise(processors, input), result);
+    }
+
+    @Test
+    public void testNullElementKeepsStepwiseSemantics() {
+        /*  null元素使 trim 对整个数组失效，前缀仍然生效 */
+        ValueProcessor[] processors = processors("trim", "prefix:P-");
+        List<Object> input = Arrays.asList(" a ", null);
+        Object result = new ProcessorChain(processors).apply(input);
+        assertEquals(Arrays.asList("P- a ", "P-null"), result);
+        assertEquals(stepwise(processors, input), result);
+    }
+
+    @Test
+    public void testProcessAllMatchesDoProcess() {
+        /*  批量处理的结果不应受调试日志开关影响 */
+        Logger logger = (Logger) LoggerFactory.getLogger("Processor");
+        Level level = logger.getLevel();
+        try {
+            for (Level current : new Level[]{Level.DEBUG, Level.INFO}) {
+                logger.setLevel(current);
+                assertProcessAllMatchesDoProcess();
+            }
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    private void assertProcessAllMatchesDoProcess() {
+        List<Object> input = Arrays.asList(" a ", "B", 3.14159, Arrays.asList("x", 1), "12.345");
+        List<Object> withNull = Arrays.asList("a", null, "1.5");
+        List<Object> unparsable = Arrays.asList("1.005", "abc", 2, new BigDecimal("-0.05"));
+        for (String spec : SPECS) {
+            ValueProcessor processor = processors(spec)[0];
+            for (List<Object> values : Arrays.asList(input, withNull, unparsable)) {
+                Object[] out = new Object[values.size()];
+                processor.processAll(values.toArray(), out, out.length);
+                assertEquals(spec + " <- " + values, processor.doProcess(values), Arrays.asList(out));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomChainsMatchStepwise() {
+        Random random = new Random(42);
+        Object[] values = {
+                null, "  Hello World ", "a", "", "2024-03-05", 42, 3.5, "zip-a",
+                Arrays.asList(" x ", "Y", null, 7, Arrays.asList("n", "m")),
+                Arrays.asList("A", "b", " c "),
+                new HashMap<>(Collections.singletonMap("k", " v ")),
+                new ArrayList<>()
+        };
+        for (int round = 0; round < 500; round++) {
+            String[] specs = new String[1 + random.nextInt(5)];
+            for (int i = 0; i < specs.length; i++) {
+                specs[i] = SPECS[random.nextInt(SPECS.length)];
+            }
+            ValueProcessor[] processors = processors(specs);
+            ProcessorChain chain = new ProcessorChain(processors);
+            for (Object value : values) {
+                assertEquals(Arrays.toString(specs) + " <- " + value,
+                        stepwise(processors, value), chain.apply(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.aliang.test;
+
+import com.aliang.registry.factory.*;
+import com.aliang.registry.plan.*;
+import com.aliang.rule.processor.*;
+import com.aliang.rule.processor.impl.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 处理器注册表测试
+ * 验证内置处理器与聚合策略的查找和元数据、ServiceLoader 扩展，以及整体处理集合的处理器在映射计划中的执行。
+ */
+public class ProcessorRegistryTest {
+
+    /**
+     * 通过 META-INF/services 注册的示例扩展
+     */
+    public static class SampleProvider implements ProcessorProvider {
+        @Override
+        public Collection<ProcessorDefinition> processors() {
+            return Collections.singletonList(ProcessorDefinition.builder("sample", "SampleProcessor",
+                    p -> (ValueProcessor) value -> "sample:" + value).cost(5).build());
+        }
+    }
+
+    @Test
+    public void testBuiltinsReachable() {
+        ProcessorFactory factory = new ProcessorFactory();
+        assertTrue(factory.getProcessor("idcard", "mask") instanceof IdCardProcessor);
+        assertTrue(factory.getProcessor("StatusToChinese", "1:启用,0:停用") instanceof StatusToChineseProcessor);
+        assertEquals("启用", factory.getProcessor("statustochinese", "1:启用,0:停用").doProcess("1"));
+        assertEquals("a|b|1", factory.getProcessor("listjoin", "|").doProcess(Arrays.asList("a", "b", 1)));
+        assertNull(factory.getProcessor("prefix", null));
+        assertNull(factory.getProcessor("nosuch", null));
+
+        ProcessorRegistry registry = ProcessorRegistry.shared();
+        assertFalse(registry.getProcessor("listjoin").isElementWise());
+        assertFalse(registry.getProcessor("mapvalue").isPure());
+        assertEquals(ValueKind.NUMERIC, registry.getProcessor("money").getInputKind());
+        assertSame(registry.getAggregation("avg"), registry.getAggregation("AVERAGE"));
+        assertTrue(registry.getAggregation("join").isProcessorsFirst());
+    }
+
+    @Test
+    public void testServiceLoaderExtension() {
+        assertEquals("sample:x", new ProcessorFactory().getProcessor("sample", null).doProcess("x"));
+    }
+
+    @Test
+    public void testCustomRegistry() {
+        ProcessorRegistry registry = new ProcessorRegistry();
+        registry.register(ProcessorDefinition.builder("upper", "Upper", p -> new UppercaseProcessor()).build());
+        ProcessorFactory factory = new ProcessorFactory(registry);
+        assertEquals("AB", factory.getProcessor("upper", null).doProcess("ab"));
+        assertNull(factory.getProcessor("uppercase", null));
+    }
+
+    @Test
+    public void testCollectionWiseProcessorInPlan() {
+        Map<String, JSONObject> mappings = new LinkedHashMap<>();
+        mappings.put("$.tags", JSON.parseObject("{\"sourcePath\":\"$.items[*].tag\","
+                + "\"processors\":[\"trim\",\"uppercase\",\"listjoin:/\"]}"));
+        CompiledMappingPlan plan = new MappingPlanCompiler(new ProcessorFactory()).compile("REG01", 1, mappings);
+        JSONObject source = JSON.parseObject("{\"items\":[{\"tag\":\" a \"},{\"tag\":\"b\"}]}");
+        assertEquals("A/B", plan.execute(source).getString("tags"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.aliang.test;
+
+import com.aliang.registry.factory.*;
+import com.aliang.rule.processor.*;
+import com.aliang.utils.*;
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 替换处理器测试
+ * 验证正则替换结果不变，以及多目标替换与逐位置匹配（最左、最长、不重叠）的朴素实现一致。
+ */
+public class ReplaceProcessorTest {
+    private final ProcessorFactory factory = new ProcessorFactory();
+
+    @Test
+    public void testRegexReplace() {
+        ValueProcessor processor = factory.getProcessor("replace", "\\d+->#->regex");
+        assertEquals("a#b#", processor.doProcess("a12b3"));
+        assertEquals(Arrays.asList("#", "x"), processor.doProcess(Arrays.asList(42, "x")));
+        /*  非法正则不影响输入值 */
+        assertEquals("a(b", factory.getProcessor("replace", "(->x->regex").doProcess("a(b"));
+    }
+
+    @Test
+    public void testMultiLiteralReplace() {
+        ValueProcessor processor = factory.getProcessor("replace", "北京->京|北京市->京市|路->Rd|号->No.|->ignored");
+        assertEquals("京市朝阳Rd1No.", processor.doProcess("北京市朝阳路1号"));
+        assertEquals("京海淀", processor.doProcess("北京海淀"));
+        assertEquals("上海", processor.doProcess("上海"));
+        /*  单条规则中的 | 仍按普通字符串替换 */
+        assertEquals("x", factory.getProcessor("replace", "a|b->x").doProcess("a|b"));
+    }
+
+    @Test
+    public void testMatchesNaiveLeftmostLongest() {
+        Random random = new Random(17);
+        for (int round = 0; round < 300; round++) {
+            List<String> targets = new ArrayList<>();
+            List<String> replacements = new ArrayList<>();
+            int count = 1 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                targets.add(randomText(random, 1 + random.nextInt(4)));
+                replacements.add(random.nextBoolean() ? "" : "<" + i + ">");
+            }
+            AhoCorasickReplacer replacer = new AhoCorasickReplacer(targets, replacements);
+            for (int i = 0; i < 20; i++) {
+                String text = randomText(random, random.nextInt(30));
+                assertEquals(targets + " <- " + text, naive(targets, replacements, text), replacer.replace(text));
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append("abc".charAt(random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    private static String naive(List<String> targets, List<String> replacements, String text) {
+        StringBuilder builder = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            int best = -1;
+            for (int t = 0; t < targets.size(); t++) {
+                String target = targets.get(t);
+                if (text.startsWith(target, i) && (best < 0 || target.length() > targets.get(best).length())) {
+                    best = t;
+                }
+            }
+            if (best < 0) {
+                builder.append(text.charAt(i++));
+            } else {
+                builder.append(replacements.get(best));
+                i += targets.get(best).length();
+            }
+        }
+        return builder.toString();
+    }
+}
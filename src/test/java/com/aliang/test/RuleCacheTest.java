@@ -0,0 +1,156 @@
+package com.aliang.test;
+
+import com.aliang.registry.*;
+import com.aliang.registry.engine.*;
+import com.aliang.service.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 规则缓存测试
+ * 验证缓存命中不回源、LRU淘汰、TTL过期、并发刷新时不会读到空规则，以及加载后规则被移除时仍按加载的规则映射。
+ */
+public class RuleCacheTest {
+    private final Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+
+    private ProductMappingService newService(int maxSize, long ttlMillis) {
+        ProductMappingService service = new ProductMappingService() {
+            {
+                this.ruleCacheMaxSize = maxSize;
+                this.ruleCacheTtlMillis = ttlMillis;
+            }
+
+            @Override
+            public JSONObject getMappingConfigFromMongo(String code) {
+                loads.computeIfAbsent(code, k -> new AtomicInteger()).incrementAndGet();
+                return JSON.parseObject("{\"code\":\"" + code + "\",\"mappings\":[" +
+                        "{\"sourcePath\":\"$.name\",\"targetPath\":\"$.name\",\"processors\":[\"uppercase\"]}]}");
+            }
+        };
+        service.initRuleCache();
+        service.initEngine();
+        return service;
+    }
+
+    private Map<String, Object> source() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("name", "cache");
+        return source;
+    }
+
+    private int loadCount(String code) {
+        AtomicInteger count = loads.get(code);
+        return count != null ? count.get() : 0;
+    }
+
+    @Test
+    public void testCacheHitSkipsMongo() {
+        ProductMappingService service = newService(10, 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("CACHE", service.processMapping("C1", source(), new HashMap<>()).get("name"));
+        }
+        assertEquals(1, loadCount("C1"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedCodeEvicted() throws Exception {
+        ProductMappingService service = newService(2, 0);
+        service.processMapping("A", source(), new HashMap<>());
+        Thread.sleep(5);
+        service.processMapping("B", source(), new HashMap<>());
+        Thread.sleep(5);
+        service.processMapping("A", source(), new HashMap<>());
+        Thread.sleep(5);
+        service.processMapping("C", source(), new HashMap<>());
+
+        service.processMapping("A", source(), new HashMap<>());
+        service.processMapping("B", source(), new HashMap<>());
+        assertEquals(1, loadCount("A"));
+        assertEquals(2, loadCount("B"));
+    }
+
+    @Test
+    public void testExpiredRulesReloaded() throws Exception {
+        ProductMappingService service = newService(10, 50);
+        service.processMapping("T1", source(), new HashMap<>());
+        service.processMapping("T1", source(), new HashMap<>());
+        assertEquals(1, loadCount("T1"));
+
+        Thread.sleep(80);
+        service.processMapping("T1", source(), new HashMap<>());
+        assertEquals(2, loadCount("T1"));
+    }
+
+    @Test
+    public void testConcurrentRefreshNeverSeesEmptyRules() throws Exception {
+        ProductMappingService service = newService(10, 0);
+        service.processMapping("R1", source(), new HashMap<>());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        futures.add(pool.submit(() -> {
+            while (running.get()) {
+                service.refreshRules("R1");
+            }
+        }));
+        for (int t = 0; t < 3; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    try {
+                        if (!"CACHE".equals(service.processMapping("R1", source(), new HashMap<>()).get("name"))) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (int i = 1; i < futures.size(); i++) {
+            futures.get(i).get(30, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        futures.get(0).get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(0, failures.get());
+    }
+
+    @Test
+    public void testRulesRemovedAfterLoadStillMapped() {
+        ProductMappingService service = new ProductMappingService() {
+            {
+                this.ruleCacheMaxSize = 10;
+                this.ruleCacheTtlMillis = 0;
+            }
+
+            @Override
+            public JSONObject getMappingConfigFromMongo(String code) {
+                return JSON.parseObject("{\"code\":\"" + code + "\",\"mappings\":[" +
+                        "{\"sourcePath\":\"$.name\",\"targetPath\":\"$.name\",\"processors\":[\"uppercase\"]}]}");
+            }
+
+            @Override
+            protected MappingRuleSet loadRules(String code) {
+                MappingRuleSet ruleSet = super.loadRules(code);
+                /*  模拟加载之后、执行之前规则被淘汰或被变更监听失效 */
+                invalidateRules(code);
+                return ruleSet;
+            }
+        };
+        service.initRuleCache();
+        service.initEngine();
+
+        assertEquals("CACHE", service.processMapping("E1", source(), new HashMap<>()).get("name"));
+        List<MappingItemResult> results = service.processBatch("E1", Collections.singletonList(source()));
+        assertEquals("CACHE", results.get(0).getResult().getString("name"));
+    }
+}
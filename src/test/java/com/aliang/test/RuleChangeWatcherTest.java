@@ -0,0 +1,210 @@
+package com.aliang.test;
+
+import com.aliang.service.*;
+import com.alibaba.fastjson.*;
+import com.mongodb.*;
+import com.mongodb.client.*;
+import de.bwaldvogel.mongo.*;
+import de.bwaldvogel.mongo.backend.memory.*;
+import org.bson.*;
+import org.junit.*;
+import org.springframework.data.mongodb.core.*;
+import org.springframework.data.mongodb.core.query.*;
+
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 规则变更监听测试
+ * 使用内存版 MongoDB（单机，不支持 Change Stream）验证轮询模式下：
+ * 1. 请求命中缓存时不访问 MongoDB
+ * 2. 规则修改在限定时间内对请求可见
+ * 3. 规则删除后缓存被清理
+ * 4. Change Stream 因非"不支持"的错误中断时，中断前后的修改仍然生效，并继续重试监听
+ */
+public class RuleChangeWatcherTest {
+    private static final String COLLECTION = "mapping_rules";
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long MAX_PROPAGATION_MILLIS = 3000;
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private ProductMappingService service;
+    private RuleChangeWatcher watcher;
+    private final AtomicInteger mongoReads = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "config");
+        mongoTemplate.insert(ruleDocument("WATCH01", "uppercase", 1L), COLLECTION);
+
+        service = new ProductMappingService() {
+            {
+                this.mongoTemplate = RuleChangeWatcherTest.this.mongoTemplate;
+                this.collectionName = COLLECTION;
+                this.ruleCacheMaxSize = 100;
+                this.ruleCacheTtlMillis = 0;
+            }
+
+            @Override
+            protected JSONObject getMappingConfigFromMongo(String code) {
+                mongoReads.incrementAndGet();
+                return super.getMappingConfigFromMongo(code);
+            }
+        };
+        service.initRuleCache();
+        service.initEngine();
+
+        watcher = new RuleChangeWatcher(mongoTemplate, COLLECTION,
+                Collections.singletonList(service), POLL_INTERVAL_MILLIS, true);
+        watcher.start();
+        awaitPolling(watcher);
+    }
+
+    private static void awaitPolling(RuleChangeWatcher watcher) {
+        long start = System.currentTimeMillis();
+        while (!watcher.isPolling() && System.currentTimeMillis() - start < MAX_PROPAGATION_MILLIS) {
+            Thread.yield();
+        }
+        assertTrue("监听器未切换到轮询模式", watcher.isPolling());
+    }
+
+    @After
+    public void tearDown() {
+        watcher.stop();
+        client.close();
+        server.shutdownNow();
+    }
+
+    private Document ruleDocument(String code, String processor, long version) {
+        Document mapping = new Document("sourcePath", "$.name")
+                .append("targetPath", "$.name")
+                .append("processors", Collections.singletonList(processor));
+        return new Document("code", code)
+                .append("mappings", Collections.singletonList(mapping))
+                .append("updatedAt", new Date())
+                .append("version", version);
+    }
+
+    private Object map(String code) {
+        Map<String, Object> source = new HashMap<>();
+        source.put("name", "Watch");
+        return service.processMapping(code, source, new HashMap<>()).get("name");
+    }
+
+    private long awaitResult(String expected) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() - start < MAX_PROPAGATION_MILLIS) {
+            try {
+                if (expected.equals(map("WATCH01"))) {
+                    return System.currentTimeMillis() - start;
+                }
+            } catch (RuntimeException ignored) {
+                // 规则暂不可用时继续等待
+            }
+            Thread.sleep(10);
+        }
+        fail("规则变更未在 " + MAX_PROPAGATION_MILLIS + "ms 内生效, 期望: " + expected);
+        return -1;
+    }
+
+    @Test
+    public void testUpdatePropagatesWithoutPerRequestReads() throws Exception {
+        assertEquals("WATCH", map("WATCH01"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("WATCH", map("WATCH01"));
+        }
+        assertEquals("缓存命中时不应访问MongoDB", 1, mongoReads.get());
+
+        /*  等待轮询建立基线后再修改规则 */
+        Thread.sleep(POLL_INTERVAL_MILLIS * 3);
+        Query query = new Query(Criteria.where("code").is("WATCH01"));
+        Update update = new Update()
+                .set("mappings", ruleDocument("WATCH01", "lowercase", 2L).get("mappings"))
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+        mongoTemplate.updateFirst(query, update, COLLECTION);
+
+        long elapsed = awaitResult("watch");
+        assertTrue(watcher.isPolling());
+        assertTrue(elapsed < MAX_PROPAGATION_MILLIS);
+
+        int readsAfterRefresh = mongoReads.get();
+        for (int i = 0; i < 100; i++) {
+            assertEquals("watch", map("WATCH01"));
+        }
+        assertEquals("刷新后请求仍不应访问MongoDB", readsAfterRefresh, mongoReads.get());
+    }
+
+    @Test
+    public void testDeleteInvalidatesCachedRules() throws Exception {
+        assertEquals("WATCH", map("WATCH01"));
+        Thread.sleep(POLL_INTERVAL_MILLIS * 3);
+
+        mongoTemplate.remove(new Query(Criteria.where("code").is("WATCH01")), COLLECTION);
+
+        long start = System.currentTimeMillis();
+        boolean invalidated = false;
+        while (System.currentTimeMillis() - start < MAX_PROPAGATION_MILLIS) {
+            try {
+                map("WATCH01");
+            } catch (RuntimeException e) {
+                invalidated = true;
+                break;
+            }
+            Thread.sleep(10);
+        }
+        assertTrue("删除的规则未在限定时间内失效", invalidated);
+    }
+
+    @Test
+    public void testUpdatePropagatesAfterStreamFailure() throws Exception {
+        watcher.stop();
+        CountDownLatch updated = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        watcher = new RuleChangeWatcher(mongoTemplate, COLLECTION,
+                Collections.singletonList(service), POLL_INTERVAL_MILLIS, true) {
+            @Override
+            protected BsonDocument watchChangeStream(BsonDocument resumeToken) {
+                if (attempts.incrementAndGet() > 1) {
+                    return super.watchChangeStream(resumeToken);
+                }
+                /*  模拟监听期间发生主节点切换：规则已修改，但事件没有送达 */
+                try {
+                    updated.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                BsonDocument response = new BsonDocument("ok", new BsonDouble(0))
+                        .append("code", new BsonInt32(10107))
+                        .append("errmsg", new BsonString("not primary"));
+                throw new MongoCommandException(response, new ServerAddress());
+            }
+        };
+        watcher.start();
+
+        assertEquals("WATCH", map("WATCH01"));
+        Query query = new Query(Criteria.where("code").is("WATCH01"));
+        Update update = new Update()
+                .set("mappings", ruleDocument("WATCH01", "lowercase", 2L).get("mappings"))
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+        mongoTemplate.updateFirst(query, update, COLLECTION);
+        updated.countDown();
+
+        awaitResult("watch");
+        long start = System.currentTimeMillis();
+        while (attempts.get() < 2 && System.currentTimeMillis() - start < MAX_PROPAGATION_MILLIS) {
+            Thread.sleep(10);
+        }
+        assertTrue("监听中断后应重试Change Stream", attempts.get() >= 2);
+    }
+}
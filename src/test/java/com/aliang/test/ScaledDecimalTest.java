@@ -0,0 +1,52 @@
+package com.aliang.test;
+
+import com.aliang.utils.*;
+import org.junit.*;
+
+import java.math.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 定点小数测试
+ * 验证解析、乘法与 HALF_UP 舍入的结果与 BigDecimal 完全一致，溢出和不支持的格式返回null。
+ */
+public class ScaledDecimalTest {
+
+    @Test
+    public void testParse() {
+        assertEquals(new BigDecimal("-0.50"), ScaledDecimal.parse("-0.50").toBigDecimal());
+        assertEquals(new BigDecimal("+12."), ScaledDecimal.parse("+12.").toBigDecimal());
+        assertEquals(new BigDecimal(".5"), ScaledDecimal.parse(".5").toBigDecimal());
+        assertNull(ScaledDecimal.parse("1E+3"));
+        assertNull(ScaledDecimal.parse("1234567890123456789"));
+        assertNull(ScaledDecimal.parse("-"));
+        assertNull(ScaledDecimal.parse("1.2.3"));
+    }
+
+    @Test
+    public void testOverflowReturnsNull() {
+        ScaledDecimal large = ScaledDecimal.valueOf(Long.MAX_VALUE / 2, 0);
+        assertNull(large.multiply(ScaledDecimal.valueOf(10, 0)));
+        assertNull(large.setScale(2));
+    }
+
+    @Test
+    public void testArithmeticMatchesBigDecimal() {
+        Random random = new Random(15);
+        for (int i = 0; i < 20000; i++) {
+            long unscaled = (long) (random.nextGaussian() * Math.pow(10, random.nextInt(12)));
+            int scale = random.nextInt(8);
+            BigDecimal expected = BigDecimal.valueOf(unscaled, scale);
+            ScaledDecimal decimal = ScaledDecimal.parse(expected.toPlainString());
+            assertEquals(expected, decimal.toBigDecimal());
+
+            ScaledDecimal rate = ScaledDecimal.parse("0.85");
+            assertEquals(expected.multiply(new BigDecimal("0.85")), decimal.multiply(rate).toBigDecimal());
+
+            int newScale = random.nextInt(6);
+            assertEquals(expected.setScale(newScale, RoundingMode.HALF_UP), decimal.setScale(newScale).toBigDecimal());
+        }
+    }
+}
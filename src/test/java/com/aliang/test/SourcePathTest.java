@@ -0,0 +1,111 @@
+package com.aliang.test;
+
+import com.aliang.registry.path.*;
+import com.alibaba.fastjson.*;
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 源路径测试
+ * 验证简单路径的快速访问、前缀拆分以及前缀树求值与 JSONPath 求值结果一致。
+ */
+public class SourcePathTest {
+    private static final String SOURCE = "{" +
+            "\"user\":{\"profile\":{\"name\":\"Tom\",\"age\":30,\"tags\":[\"a\",\"b\"],\"empty\":null}}," +
+            "\"order\":{\"details\":{\"items\":[" +
+            "{\"product\":{\"info\":{\"name\":\"P1\"},\"pricing\":{\"unitPrice\":10.50,\"quantity\":2}}}," +
+            "{\"product\":{\"info\":{\"name\":\"P2\"},\"pricing\":{\"unitPrice\":3,\"quantity\":5}}}," +
+            "{\"product\":null}]," +
+            "\"totals\":{\"amounts\":{\"total\":36.0}}}}," +
+            "\"matrix\":[[1,2],[3,4]]," +
+            "\"text\":\"plain\"," +
+            "\"m\":{\"size\":\"s\",\"0\":\"zero\"}" +
+            "}";
+
+    private static final String[] PATHS = {
+            "$.user.profile.name",
+            "$.user.profile.age",
+            "$.user.profile.tags",
+            "$.user.profile.tags[1]",
+            "$.user.profile.tags[5]",
+            "$.user.profile.empty",
+            "$.user.profile.empty.deeper",
+            "$.user.missing.name",
+            "$.order.details.items[0].product.info.name",
+            "$.order.details.items[1].product.pricing.unitPrice",
+            "$.order.details.items[2].product.info",
+            "$.order.details.items[9].product.info",
+            "$.order.details.items.product",
+            "$.order.details.totals.amounts.total",
+            "$.matrix[1][0]",
+            "$.matrix[0]",
+            "$.text.length",
+            "$.text.value",
+            "$.text[0]",
+            "$.m.size",
+            "$.m[0]",
+            "$.user.profile.size",
+            "$.order.details.items[*].product.pricing.quantity",
+            "$.order.details.items[-1].product",
+            "$.order.details.items[*].product.info.name",
+            "$.order.details.items[*]",
+            "$.order.details.missing[*].product",
+            "$.user.profile.tags[*]",
+            "$.m[*]",
+            "$.text[*]",
+            "$.matrix[*][0]",
+            "$.user.profile.tags.size()",
+            "$.user['profile'].name",
+            "$.user..name"
+    };
+
+    @Test
+    public void testSimplePathsClassified() {
+        assertTrue(SourcePath.compile("$.user.profile.name").isSimple());
+        assertTrue(SourcePath.compile("$.order.details.items[0].product").isSimple());
+        assertEquals(4, SourcePath.compile("$.order.details.items[0]").getSegments().size());
+        assertFalse(SourcePath.compile("$.order.details.items[*].product").isSimple());
+        assertFalse(SourcePath.compile("$..name").isSimple());
+        assertFalse(SourcePath.compile("$.items[?(@.price > 1)]").isSimple());
+        assertFalse(SourcePath.compile("$.items[-1]").isSimple());
+    }
+
+    @Test
+    public void testSameResultAsJsonPath() {
+        JSONObject source = JSON.parseObject(SOURCE);
+        for (String path : PATHS) {
+            Object expected = JSONPath.eval(source, path);
+            Object actual = SourcePath.compile(path).eval(source);
+            assertEquals(path, expected, actual);
+        }
+    }
+
+    @Test
+    public void testTrieSameResultAsJsonPath() {
+        JSONObject source = JSON.parseObject(SOURCE);
+        List<SourcePath> paths = new ArrayList<>();
+        for (String path : PATHS) {
+            paths.add(SourcePath.compile(path));
+        }
+        Object[] values = new SourcePathTrie(paths).resolve(source);
+        for (int i = 0; i < PATHS.length; i++) {
+            assertEquals(PATHS[i], JSONPath.eval(source, PATHS[i]), values[i]);
+        }
+    }
+
+    @Test
+    public void testJavaBeanFallsBackToJsonPath() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("bean", new Bean());
+        assertEquals("bean-name", SourcePath.compile("$.bean.name").eval(source));
+    }
+
+    public static class Bean {
+        public String getName() {
+            return "bean-name";
+        }
+    }
+}